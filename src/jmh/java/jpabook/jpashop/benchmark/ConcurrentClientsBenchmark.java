@@ -0,0 +1,155 @@
+package jpabook.jpashop.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.PoolMetrics;
+import jpabook.jpashop.JpashopApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * 동시 클라이언트 부하 비교 (MVC V4 / V5 vs R2DBC 반응형 조회)
+ *
+ * ./gradlew concurrentClients -PbenchClients=10000 -PbenchOrders=1000
+ *  => 실제 Tomcat 서버 (랜덤 포트) 에 clients 개의 요청을 동시에 보내고 모두 끝날 때까지의 자원 사용량 측정
+ *  => 최대 JVM 스레드 수 / 최대 JDBC (HikariCP) 사용 커넥션 수 / 최대 R2DBC 사용 커넥션 수 + 응답 시간 p50 / p99 / 실패 수
+ *  => MVC V4 / V5 는 OrderQueryCache 를 끄고 (maximum-weight=0) 매번 DB 에서 조회
+ *
+ * * JMH 는 측정 스레드 수만큼 클라이언트 스레드를 만들기 때문에 10k 동시 요청은 HttpClient 비동기 요청으로 별도 측정
+ * * 클라이언트와 서버가 같은 JVM 이므로 스레드 수에는 HttpClient 스레드도 포함 (모든 대상에 동일)
+ */
+public class ConcurrentClientsBenchmark {
+
+    private static final List<String> TARGETS = Arrays.asList(
+            "/api/v4/simple-orders",
+            "/api/reactive/simple-orders",
+            "/api/v5/orders",
+            "/api/reactive/orders");
+
+    public static void main(String[] args) throws Exception {
+        int clients = Integer.getInteger("jpashop.bench.clients", 10_000);
+        int orders = Integer.getInteger("jpashop.bench.orders", 1_000);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(JpashopApplication.class)
+                .profiles("bench")
+                .web(WebApplicationType.SERVLET)
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.max-connections=" + (clients * 2),
+                        "server.tomcat.accept-count=" + clients,
+                        "jpashop.cache.order-query.maximum-weight=0")
+                .run();
+
+        try {
+            OrderDataLoader.load(context.getBean(DataSource.class), orders);
+
+            HikariDataSource hikari = context.getBean(DataSource.class).unwrap(HikariDataSource.class);
+            ConnectionPool r2dbcPool = context.getBean(ConnectionPool.class);
+            String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+
+            System.out.printf("clients=%d orders=%d%n", clients, orders);
+            System.out.printf("%-30s %10s %10s %10s %10s %10s %10s %8s%n", "target", "wall(ms)", "p50(ms)", "p99(ms)", "threads", "jdbc", "r2dbc", "errors");
+
+            for (String target : TARGETS) {
+                run(baseUrl + target, 100, hikari, r2dbcPool); // warm-up
+                Result result = run(baseUrl + target, clients, hikari, r2dbcPool);
+                System.out.printf("%-30s %10d %10.1f %10.1f %10d %10d %10d %8d%n",
+                        target, result.wallMillis, result.p50, result.p99, result.peakThreads, result.peakJdbc, result.peakR2dbc, result.errors);
+            }
+        } finally {
+            context.close();
+        }
+    }
+
+    private static Result run(String url, int clients, HikariDataSource hikari, ConnectionPool r2dbcPool) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+
+        AtomicInteger peakJdbc = new AtomicInteger();
+        AtomicInteger peakR2dbc = new AtomicInteger();
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            peak(peakJdbc, () -> hikari.getHikariPoolMXBean().getActiveConnections());
+            peak(peakR2dbc, () -> r2dbcPool.getMetrics().map(PoolMetrics::acquiredSize).orElse(0));
+        }, 0, 5, TimeUnit.MILLISECONDS);
+
+        long[] latencies = new long[clients];
+        AtomicInteger errors = new AtomicInteger();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(Duration.ofMinutes(2)).GET().build();
+
+        long start = System.nanoTime();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            int index = i;
+            long sent = System.nanoTime();
+            futures.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .handle((response, error) -> {
+                        latencies[index] = System.nanoTime() - sent;
+                        if (error != null || response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        long wallMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        sampler.shutdownNow();
+        Arrays.sort(latencies);
+
+        return new Result(wallMillis, percentile(latencies, 0.50), percentile(latencies, 0.99),
+                threads.getPeakThreadCount(), peakJdbc.get(), peakR2dbc.get(), errors.get());
+    }
+
+    private static void peak(AtomicInteger peak, IntSupplier current) {
+        peak.accumulateAndGet(current.getAsInt(), Math::max);
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    private static class Result {
+        private final long wallMillis;
+        private final double p50;
+        private final double p99;
+        private final int peakThreads;
+        private final int peakJdbc;
+        private final int peakR2dbc;
+        private final int errors;
+
+        private Result(long wallMillis, double p50, double p99, int peakThreads, int peakJdbc, int peakR2dbc, int errors) {
+            this.wallMillis = wallMillis;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.peakThreads = peakThreads;
+            this.peakJdbc = peakJdbc;
+            this.peakR2dbc = peakR2dbc;
+            this.errors = errors;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.service.OrderService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+
+import java.util.List;
+
+/**
+ * 변경 전 주문 목록 화면 (OrderListPageBenchmark 기준선, bench 프로필에서만 등록)
+ *
+ * 검색 결과 Order 엔티티를 그대로 넘기고 회원 / 주문 상품 / 상품은 Thymeleaf 렌더링 중에 지연 로딩
+ *  => open-in-view: true 에서만 동작 (렌더링이 끝날 때까지 커넥션 점유)
+ *  => 페이징 없이 검색 결과 전체 (OrderRepository.findAll 최대 1000건) 를 렌더링
+ */
+@Profile("bench")
+@Controller
+@RequiredArgsConstructor
+public class LegacyOrderListController {
+
+    private final OrderService orderService;
+
+    @GetMapping("/bench/legacy-orders")
+    public String orderList(@ModelAttribute("orderSearch") OrderSearch orderSearch, Model model) {
+        List<Order> orders = orderService.findOrders(orderSearch);
+        model.addAttribute("orders", orders);
+
+        return "bench/legacyOrderList";
+    }
+}
@@ -0,0 +1,114 @@
+package jpabook.jpashop.benchmark;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * 벤치마크용 주문 데이터 적재 (JDBC batch INSERT)
+ *
+ * JPA 로 수백만 건을 persist 하면 적재 시간이 측정 시간보다 길어지므로 JDBC 로 직접 INSERT
+ *  => 주문 1건 = 배송 1건 + 주문 상품 2건
+ *  => id 는 InitDb 데이터 / 시퀀스와 겹치지 않도록 ID_OFFSET 부터 사용
+ */
+class OrderDataLoader {
+
+    private static final long ID_OFFSET = 1_000_000_000L;
+    private static final int BATCH_SIZE = 10_000;
+    private static final int MEMBER_COUNT = 1_000;
+    private static final int ITEM_COUNT = 100;
+
+    static void load(DataSource dataSource, int orders) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+
+            insertMembers(connection);
+            insertItems(connection);
+            insertOrders(connection, orders);
+
+            connection.commit();
+        }
+    }
+
+    private static void insertMembers(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "insert into member (member_id, name, city, street, zipcode, version) values (?, ?, ?, ?, ?, 0)")) {
+            for (int i = 0; i < MEMBER_COUNT; i++) {
+                ps.setLong(1, ID_OFFSET + i);
+                ps.setString(2, "member" + i);
+                ps.setString(3, "city" + (i % 10));
+                ps.setString(4, "street" + i);
+                ps.setString(5, "12345");
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static void insertItems(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "insert into item (dtype, item_id, name, price, stock_quantity, author, isbn, version) values ('B', ?, ?, ?, ?, ?, ?, 0)")) {
+            for (int i = 0; i < ITEM_COUNT; i++) {
+                ps.setLong(1, ID_OFFSET + i);
+                ps.setString(2, "book" + i);
+                ps.setInt(3, 10000 + i * 100);
+                ps.setInt(4, Integer.MAX_VALUE);
+                ps.setString(5, "author" + i);
+                ps.setString(6, "isbn" + i);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static void insertOrders(Connection connection, int orders) throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+
+        try (PreparedStatement delivery = connection.prepareStatement(
+                "insert into delivery (delivery_id, city, street, zipcode, status) values (?, ?, ?, ?, 'READY')");
+             PreparedStatement order = connection.prepareStatement(
+                "insert into orders (order_id, member_id, delivery_id, order_date, status, version) values (?, ?, ?, ?, 'ORDER', 0)");
+             PreparedStatement orderItem = connection.prepareStatement(
+                "insert into order_item (order_item_id, order_id, item_id, order_price, count) values (?, ?, ?, ?, ?)")) {
+
+            for (int i = 0; i < orders; i++) {
+                long orderId = ID_OFFSET + i;
+
+                delivery.setLong(1, orderId);
+                delivery.setString(2, "city" + (i % 10));
+                delivery.setString(3, "street" + i);
+                delivery.setString(4, "12345");
+                delivery.addBatch();
+
+                order.setLong(1, orderId);
+                order.setLong(2, ID_OFFSET + (i % MEMBER_COUNT));
+                order.setLong(3, orderId);
+                order.setTimestamp(4, Timestamp.valueOf(now.minusSeconds(orders - i)));
+                order.addBatch();
+
+                for (int j = 0; j < 2; j++) {
+                    orderItem.setLong(1, ID_OFFSET + i * 2L + j);
+                    orderItem.setLong(2, orderId);
+                    orderItem.setLong(3, ID_OFFSET + ((i + j) % ITEM_COUNT));
+                    orderItem.setInt(4, 10000);
+                    orderItem.setInt(5, j + 1);
+                    orderItem.addBatch();
+                }
+
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    delivery.executeBatch();
+                    order.executeBatch();
+                    orderItem.executeBatch();
+                    connection.commit();
+                }
+            }
+
+            delivery.executeBatch();
+            order.executeBatch();
+            orderItem.executeBatch();
+        }
+    }
+}
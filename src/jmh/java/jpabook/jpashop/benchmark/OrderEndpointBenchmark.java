@@ -0,0 +1,104 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.JpashopApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 조회 API 스레드 모델 비교 (플랫폼 스레드 vs 가상 스레드)
+ *
+ * ./gradlew jmh -Pjmh.includes=OrderEndpointBenchmark (가상 스레드는 Java 21+ JVM 으로 실행해야 비교 가능)
+ *  => 실제 Tomcat 서버 (랜덤 포트) 를 띄우고 64개 클라이언트 스레드가 동시에 HTTP 요청
+ *  => threads=platform : Tomcat 스레드 풀 (maxThreads 200) / threads=virtual : virtual 프로필 (요청 / fan-out 가상 스레드)
+ *  => 두 경우 모두 커넥션 풀 크기 (20) 를 동일하게 설정
+ *  => Throughput (ops/s) + SampleTime (p0.99 응답 시간)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Threads(64)
+@Fork(1)
+public class OrderEndpointBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(JpashopApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.hikari.maximum-pool-size=20");
+        builder.profiles("virtual".equals(threads) ? new String[]{"bench", "virtual"} : new String[]{"bench"});
+        context = builder.run();
+
+        OrderDataLoader.load(context.getBean(DataSource.class), Integer.getInteger("jpashop.bench.orders", 10_000));
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port;
+        client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    // V3.1 > ToOne fetch join + default_batch_fetch_size (첫 페이지 100건)
+    @Benchmark
+    public int orderV3_1() throws IOException, InterruptedException {
+        return get("/api/v3.1/orders?offset=0&limit=100");
+    }
+
+    // V3.2 > Keyset 페이징 (100건)
+    @Benchmark
+    public int orderV3_2() throws IOException, InterruptedException {
+        return get("/api/v3.2/orders?limit=100");
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("unexpected status " + response.statusCode() + " : " + path);
+        }
+        return response.body().length;
+    }
+}
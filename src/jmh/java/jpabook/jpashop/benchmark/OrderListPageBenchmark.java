@@ -0,0 +1,128 @@
+package jpabook.jpashop.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jpabook.jpashop.JpashopApplication;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 주문 목록 화면 커넥션 점유 시간 비교 (변경 전 엔티티 화면 vs DTO 화면)
+ *
+ * ./gradlew jmh -Pjmh.includes=OrderListPageBenchmark
+ *  => 실제 Tomcat 서버 (랜덤 포트) 에 HTTP 요청하여 Thymeleaf 렌더링까지 포함
+ *  => page=legacy  : 변경 전 화면 (LegacyOrderListController) > Order 엔티티 + 렌더링 중 지연 로딩, OSIV on (기준선)
+ *  => page=dto     : /orders > OrderListDto 조회 + Keyset 페이징, OSIV off (트랜잭션이 끝나면 커넥션 반납 후 렌더링)
+ *  => page=dto-osiv: /orders 를 OSIV on 으로 실행 (OSIV 만의 영향)
+ *  => 요청당 커넥션 점유 시간은 Hikari 메트릭 (hikaricp.connections.usage) 증가분으로 측정
+ *      => 결과 JSON 의 secondaryMetrics : connectionHeldMicros / requests = 요청당 커넥션 점유 시간 (us)
+ *
+ * * 요청마다 메트릭 증가분을 계산하므로 단일 스레드로 측정
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OrderListPageBenchmark {
+
+    @Param({"legacy", "dto", "dto-osiv"})
+    public String page;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private Timer connectionUsage;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class ConnectionCounter {
+        public long connectionHeldMicros;
+        public long requests;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(JpashopApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .profiles("bench")
+                .properties(
+                        "server.port=0",
+                        "spring.jpa.open-in-view=" + !"dto".equals(page))
+                .run();
+
+        OrderDataLoader.load(context.getBean(DataSource.class), Integer.getInteger("jpashop.bench.orders", 10_000));
+
+        connectionUsage = context.getBean(MeterRegistry.class).get("hikaricp.connections.usage").timer();
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port;
+        client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    // 첫 페이지 (dto : 20건 / legacy : 페이징 없음)
+    @Benchmark
+    public int orderList(ConnectionCounter counter) throws IOException, InterruptedException {
+        return get(path(""), counter);
+    }
+
+    // 주문 상태 검색 + 중간 페이지 (legacy 는 after 무시)
+    @Benchmark
+    public int orderListSearch(ConnectionCounter counter) throws IOException, InterruptedException {
+        return get(path("?orderStatus=ORDER&after=5000"), counter);
+    }
+
+    private String path(String query) {
+        return ("legacy".equals(page) ? "/bench/legacy-orders" : "/orders") + query;
+    }
+
+    private int get(String path, ConnectionCounter counter) throws IOException, InterruptedException {
+        double before = connectionUsage.totalTime(TimeUnit.MICROSECONDS);
+
+        HttpResponse<byte[]> response = client.send(
+                HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("unexpected status " + response.statusCode() + " : " + path);
+        }
+
+        counter.connectionHeldMicros += (long) (connectionUsage.totalTime(TimeUnit.MICROSECONDS) - before);
+        counter.requests++;
+        return response.body().length;
+    }
+}
@@ -0,0 +1,203 @@
+package jpabook.jpashop.benchmark;
+
+import jpabook.jpashop.JpashopApplication;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepository;
+import jpabook.jpashop.service.query.OrderDto;
+import jpabook.jpashop.service.query.OrderQueryService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * 주문 조회 API 전략별 (V1 ~ V6, 간단 주문 V2 ~ V4) 성능 비교
+ *
+ * ./gradlew jmh -PbenchOrders=100000
+ *  => H2 메모리 DB (bench 프로필) 에 benchOrders 건의 주문 (주문당 상품 2개) 을 적재한 후 측정
+ *  => 각 호출은 API 와 동일하게 readOnly 트랜잭션 (새로운 영속성 컨텍스트) 안에서 실행
+ *  => V4 ~ V6 는 OrderQueryCache 를 거치지 않고 Repository 를 직접 호출 (DB 조회 전략만 비교)
+ *  => 처리량 (ops/s) + gc 프로파일러 (gc.alloc.rate.norm : 호출당 할당 byte) + 실행된 SQL 수 (sqlStatements / invocations)
+ *
+ * * V1 ~ V3, 간단 주문 V2 / V3 는 전체 주문을 엔티티로 조회하므로 (V1 / V2 는 최대 1000건) 주문 수가 많으면 측정 시간이 길어짐
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class OrderReadBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private TransactionTemplate readOnlyTransaction;
+    private Statistics statistics;
+
+    private OrderRepository orderRepository;
+    private OrderQueryService orderQueryService;
+    private OrderQueryRepository orderQueryRepository;
+    private OrderSimpleQueryRepository orderSimpleQueryRepository;
+
+    /**
+     * 호출마다 실행된 SQL 수 (Hibernate Statistics > prepareStatementCount)
+     *  => 결과 JSON 의 secondaryMetrics 에 iteration 단위 합계로 기록 (sqlStatements / invocations = 호출당 SQL 수)
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class SqlCounter {
+        public long sqlStatements;
+        public long invocations;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = new SpringApplicationBuilder(JpashopApplication.class)
+                .profiles("bench")
+                .web(WebApplicationType.NONE)
+                .run();
+
+        OrderDataLoader.load(context.getBean(DataSource.class), Integer.getInteger("jpashop.bench.orders", 10_000));
+
+        readOnlyTransaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        readOnlyTransaction.setReadOnly(true);
+
+        statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        orderRepository = context.getBean(OrderRepository.class);
+        orderQueryService = context.getBean(OrderQueryService.class);
+        orderQueryRepository = context.getBean(OrderQueryRepository.class);
+        orderSimpleQueryRepository = context.getBean(OrderSimpleQueryRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    // V1 > Entity 직접 조회 + Lazy 강제 초기화
+    @Benchmark
+    public Object orderV1(SqlCounter counter) {
+        return measure(counter, () -> {
+            List<Order> orders = orderRepository.findAll(new OrderSearch());
+            for (Order order : orders) {
+                order.getMember().getName();
+                order.getDelivery().getAddress();
+                order.getOrderItems().forEach(orderItem -> orderItem.getItem().getName());
+            }
+            return orders;
+        });
+    }
+
+    // V2 > Entity -> DTO 변환 (N+1)
+    @Benchmark
+    public Object orderV2(SqlCounter counter) {
+        return measure(counter, () -> toOrderDtos(orderRepository.findAll(new OrderSearch())));
+    }
+
+    // V3 > 컬렉션 fetch join (distinct)
+    @Benchmark
+    public Object orderV3(SqlCounter counter) {
+        return measure(counter, () -> orderQueryService.ordersV3());
+    }
+
+    // V3.1 > ToOne fetch join + default_batch_fetch_size (첫 페이지 100건)
+    @Benchmark
+    public Object orderV3_1(SqlCounter counter) {
+        return measure(counter, () -> toOrderDtos(orderRepository.findAllWithMemberDelivery(0, 100)));
+    }
+
+    // V4 > DTO 직접 조회 (N+1)
+    @Benchmark
+    public Object orderV4(SqlCounter counter) {
+        return measure(counter, () -> orderQueryRepository.findOrderQueryDtos());
+    }
+
+    // V5 > DTO 직접 조회 + IN 절 (ChunkedInLoader)
+    @Benchmark
+    public Object orderV5(SqlCounter counter) {
+        return measure(counter, () -> orderQueryRepository.findAllByDto_optimization());
+    }
+
+    // V5.1 > 주문 조회 후 주문 상품 / 회원 / 배송 병렬 조회 (QueryAssembler)
+    @Benchmark
+    public Object orderV5_1(SqlCounter counter) {
+        return measure(counter, () -> orderQueryRepository.findAllByDto_parallel());
+    }
+
+    // V6 > DTO 직접 조회 + flat 조인 (쿼리 1번)
+    @Benchmark
+    public Object orderV6(SqlCounter counter) {
+        return measure(counter, () -> orderQueryRepository.findAllByDto_flat());
+    }
+
+    // 간단 주문 V2 > Entity -> DTO 변환 (N+1)
+    @Benchmark
+    public Object simpleOrderV2(SqlCounter counter) {
+        return measure(counter, () -> {
+            List<Order> orders = orderRepository.findAll(new OrderSearch());
+            orders.forEach(order -> {
+                order.getMember().getName();
+                order.getDelivery().getAddress();
+            });
+            return orders;
+        });
+    }
+
+    // 간단 주문 V3 > Member / Delivery fetch join
+    @Benchmark
+    public Object simpleOrderV3(SqlCounter counter) {
+        return measure(counter, () -> orderRepository.findAllWithMemberDelivery());
+    }
+
+    // 간단 주문 V4 > DTO 직접 조회
+    @Benchmark
+    public Object simpleOrderV4(SqlCounter counter) {
+        return measure(counter, () -> orderSimpleQueryRepository.findOrderDtos());
+    }
+
+    private List<OrderDto> toOrderDtos(List<Order> orders) {
+        return orders.stream()
+                .map(OrderDto::new)
+                .collect(toList());
+    }
+
+    private <T> T measure(SqlCounter counter, Supplier<T> query) {
+        long before = statistics.getPrepareStatementCount();
+
+        T result = readOnlyTransaction.execute(status -> query.get());
+
+        counter.sqlStatements += statistics.getPrepareStatementCount() - before;
+        counter.invocations++;
+        return result;
+    }
+}
@@ -2,6 +2,7 @@ package jpabook.jpashop;
 
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.OrderSummaryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -15,9 +16,11 @@ import javax.persistence.EntityManager;
 public class InitDb {
 
     private final InitService initService;
+    private final OrderSummaryService orderSummaryService;
 
     @PostConstruct
     public void init() {
+        orderSummaryService.rebuildIfEmpty(); // order_summary 이전에 생성된 주문 > 주문 요약 최초 적재 (이미 있으면 X)
         initService.dbInit1();
         initService.dbInit2();
     }
@@ -51,6 +54,7 @@ public class InitDb {
             // 주문 생성
             Order order = Order.createOrder(member, delivery, orderItem1, orderItem2);
             entityManager.persist(order);
+            entityManager.persist(OrderSummary.createOrderSummary(order)); // EntityManager 로 직접 저장한 주문 > 주문 요약도 함께 저장
         }
 
         public void dbInit2() {
@@ -76,6 +80,7 @@ public class InitDb {
             // 주문 생성
             Order order = Order.createOrder(member, delivery, orderItem1, orderItem2);
             entityManager.persist(order);
+            entityManager.persist(OrderSummary.createOrderSummary(order)); // EntityManager 로 직접 저장한 주문 > 주문 요약도 함께 저장
         }
 
 
@@ -3,9 +3,14 @@ package jpabook.jpashop;
 import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
 import org.springframework.context.annotation.Bean;
 
-@SpringBootApplication
+/**
+ * R2DBC (반응형 조회) 는 읽기 전용으로만 사용하므로 ReactiveTransactionManager 는 등록하지 않음
+ *  => TransactionManager Bean 이 2개가 되면 @Transactional 이 사용할 트랜잭션 매니저를 결정하지 못함 (JPA 트랜잭션 유지)
+ */
+@SpringBootApplication(exclude = R2dbcTransactionManagerAutoConfiguration.class)
 public class JpashopApplication {
 	public static void main(String[] args) {
 		SpringApplication.run(JpashopApplication.class, args);
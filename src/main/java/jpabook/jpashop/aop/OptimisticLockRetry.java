@@ -0,0 +1,20 @@
+package jpabook.jpashop.aop;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 낙관적 락 (@Version) 충돌 시 메소드 전체를 새로운 트랜잭션으로 재시도
+ *
+ * @Transactional 메소드에 함께 선언 (OptimisticLockRetryAspect 가 트랜잭션 바깥에서 실행)
+ *  => 재시도마다 엔티티를 다시 조회하므로 다른 트랜잭션이 커밋한 최신 값 기준으로 변경
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OptimisticLockRetry {
+
+    // 최대 시도 횟수 (최초 시도 포함) > 0 이하면 jpashop.retry.max-attempts 사용
+    int maxAttempts() default 0;
+}
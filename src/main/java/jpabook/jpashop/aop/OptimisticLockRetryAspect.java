@@ -0,0 +1,102 @@
+package jpabook.jpashop.aop;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.OptimisticLockException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 낙관적 락 충돌 재시도
+ *
+ * 비관적 락 (select ... for update) 은 충돌이 없어도 항상 row lock 을 잡기 때문에 처리량 감소
+ *  => @Version 으로 충돌을 감지하고, 충돌이 발생한 경우에만 backoff + jitter 후 재시도
+ *  => 트랜잭션 바깥에서 실행되어야 하므로 @Transactional (LOWEST_PRECEDENCE) 보다 먼저 실행되도록 순서 지정
+ *
+ * 메소드별 충돌 횟수를 Micrometer 로 기록 (/actuator/metrics)
+ *  => jpashop.optimistic.lock.calls     : 호출 횟수
+ *  => jpashop.optimistic.lock.conflicts : 충돌 횟수 (conflicts / calls = 충돌률)
+ *  => jpashop.optimistic.lock.exhausted : 재시도를 모두 소진하여 실패한 횟수
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+public class OptimisticLockRetryAspect {
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long initialBackoff;
+    private final long maxBackoff;
+
+    public OptimisticLockRetryAspect(MeterRegistry meterRegistry,
+                                     @Value("${jpashop.retry.max-attempts:3}") int maxAttempts,
+                                     @Value("${jpashop.retry.initial-backoff:20}") long initialBackoff,
+                                     @Value("${jpashop.retry.max-backoff:500}") long maxBackoff) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+    }
+
+    @Around("@annotation(retry)")
+    public Object retry(ProceedingJoinPoint joinPoint, OptimisticLockRetry retry) throws Throwable {
+        // 이미 트랜잭션 안에서 호출된 경우 같은 트랜잭션 (영속성 컨텍스트) 을 재사용하므로 재시도 의미 없음 > 바깥 트랜잭션에 맡김
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        String method = joinPoint.getSignature().getDeclaringType().getSimpleName() + "." + joinPoint.getSignature().getName();
+        int attempts = retry.maxAttempts() > 0 ? retry.maxAttempts() : maxAttempts;
+
+        counter("jpashop.optimistic.lock.calls", method).increment();
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                counter("jpashop.optimistic.lock.conflicts", method).increment();
+
+                if (attempt >= attempts) {
+                    counter("jpashop.optimistic.lock.exhausted", method).increment();
+                    log.warn("optimistic lock conflict - retry exhausted. method = {}, attempts = {}", method, attempt);
+                    throw e;
+                }
+
+                long backoff = backoff(attempt);
+                log.debug("optimistic lock conflict - retry. method = {}, attempt = {}, backoff = {}ms", method, attempt, backoff);
+
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // 지수 backoff (initialBackoff * 2^(attempt-1), 최대 maxBackoff) 의 절반 + 나머지 절반 범위의 jitter
+    //  => 동시에 충돌한 요청들이 같은 시점에 다시 충돌하지 않도록 분산
+    private long backoff(int attempt) {
+        long exponential = Math.min(maxBackoff, initialBackoff << Math.min(attempt - 1, 20));
+        long half = Math.max(1, exponential / 2);
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    private Counter counter(String name, String method) {
+        return Counter.builder(name)
+                .tag("method", method)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,124 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.category.CategoryTree;
+import jpabook.jpashop.category.CategoryTreeCache;
+import jpabook.jpashop.repository.CategoryItemDto;
+import jpabook.jpashop.service.CategoryService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 카테고리 API
+ *
+ * 트리 탐색 (전체 / 단건 / 경로) 은 메모리 스냅샷 (CategoryTreeCache) 에서 응답하므로 DB 조회 없음
+ * 하위 카테고리 상품은 closure table 로 한번에 조회 (Keyset 페이징, 응답의 nextItemId 를 다음 요청의 after 로 전달)
+ */
+@RestController
+@RequiredArgsConstructor
+public class CategoryApiController {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    private final CategoryService categoryService;
+    private final CategoryTreeCache categoryTreeCache;
+
+    @GetMapping("/api/categories")
+    public List<CategoryTree.Node> categories() {
+        return categoryTreeCache.get().getRoots();
+    }
+
+    @GetMapping("/api/categories/{id}")
+    public ResponseEntity<CategoryResponse> category(@PathVariable("id") Long id) {
+        CategoryTree tree = categoryTreeCache.get();
+        CategoryTree.Node node = tree.get(id);
+        if (node == null) {
+            return ResponseEntity.notFound().build();
+        }
+        List<CategoryRef> path = tree.path(id).stream()
+                .map(n -> new CategoryRef(n.getId(), n.getName()))
+                .collect(Collectors.toList());
+        return ResponseEntity.ok(new CategoryResponse(node, path));
+    }
+
+    @GetMapping("/api/categories/{id}/items")
+    public ItemPage items(@PathVariable("id") Long id,
+                          @RequestParam(value = "after", required = false) Long after,
+                          @RequestParam(value = "limit", defaultValue = "100") int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        // 다음 페이지 존재 여부 확인을 위해 1건 더 조회
+        List<CategoryItemDto> items = categoryService.findItems(id, after, pageSize + 1);
+
+        Long nextItemId = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            nextItemId = items.get(pageSize - 1).getItemId();
+        }
+
+        return new ItemPage(items.size(), items, nextItemId);
+    }
+
+    @PostMapping("/api/categories")
+    public CreateCategoryResponse create(@RequestBody @Valid CreateCategoryRequest request) {
+        return new CreateCategoryResponse(categoryService.create(request.getName(), request.getParentId()));
+    }
+
+    // parentId 가 null 이면 루트로 이동
+    @PutMapping("/api/categories/{id}/parent")
+    public void move(@PathVariable("id") Long id, @RequestBody MoveCategoryRequest request) {
+        categoryService.move(id, request.getParentId());
+    }
+
+    @PutMapping("/api/categories/{id}/items/{itemId}")
+    public void addItem(@PathVariable("id") Long id, @PathVariable("itemId") Long itemId) {
+        categoryService.addItem(id, itemId);
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CategoryResponse {
+        private CategoryTree.Node category;
+        private List<CategoryRef> path; // 루트 ~ 현재 카테고리 (breadcrumb)
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CategoryRef {
+        private Long id;
+        private String name;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class ItemPage {
+        private int count;
+        private List<CategoryItemDto> data;
+        private Long nextItemId;
+    }
+
+    @Data
+    static class CreateCategoryRequest {
+        @NotEmpty
+        private String name;
+        private Long parentId;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CreateCategoryResponse {
+        private Long id;
+    }
+
+    @Data
+    static class MoveCategoryRequest {
+        private Long parentId;
+    }
+}
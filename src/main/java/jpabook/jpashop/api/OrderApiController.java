@@ -1,20 +1,49 @@
 package jpabook.jpashop.api;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
-import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.exception.InvalidRequestParameterException;
+import jpabook.jpashop.repository.OrderCursor;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.query.OrderField;
 import jpabook.jpashop.repository.order.query.OrderFlatDto;
 import jpabook.jpashop.repository.order.query.OrderQueryDto;
 import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.repository.order.summary.OrderSummaryDto;
+import jpabook.jpashop.repository.order.summary.OrderSummaryRepository;
+import jpabook.jpashop.service.OrderCommand;
+import jpabook.jpashop.service.OrderService;
 import jpabook.jpashop.service.query.OrderDto;
+import jpabook.jpashop.service.query.OrderExportService;
+import jpabook.jpashop.service.query.OrderQueryCache;
 import jpabook.jpashop.service.query.OrderQueryService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletResponse;
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Map;
 
 import static java.util.stream.Collectors.toList;
 
@@ -22,9 +51,14 @@ import static java.util.stream.Collectors.toList;
 @RequiredArgsConstructor
 public class OrderApiController {
 
-    private final OrderRepository orderRepository;
-    private final OrderQueryRepository orderQueryRepository;
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final OrderQueryService orderQueryService;
+    private final OrderQueryRepository orderQueryRepository;
+    private final OrderQueryCache orderQueryCache;
+    private final OrderExportService orderExportService;
+    private final OrderService orderService;
+    private final OrderSummaryRepository orderSummaryRepository;
 
     /**
      * Entity 직접 조회
@@ -32,18 +66,16 @@ public class OrderApiController {
     // V1
     @GetMapping("/api/v1/orders")
     public List<Order> ordersV1() {
-        List<Order> orders = orderRepository.findAll(new OrderSearch());
-
         // Hibernate5Module 사용하지 않으면 Lazy 강제 초기화 필드들이 null 로 반환
-        for (Order order : orders) {
+        // open-in-view: false > Lazy 강제 초기화는 트랜잭션 (OrderQueryService) 안에서 처리
+        return orderQueryService.findOrders(new OrderSearch(), order -> {
             order.getMember().getName(); // Lazy 강제 초기화
             order.getDelivery().getAddress(); // Lazy 강제 초기화
             List<OrderItem> orderItems = order.getOrderItems();
 
             orderItems.stream().forEach(orderItem -> orderItem.getItem().getName()); // Lazy 강제 초기화
-        }
-
-        return orders;
+            return order;
+        });
     }
 
     /**
@@ -52,11 +84,8 @@ public class OrderApiController {
     // V2
     @GetMapping("/api/v2/orders")
     public List<OrderDto> ordersV2() {
-        List<Order> orders = orderRepository.findAll(new OrderSearch());
-
-        return orders.stream()
-                    .map(order -> new OrderDto(order))
-                    .collect(toList());
+        // DTO 변환 중 지연 로딩 (N + 1) > 트랜잭션 안에서 변환
+        return orderQueryService.findOrders(new OrderSearch(), order -> new OrderDto(order));
     }
 
     /**
@@ -83,33 +112,228 @@ public class OrderApiController {
             @RequestParam(value = "offset", defaultValue = "0") int offset,
             @RequestParam(value = "limit", defaultValue = "100") int limit)
     {
-        List<Order> orders = orderRepository.findAllWithMemberDelivery(offset, limit);
+        return orderQueryService.ordersV3_page(offset, limit);
+    }
 
-        return orders.stream()
-                .map(order -> new OrderDto(order))
-                .collect(toList());
+    /**
+     * V3.1 의 offset 페이징을 Keyset (seek) 페이징으로 변경
+     *
+     * offset 이 커질수록 DB 에서 버려지는 row 가 늘어나는 이슈 해결 (페이지 깊이와 상관없이 일정한 응답 속도)
+     *  => 응답의 nextCursor 를 다음 요청의 after 파라미터로 전달 (nextCursor 가 null 이면 마지막 페이지)
+     *  => sort=id : order_id 오름차순 / sort=orderDate : 최근 주문순 (orderDate, order_id 내림차순)
+     *  => 커서에 정렬이 포함되므로 다른 sort 로 만든 커서를 전달하면 400
+     *  => OrderItem 은 V3.1 과 동일하게 default_batch_fetch_size 로 IN 조회
+     */
+    // V3.2
+    @GetMapping("/api/v3.2/orders")
+    public CursorResult<List<OrderDto>> ordersV3_cursor(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "sort", defaultValue = "id") String sort,
+            @RequestParam(value = "limit", defaultValue = "100") int limit)
+    {
+        OrderCursor.Sort orderSort = OrderCursor.Sort.of(sort);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        OrderCursor cursor = after == null ? OrderCursor.first(orderSort) : OrderCursor.decode(after).requireSort(orderSort);
+
+        // 다음 페이지 존재 여부 확인을 위해 1건 더 조회
+        List<OrderDto> orders = orderQueryService.ordersV3_cursor(cursor, pageSize + 1);
+
+        String nextCursor = null;
+        if (orders.size() > pageSize) {
+            orders = orders.subList(0, pageSize);
+            OrderDto last = orders.get(pageSize - 1);
+            nextCursor = new OrderCursor(orderSort, orderSort == OrderCursor.Sort.ORDER_DATE ? last.getOrderDate() : null, last.getOrderId()).encode();
+        }
+
+        return new CursorResult<>(orders.size(), orders, nextCursor);
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CursorResult<T> {
+        private int count;
+        private T data;
+        private String nextCursor;
     }
 
+    // V4 ~ V6 > OrderQueryCache 를 통해 조회 (주문 생성 / 취소 커밋 시 무효화)
     // V4
     @GetMapping("/api/v4/orders")
     public List<OrderQueryDto> ordersV4() {
-        return orderQueryRepository.findOrderQueryDtos();
+        return orderQueryCache.findOrderQueryDtos();
     }
 
     // V5
     @GetMapping("/api/v5/orders")
     public List<OrderQueryDto> ordersV5() {
-        return orderQueryRepository.findAllByDto_optimization();
+        return orderQueryCache.findAllByDto_optimization();
+    }
+
+    /**
+     * V5 와 같은 결과를 주문 조회 후 주문 상품 / 회원 / 배송을 동시에 조회하여 조립 (캐시 X)
+     *  => 응답 시간 = 주문 조회 + 가장 느린 하위 쿼리 (QueryAssembler)
+     */
+    // V5.1
+    @GetMapping("/api/v5.1/orders")
+    public List<OrderQueryDto> ordersV5_parallel() {
+        return orderQueryRepository.findAllByDto_parallel();
     }
 
     // V6
     @GetMapping("/api/v6/orders")
     public List<OrderFlatDto> ordersV6() {
-        List<OrderFlatDto> flats = orderQueryRepository.findAllByDto_flat();
+        List<OrderFlatDto> flats = orderQueryCache.findAllByDto_flat();
 
         return flats;
     }
 
+    /**
+     * 주문 요약 테이블 (order_summary) 조회
+     *
+     * V4 ~ V6 는 orders / member / delivery join + 주문 상품 조회가 필요하지만, 주문 생성 / 취소 시점에 미리 계산해둔 요약 테이블 1개만 조회
+     *  => 총 금액 / 주문 상품 수 포함, 주문 상품 목록은 제외
+     *  => V3.2 와 동일하게 nextCursor 를 다음 요청의 after 로 전달 (order_id 오름차순)
+     */
+    // V7
+    @GetMapping("/api/v7/orders")
+    public CursorResult<List<OrderSummaryDto>> ordersV7(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", defaultValue = "100") int limit)
+    {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Long afterOrderId = after == null ? null : OrderCursor.decode(after).requireSort(OrderCursor.Sort.ID).getOrderId();
+
+        List<OrderSummaryDto> summaries = orderSummaryRepository.findAllAfter(afterOrderId, pageSize + 1);
+
+        String nextCursor = null;
+        if (summaries.size() > pageSize) {
+            summaries = summaries.subList(0, pageSize);
+            nextCursor = OrderCursor.afterId(summaries.get(pageSize - 1).getOrderId()).encode();
+        }
+
+        return new CursorResult<>(summaries.size(), summaries, nextCursor);
+    }
+
+    /**
+     * 필요한 필드만 조회 (sparse fieldset)
+     *
+     * fields=orderId,orderStatus 와 같이 응답에 필요한 필드만 요청 (생략하면 V4 / V5 와 같은 전체 필드)
+     *  => 요청한 필드에 필요한 컬럼 / join 만 조회 (name > member, address > delivery, orderItems > 주문 상품 IN 조회)
+     *  => 필드 : orderId (항상 포함), name, orderDate, orderStatus, address, orderItems
+     *  => V3.2 와 동일하게 nextCursor 를 다음 요청의 after 로 전달 (order_id 오름차순)
+     */
+    // V8
+    @GetMapping("/api/v8/orders")
+    public CursorResult<List<Map<String, Object>>> ordersV8(
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "limit", defaultValue = "100") int limit)
+    {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        Long afterOrderId = after == null ? null : OrderCursor.decode(after).requireSort(OrderCursor.Sort.ID).getOrderId();
+
+        List<Map<String, Object>> orders = orderQueryRepository.findAllByFields(OrderField.parse(fields), afterOrderId, pageSize + 1);
+
+        String nextCursor = null;
+        if (orders.size() > pageSize) {
+            orders = orders.subList(0, pageSize);
+            Long lastOrderId = (Long) orders.get(pageSize - 1).get(OrderField.ORDER_ID.getJsonName());
+            nextCursor = OrderCursor.afterId(lastOrderId).encode();
+        }
+
+        // Map 은 DTO 처럼 @JsonSerialize 를 지정할 수 없으므로 Snowflake id 를 직접 문자열로 변환 (SnowflakeIdGenerator 참고)
+        orders.forEach(order -> order.computeIfPresent(OrderField.ORDER_ID.getJsonName(), (name, orderId) -> orderId.toString()));
+
+        return new CursorResult<>(orders.size(), orders, nextCursor);
+    }
+
+    // 잘못된 요청 파라미터 (fields / cursor 등) > 400 (그 외 IllegalArgumentException 은 기존과 동일하게 처리)
+    @ExceptionHandler(InvalidRequestParameterException.class)
+    public ResponseEntity<String> badRequest(InvalidRequestParameterException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    /**
+     * 전체 주문 Export - 스트리밍
+     *
+     * V5 / V6 는 전체 주문을 List 로 올린 후 직렬화하기 때문에 주문 수에 비례하여 메모리 사용
+     *  => DB 에서 fetchSize 만큼씩 읽으면서 주문 단위로 Response OutputStream 에 바로 기록 (Heap 사용량 일정)
+     *  => format=ndjson : 한 줄에 주문 하나 (application/x-ndjson)
+     *  => format=csv    : 한 줄에 주문 상품 하나 (text/csv)
+     */
+    @GetMapping("/api/orders/export")
+    public void exportOrders(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            HttpServletResponse response) throws IOException
+    {
+        boolean csv = "csv".equalsIgnoreCase(format);
+
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType(csv ? "text/csv" : "application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders." + (csv ? "csv" : "ndjson") + "\"");
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        if (csv) {
+            orderExportService.exportCsv(writer);
+        } else {
+            orderExportService.exportNdjson(writer);
+        }
+    }
+
+    /**
+     * 대량 주문
+     *
+     * 여러 주문 (주문당 여러 상품) 을 하나의 요청 / 트랜잭션으로 처리
+     *  => 회원 / 상품은 IN 절로 한번에 조회, INSERT 는 JDBC batch 로 처리 (OrderService.orders)
+     */
+    @PostMapping("/api/v1/orders/bulk")
+    public BulkOrderResponse bulkOrders(@RequestBody @Valid BulkOrderRequest request) {
+        List<OrderCommand> commands = request.getOrders().stream()
+                .map(order -> new OrderCommand(order.getMemberId(), order.getLines().stream()
+                        .map(line -> new OrderCommand.Line(line.getItemId(), line.getCount()))
+                        .collect(toList())))
+                .collect(toList());
+
+        List<Long> orderIds = orderService.orders(commands);
+
+        return new BulkOrderResponse(orderIds.size(), orderIds);
+    }
+
+    @Data
+    static class BulkOrderRequest {
+        @Valid
+        @NotEmpty
+        @Size(max = 1000)
+        private List<OrderRequest> orders;
+    }
+
+    @Data
+    static class OrderRequest {
+        @NotNull
+        private Long memberId;
+
+        @Valid
+        @NotEmpty
+        private List<OrderLineRequest> lines;
+    }
+
+    @Data
+    static class OrderLineRequest {
+        @NotNull
+        private Long itemId;
+
+        @Positive
+        private int count;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class BulkOrderResponse {
+        private int count;
+        @JsonSerialize(contentUsing = ToStringSerializer.class) // Snowflake id > 문자열로 응답 (SnowflakeIdGenerator 참고)
+        private List<Long> orderIds;
+    }
+
     /*@Data
     static class OrderDto {
 
@@ -0,0 +1,101 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import jpabook.jpashop.service.OrderCommand;
+import jpabook.jpashop.service.intake.OrderIntake;
+import jpabook.jpashop.service.intake.OrderTicket;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * 비동기 주문 접수 (OrderIntake)
+ *
+ * POST /api/orders > 202 Accepted + ticket (Location : /api/orders/tickets/{id})
+ * GET /api/orders/tickets/{id}?wait=5 > 처리가 끝날 때까지 최대 wait 초 동안 대기 (long-polling, 서블릿 스레드는 반환)
+ *  => 대기 시간이 지나면 PENDING 상태 그대로 응답하고, 클라이언트는 다시 요청
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "jpashop.order-intake.enabled", havingValue = "true")
+public class OrderIntakeApiController {
+
+    private static final int MAX_WAIT_SECONDS = 30;
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    private final OrderIntake orderIntake;
+
+    @PostMapping("/api/orders")
+    public ResponseEntity<TicketResponse> submit(@RequestBody @Valid OrderApiController.OrderRequest request) {
+        OrderCommand command = new OrderCommand(request.getMemberId(), request.getLines().stream()
+                .map(line -> new OrderCommand.Line(line.getItemId(), line.getCount()))
+                .collect(toList()));
+
+        OrderTicket ticket = orderIntake.submit(command);
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.LOCATION, "/api/orders/tickets/" + ticket.getId())
+                .body(new TicketResponse(ticket));
+    }
+
+    @GetMapping("/api/orders/tickets/{id}")
+    public CompletableFuture<ResponseEntity<TicketResponse>> ticket(@PathVariable String id,
+                                                                    @RequestParam(value = "wait", defaultValue = "0") int wait) {
+        OrderTicket ticket = orderIntake.findTicket(id).orElse(null);
+        if (ticket == null) {
+            return CompletableFuture.completedFuture(ResponseEntity.notFound().build());
+        }
+
+        int waitSeconds = Math.max(0, Math.min(wait, MAX_WAIT_SECONDS));
+        if (waitSeconds == 0 || ticket.getStatus() != OrderTicket.Status.PENDING) {
+            return CompletableFuture.completedFuture(ResponseEntity.ok(new TicketResponse(ticket)));
+        }
+
+        // 원본 future 에 completeOnTimeout 을 걸면 다른 요청의 대기에도 영향을 주므로 복사본에서 처리
+        return ticket.getDone().copy()
+                .completeOnTimeout(ticket, waitSeconds, TimeUnit.SECONDS)
+                .thenApply(done -> ResponseEntity.ok(new TicketResponse(done)));
+    }
+
+    // 대기열이 가득 찬 경우 > 503 + Retry-After (잠시 후 다시 요청)
+    @ExceptionHandler(OrderIntake.QueueFullException.class)
+    public ResponseEntity<String> queueFull(OrderIntake.QueueFullException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(e.getMessage());
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class TicketResponse {
+        private String ticketId;
+        private OrderTicket.Status status;
+        @JsonSerialize(using = ToStringSerializer.class) // Snowflake id > 문자열로 응답 (SnowflakeIdGenerator 참고)
+        private Long orderId;
+        private String error;
+        private LocalDateTime acceptedAt;
+
+        TicketResponse(OrderTicket ticket) {
+            this(ticket.getId(), ticket.getStatus(), ticket.getOrderId(), ticket.getError(), ticket.getAcceptedAt());
+        }
+    }
+}
@@ -1,12 +1,15 @@
 package jpabook.jpashop.api;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderStatus;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
-import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepository;
+import jpabook.jpashop.service.query.OrderQueryCache;
+import jpabook.jpashop.service.query.OrderQueryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -28,7 +31,8 @@ import java.util.stream.Collectors;
 public class OrderSimpleApiController {
 
     private final OrderRepository orderRepository;
-    private final OrderSimpleQueryRepository orderSimpleQueryRepository;
+    private final OrderQueryCache orderQueryCache;
+    private final OrderQueryService orderQueryService;
 
     /**
      * 아래와 같이 사용할 경우, 무한 루프 이슈 발생
@@ -44,15 +48,13 @@ public class OrderSimpleApiController {
     @GetMapping("/api/v1/simple-orders")
     public List<Order> ordersV1() {
         // Entity 지연 로딩을 위한 Hibernate5Module - Dependency 추가
-        List<Order> all = orderRepository.findAll(new OrderSearch()); // 모든 주문 내역 조회 (양방향 매핑 이슈)
-
-        // 필요한 필드만 LAZY 로 셋팅하여 조회
-        for (Order order : all) {
+        // 모든 주문 내역 조회 (양방향 매핑 이슈) > open-in-view: false 이므로 Lazy 강제 초기화는 트랜잭션 (OrderQueryService) 안에서 처리
+        return orderQueryService.findOrders(new OrderSearch(), order -> {
+            // 필요한 필드만 LAZY 로 셋팅하여 조회
             order.getMember().getName();        // Lazy 강제 초기화
             order.getDelivery().getAddress();   // Lazy 강제 초기화
-        }
-
-        return all;
+            return order;
+        });
     }
 
     /**
@@ -69,12 +71,8 @@ public class OrderSimpleApiController {
     /* V2. Entity -> Response DTO 노출 방법 */
     @GetMapping("/api/v2/simple-orders")
     public List<SimpleOrderDto> ordersV2() {
-        // Order Data - 2개
-        List<Order> orders = orderRepository.findAll(new OrderSearch());
-
-        return orders.stream()
-                .map(SimpleOrderDto::new)
-                .collect(Collectors.toList());
+        // Order Data - 2개 > DTO 변환 (지연 로딩) 은 트랜잭션 안에서 처리
+        return orderQueryService.findOrders(new OrderSearch(), SimpleOrderDto::new);
     }
 
     /**
@@ -104,10 +102,11 @@ public class OrderSimpleApiController {
     /* V4. fetch join > 사용할 특정 필드만 조회 (DB Network 사용량 감소 효과) */
     @GetMapping("/api/v4/simple-orders")
     public List<OrderSimpleQueryDto> ordersV4() {
-        return orderSimpleQueryRepository.findOrderDtos();
+        return orderQueryCache.findOrderDtos(); // OrderQueryCache > 주문 생성 / 취소 커밋 시 무효화
     }
 
     static class SimpleOrderDto {
+        @JsonSerialize(using = ToStringSerializer.class) // Snowflake id > 문자열로 응답 (SnowflakeIdGenerator 참고)
         private Long orderId;
         private String name;
         private LocalDateTime orderDate;
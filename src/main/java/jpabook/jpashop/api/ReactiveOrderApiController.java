@@ -0,0 +1,38 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.reactive.ReactiveOrderQueryRepository;
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * 반응형 주문 조회 API (R2DBC)
+ *
+ * V4 / V5 는 결과 전체를 List 로 만든 후 응답하므로 요청마다 서블릿 스레드 + JDBC 커넥션을 끝까지 점유
+ *  => Flux 를 반환하면 Spring MVC 가 비동기 요청으로 처리하고, 서블릿 스레드는 바로 반환
+ *  => application/x-ndjson 으로 한 줄에 하나씩 기록 > 클라이언트가 느리면 DB 에서도 그만큼 천천히 읽음 (back-pressure)
+ *
+ * * WebFlux 서버를 따로 띄우지 않고 기존 Tomcat (Spring MVC) 에서 Reactive 반환 타입으로 처리
+ */
+@RestController
+@RequiredArgsConstructor
+public class ReactiveOrderApiController {
+
+    private final ReactiveOrderQueryRepository reactiveOrderQueryRepository;
+
+    // 간단 주문 V4 (DTO 직접 조회)
+    @GetMapping(value = "/api/reactive/simple-orders", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<OrderSimpleQueryDto> simpleOrders() {
+        return reactiveOrderQueryRepository.findOrderDtos();
+    }
+
+    // V5 (주문 + 주문 상품)
+    @GetMapping(value = "/api/reactive/orders", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<OrderQueryDto> orders() {
+        return reactiveOrderQueryRepository.findOrderQueryDtos();
+    }
+}
@@ -0,0 +1,34 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.repository.IdNameDto;
+import jpabook.jpashop.service.query.TypeaheadService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 주문 화면 (order/orderForm) 회원 / 상품 자동완성
+ *
+ * q 로 시작하는 이름을 이름순으로 최대 limit 건 (jpashop.typeahead.max-results 이하) 반환
+ */
+@RestController
+@RequiredArgsConstructor
+public class TypeaheadApiController {
+
+    private final TypeaheadService typeaheadService;
+
+    @GetMapping("/api/typeahead/members")
+    public List<IdNameDto> members(@RequestParam(value = "q", defaultValue = "") String q,
+                                   @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return typeaheadService.members(q, limit);
+    }
+
+    @GetMapping("/api/typeahead/items")
+    public List<IdNameDto> items(@RequestParam(value = "q", defaultValue = "") String q,
+                                 @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        return typeaheadService.items(q, limit);
+    }
+}
@@ -0,0 +1,105 @@
+package jpabook.jpashop.category;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 카테고리 트리 스냅샷 (불변)
+ *
+ * 만들어진 후에는 변경되지 않으므로 여러 스레드에서 lock 없이 읽을 수 있음
+ *  => 카테고리가 변경되면 새 스냅샷을 만들어서 통째로 교체 (CategoryTreeCache)
+ *  => 부모가 없거나 (삭제 등) 루트까지 이어지지 않는 카테고리는 포함하지 않음
+ */
+public final class CategoryTree {
+
+    static final CategoryTree EMPTY = new CategoryTree(Collections.emptyList(), Collections.emptyMap());
+
+    private final List<Node> roots;
+    private final Map<Long, Node> nodes;
+
+    private CategoryTree(List<Node> roots, Map<Long, Node> nodes) {
+        this.roots = roots;
+        this.nodes = nodes;
+    }
+
+    /**
+     * @param rows (id, name, parentId) 목록 > 같은 부모의 하위 카테고리는 id 순으로 정렬
+     */
+    static CategoryTree of(List<Object[]> rows) {
+        Map<Long, List<Object[]>> childrenByParent = new HashMap<>();
+        List<Object[]> rootRows = new ArrayList<>();
+        for (Object[] row : rows) {
+            if (row[2] == null) {
+                rootRows.add(row);
+            } else {
+                childrenByParent.computeIfAbsent((Long) row[2], parentId -> new ArrayList<>()).add(row);
+            }
+        }
+
+        Map<Long, Node> nodes = new HashMap<>();
+        List<Node> roots = build(rootRows, 0, childrenByParent, nodes);
+        return new CategoryTree(roots, Collections.unmodifiableMap(nodes));
+    }
+
+    // 하위부터 만들어야 불변 Node 의 children 을 채울 수 있으므로 재귀로 생성
+    private static List<Node> build(List<Object[]> rows, int depth, Map<Long, List<Object[]>> childrenByParent, Map<Long, Node> nodes) {
+        rows.sort(Comparator.comparing(row -> (Long) row[0]));
+
+        List<Node> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            Long id = (Long) row[0];
+            List<Node> children = build(childrenByParent.getOrDefault(id, new ArrayList<>()), depth + 1, childrenByParent, nodes);
+
+            Node node = new Node(id, (String) row[1], (Long) row[2], depth, children);
+            nodes.put(id, node);
+            result.add(node);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    public List<Node> getRoots() {
+        return roots;
+    }
+
+    // 없으면 null
+    public Node get(Long id) {
+        return nodes.get(id);
+    }
+
+    // 루트 ~ 해당 카테고리 (breadcrumb) , 없으면 빈 목록
+    public List<Node> path(Long id) {
+        LinkedList<Node> path = new LinkedList<>();
+        for (Node node = nodes.get(id); node != null; node = node.parentId == null ? null : nodes.get(node.parentId)) {
+            path.addFirst(node);
+        }
+        return path;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    @Getter
+    public static final class Node {
+        private final Long id;
+        private final String name;
+        private final Long parentId;
+        private final int depth; // 루트 = 0
+        private final List<Node> children;
+
+        private Node(Long id, String name, Long parentId, int depth, List<Node> children) {
+            this.id = id;
+            this.name = name;
+            this.parentId = parentId;
+            this.depth = depth;
+            this.children = children;
+        }
+    }
+}
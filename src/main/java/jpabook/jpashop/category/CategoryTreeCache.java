@@ -0,0 +1,72 @@
+package jpabook.jpashop.category;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jpabook.jpashop.repository.CategoryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 카테고리 트리 메모리 캐시
+ *
+ * 기동 시 (ApplicationReadyEvent) 카테고리 전체를 한번에 읽어서 불변 스냅샷 (CategoryTree) 생성
+ *  => 트리 탐색 (루트 / 하위 / 경로) 은 DB 조회 없이 get() 스냅샷에서 처리
+ *  => 카테고리가 변경되면 커밋 이후 전체를 다시 읽어서 새 스냅샷으로 교체 (AtomicReference)
+ *  => rebuild 는 synchronized 로 순서대로 실행하여 늦게 읽은 (최신) 스냅샷이 먼저 읽은 스냅샷에 덮어써지지 않도록 처리
+ *
+ * * 스냅샷은 서버마다 메모리에 있으므로 다른 서버에서 변경한 내용은 rebuild 전까지 반영되지 않음
+ */
+@Slf4j
+@Component
+public class CategoryTreeCache {
+
+    private final AtomicReference<CategoryTree> tree = new AtomicReference<>(CategoryTree.EMPTY);
+
+    private final CategoryRepository categoryRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public CategoryTreeCache(CategoryRepository categoryRepository, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.categoryRepository = categoryRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        // afterCommit 에서도 호출되므로 끝난 트랜잭션에 참여하지 않도록 항상 새 트랜잭션
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Gauge.builder("jpashop.category.nodes", tree, ref -> ref.get().size()).register(meterRegistry);
+    }
+
+    public CategoryTree get() {
+        return tree.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        CategoryTree rebuilt = readOnlyTransaction.execute(status -> CategoryTree.of(categoryRepository.findAllNodes()));
+        tree.set(rebuilt);
+        log.info("Category tree built. categories={}", rebuilt.size());
+    }
+
+    // 카테고리 변경 트랜잭션에서 호출 > 커밋된 후에 rebuild (롤백되면 그대로)
+    public void rebuildAfterCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            rebuild();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                rebuild();
+            }
+        });
+    }
+}
@@ -0,0 +1,55 @@
+package jpabook.jpashop.concurrent;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 동시 요청 수 제한 (가상 스레드 프로필)
+ *
+ * 플랫폼 스레드는 Tomcat maxThreads (기본 200) 가 동시 요청 수를 제한하지만, 가상 스레드는 요청마다 스레드를 만들기 때문에 제한이 없음
+ *  => OSIV 에서는 요청이 끝날 때까지 커넥션을 가지고 있으므로 동시 요청이 많아지면 HikariCP connectionTimeout 까지 대기하다가 실패
+ *  => permit 을 얻은 요청만 처리하고 나머지는 (가상 스레드에서 저렴하게) 대기 > maxWait 안에 얻지 못하면 503 + Retry-After
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final Duration maxWait;
+
+    public ConcurrencyLimitFilter(int maxConcurrency, Duration maxWait) {
+        this.permits = new Semaphore(Math.max(1, maxConcurrency), true);
+        this.maxWait = maxWait;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+
+        if (!acquired) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
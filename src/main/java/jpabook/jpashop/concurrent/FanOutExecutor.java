@@ -0,0 +1,66 @@
+package jpabook.jpashop.concurrent;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 내부 병렬 조회 (fan-out) 공용 Executor
+ *
+ * ChunkedInLoader / ScatterGatherExecutor 등 하나의 요청을 여러 작업으로 나누어 각각 별도 트랜잭션 (커넥션) 에서 실행
+ *  => 가상 스레드를 사용하면 스레드 수 제한이 없으므로 동시에 실행되는 작업 수만큼 커넥션을 요청하게 됨
+ *  => 작업 실행 전에 permit (maxConcurrency 개) 을 획득하여 HikariCP 커넥션 풀 크기보다 적은 수만 동시에 DB 에 접근
+ *      => fan-out 을 호출한 요청 스레드도 커넥션을 가지고 있을 수 있으므로 풀 전체를 사용하지 않도록 여유를 남김
+ *  => permit 대기는 작업 스레드에서 하므로 가상 스레드는 블로킹 비용이 거의 없음
+ *  => acquireTimeout 안에 permit 을 얻지 못하면 RejectedExecutionException (Future.get > ExecutionException)
+ */
+public class FanOutExecutor {
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final Duration acquireTimeout;
+    private final boolean virtual;
+
+    public FanOutExecutor(ExecutorService executor, int maxConcurrency, Duration acquireTimeout, boolean virtual) {
+        this.executor = executor;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.permits = new Semaphore(this.maxConcurrency, true);
+        this.acquireTimeout = acquireTimeout;
+        this.virtual = virtual;
+    }
+
+    public <T> Future<T> submit(Callable<T> task) {
+        return executor.submit(() -> {
+            if (!permits.tryAcquire(acquireTimeout.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new RejectedExecutionException("fan-out 작업 대기 시간이 초과되었습니다. maxConcurrency = " + maxConcurrency);
+            }
+            try {
+                return task.call();
+            } finally {
+                permits.release();
+            }
+        });
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    // 현재 실행 중인 작업 수
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
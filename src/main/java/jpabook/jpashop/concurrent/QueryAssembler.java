@@ -0,0 +1,123 @@
+package jpabook.jpashop.concurrent;
+
+import jpabook.jpashop.sharding.ShardContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 복합 DTO 병렬 조립 (fan-out assembly)
+ *
+ * 주문 목록을 조회한 후 주문 상품 / 회원 / 배송 정보는 서로 의존하지 않으므로 순서대로 조회할 필요가 없음
+ *  => fork() 한 하위 쿼리를 각각 FanOutExecutor 작업 스레드의 readOnly 트랜잭션 (별도 커넥션) 에서 동시에 실행
+ *  => join() 은 요청마다 정한 deadline 까지만 대기 > 응답 시간 = 가장 느린 하위 쿼리 (합계 X)
+ *  => 하나라도 실패하거나 deadline 을 넘기면 나머지 작업은 취소 (interrupt) 하고 예외
+ *
+ * * 하위 쿼리는 호출한 스레드의 영속성 컨텍스트 / 트랜잭션을 사용하지 않으므로 엔티티가 아닌 DTO (projection) 로 조회
+ * * 하위 쿼리 안에서 다시 fan-out 하면 permit 을 서로 기다릴 수 있으므로 하위 쿼리는 호출한 작업 스레드에서 순차로 실행
+ * * 호출한 스레드의 ShardContext 를 작업 스레드에도 적용
+ */
+@Component
+public class QueryAssembler {
+
+    private final FanOutExecutor executor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Duration defaultTimeout;
+
+    public QueryAssembler(FanOutExecutor executor,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${jpashop.query.assembly-timeout:3s}") Duration defaultTimeout) {
+        this.executor = executor;
+        this.defaultTimeout = defaultTimeout;
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public Scope open() {
+        return open(defaultTimeout);
+    }
+
+    public Scope open(Duration timeout) {
+        return new Scope(timeout);
+    }
+
+    /**
+     * 요청 1건의 하위 쿼리 묶음 (deadline 은 open 시점부터 계산)
+     */
+    public class Scope {
+
+        private final Duration timeout;
+        private final long deadline;
+        private final int shard = ShardContext.currentOrDefault();
+        private final List<Part<?>> parts = new ArrayList<>();
+
+        private Scope(Duration timeout) {
+            this.timeout = timeout;
+            this.deadline = System.nanoTime() + timeout.toNanos();
+        }
+
+        public <T> Part<T> fork(Supplier<T> query) {
+            Part<T> part = new Part<>(executor.submit(() -> ShardContext.call(shard, () -> readOnlyTransaction.execute(status -> query.get()))));
+            parts.add(part);
+            return part;
+        }
+
+        // 모든 하위 쿼리가 끝날 때까지 대기 (deadline 초과 / 실패 시 나머지 취소)
+        public void join() {
+            try {
+                for (Part<?> part : parts) {
+                    part.value = part.future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                }
+            } catch (InterruptedException e) {
+                cancel();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("조회 조립 중 인터럽트가 발생하였습니다.", e);
+            } catch (TimeoutException | CancellationException e) {
+                cancel();
+                throw new IllegalStateException("조회 조립 시간이 초과되었습니다. timeout = " + timeout, e);
+            } catch (ExecutionException e) {
+                cancel();
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new IllegalStateException("조회 조립에 실패하였습니다.", e.getCause());
+            }
+        }
+
+        private void cancel() {
+            parts.forEach(part -> part.future.cancel(true));
+        }
+    }
+
+    public static class Part<T> {
+
+        private final Future<T> future;
+        private T value;
+
+        private Part(Future<T> future) {
+            this.future = future;
+        }
+
+        // join() 이후에 호출
+        public T get() {
+            if (!future.isDone()) {
+                throw new IllegalStateException("join() 이후에 조회해야 합니다.");
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package jpabook.jpashop.concurrent;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 요청 처리 / 내부 병렬 조회 스레드 설정
+ *
+ * jpashop.threads.virtual=false (기본) > Tomcat 플랫폼 스레드 풀, fan-out 은 고정 크기 플랫폼 스레드 풀
+ * jpashop.threads.virtual=true (virtual 프로필, Java 21+)
+ *  => Tomcat 요청을 가상 스레드에서 처리 + 동시 요청 수 제한 (ConcurrencyLimitFilter)
+ *  => fan-out 작업을 작업당 가상 스레드에서 실행 (동시 실행 수는 FanOutExecutor permit 으로 제한)
+ *  => Java 21 미만에서 실행하면 경고 로그 후 플랫폼 스레드 사용
+ *
+ * 동시 실행 수 기본값은 HikariCP 풀 크기 (spring.datasource.hikari.maximum-pool-size) 기준
+ *  => fan-out : 풀의 절반 / 요청 : 풀 크기 - fan-out (요청 1개 = 커넥션 1개, fan-out 작업은 요청과 별도 커넥션)
+ *  => 요청 + fan-out 동시 실행 수가 풀 크기를 넘으면 커넥션 대기 (connection-timeout) 가 발생하므로 기동 실패
+ */
+@Slf4j
+@Configuration
+public class ThreadingConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public FanOutExecutor fanOutExecutor(MeterRegistry meterRegistry,
+                                         @Value("${jpashop.threads.virtual:false}") boolean virtual,
+                                         @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                                         @Value("${jpashop.threads.fan-out.max-concurrency:0}") int maxConcurrency,
+                                         @Value("${jpashop.threads.fan-out.acquire-timeout:5s}") Duration acquireTimeout) {
+        int concurrency = maxConcurrency > 0 ? maxConcurrency : Math.max(1, poolSize / 2);
+
+        FanOutExecutor executor = useVirtualThreads(virtual)
+                ? new FanOutExecutor(VirtualThreads.newThreadPerTaskExecutor("fan-out-"), concurrency, acquireTimeout, true)
+                : new FanOutExecutor(newPlatformExecutor(concurrency), concurrency, acquireTimeout, false);
+
+        Gauge.builder("jpashop.fanout.active", executor, FanOutExecutor::getActiveCount)
+                .tag("virtual", String.valueOf(executor.isVirtual()))
+                .register(meterRegistry);
+
+        return executor;
+    }
+
+    private ExecutorService newPlatformExecutor(int threads) {
+        AtomicInteger sequence = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "fan-out-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    static boolean useVirtualThreads(boolean virtual) {
+        if (virtual && !VirtualThreads.isSupported()) {
+            log.warn("Virtual threads are not supported on Java {}. Falling back to platform threads.", System.getProperty("java.version"));
+            return false;
+        }
+        return virtual;
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "jpashop.threads.virtual", havingValue = "true")
+    static class VirtualThreadWebConfig {
+
+        // Tomcat 요청 처리 Executor 를 가상 스레드로 교체 (Connector 시작 전에 적용)
+        @Bean
+        public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+            return protocolHandler -> {
+                if (useVirtualThreads(true)) {
+                    protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("http-virtual-"));
+                }
+            };
+        }
+
+        @Bean
+        public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+                FanOutExecutor fanOutExecutor,
+                @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+                @Value("${jpashop.threads.request.max-concurrency:0}") int maxConcurrency,
+                @Value("${jpashop.threads.request.max-wait:2s}") Duration maxWait) {
+            int requestConcurrency = requestConcurrency(poolSize, fanOutExecutor.getMaxConcurrency(), maxConcurrency);
+            FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                    new ConcurrencyLimitFilter(requestConcurrency, maxWait));
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+            registration.addUrlPatterns("/api/*");
+            return registration;
+        }
+    }
+
+    // 요청 동시 실행 수 (0 > 풀 크기 - fan-out) > 요청 + fan-out 이 풀 크기를 넘으면 IllegalStateException
+    static int requestConcurrency(int poolSize, int fanOutConcurrency, int maxConcurrency) {
+        int concurrency = maxConcurrency > 0 ? maxConcurrency : poolSize - fanOutConcurrency;
+        if (concurrency < 1 || concurrency + fanOutConcurrency > poolSize) {
+            throw new IllegalStateException("요청 (" + concurrency + ") + fan-out (" + fanOutConcurrency + ") 동시 실행 수가 커넥션 풀 크기 (" + poolSize + ") 를 초과합니다. "
+                    + "jpashop.threads.request.max-concurrency / jpashop.threads.fan-out.max-concurrency 를 확인하세요.");
+        }
+        return concurrency;
+    }
+}
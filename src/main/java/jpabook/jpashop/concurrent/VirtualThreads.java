@@ -0,0 +1,56 @@
+package jpabook.jpashop.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * 가상 스레드 (Java 21+) 생성
+ *
+ * 프로젝트는 Java 11 로 컴파일하므로 Thread.ofVirtual() 을 직접 호출할 수 없음
+ *  => 실행 JVM 에 API 가 있으면 리플렉션으로 가상 스레드 ThreadFactory / 작업당 스레드 Executor 생성
+ *  => 없으면 (Java 11 ~ 20) isSupported() = false > 호출하는 쪽에서 플랫폼 스레드로 대체
+ */
+public final class VirtualThreads {
+
+    private static final ThreadFactory PROBE = factory("virtual-probe-");
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        return PROBE != null;
+    }
+
+    /**
+     * 작업마다 새로운 가상 스레드에서 실행하는 Executor (스레드 이름 : prefix + 순번)
+     *
+     * @throws IllegalStateException 가상 스레드를 지원하지 않는 JVM
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        ThreadFactory factory = factory(prefix);
+        if (factory == null) {
+            throw new IllegalStateException("가상 스레드를 지원하지 않는 JVM 입니다. java.version = " + System.getProperty("java.version"));
+        }
+
+        try {
+            Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newThreadPerTaskExecutor.invoke(null, factory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("가상 스레드 Executor 생성에 실패하였습니다.", e);
+        }
+    }
+
+    // Thread.ofVirtual().name(prefix, 1).factory()
+    private static ThreadFactory factory(String prefix) {
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 1L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -1,12 +1,9 @@
 package jpabook.jpashop.controller;
 
-import jpabook.jpashop.domain.Member;
-import jpabook.jpashop.domain.Order;
-import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.OrderListDto;
 import jpabook.jpashop.repository.OrderSearch;
-import jpabook.jpashop.service.ItemService;
-import jpabook.jpashop.service.MemberService;
 import jpabook.jpashop.service.OrderService;
+import jpabook.jpashop.service.query.OrderQueryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -18,18 +15,14 @@ import java.util.List;
 @RequiredArgsConstructor
 public class OrderController {
 
+    private static final int PAGE_SIZE = 20; // 주문 목록 한 페이지 주문 수
+
     private final OrderService orderService;
-    private final MemberService memberService;
-    private final ItemService itemService;
+    private final OrderQueryService orderQueryService;
 
+    // 회원 / 상품은 화면에서 자동완성 API (/api/typeahead/**) 로 검색하여 선택 (전체 목록을 내려주지 않음)
     @GetMapping(value = "/order")
-    public String createForm(Model model) {
-        List<Member> members = memberService.findMembers();
-        List<Item> items = itemService.findItems();
-
-        model.addAttribute("members", members);
-        model.addAttribute("items", items);
-
+    public String createForm() {
         return "order/orderForm";
     }
 
@@ -43,11 +36,28 @@ public class OrderController {
 
     }
 
+    /**
+     * 주문 목록 - DTO 조회 + Keyset 페이징
+     *
+     * open-in-view: false > 화면에 필요한 값은 OrderListDto 로 조회를 끝내고 커넥션을 반납한 후 렌더링
+     *  => 다음 페이지는 마지막 주문 id 를 after 파라미터로 전달 (nextOrderId 가 null 이면 마지막 페이지)
+     */
     @GetMapping(value = "/orders")
-    public String orderList(@ModelAttribute("orderSearch") OrderSearch orderSearch, Model model) {
+    public String orderList(@ModelAttribute("orderSearch") OrderSearch orderSearch,
+                            @RequestParam(value = "after", required = false) Long after,
+                            Model model) {
+
+        // 다음 페이지 존재 여부 확인을 위해 1건 더 조회
+        List<OrderListDto> orders = orderQueryService.findOrderList(orderSearch, after, PAGE_SIZE + 1);
+
+        Long nextOrderId = null;
+        if (orders.size() > PAGE_SIZE) {
+            orders = orders.subList(0, PAGE_SIZE);
+            nextOrderId = orders.get(PAGE_SIZE - 1).getOrderId();
+        }
 
-        List<Order> orders = orderService.findOrders(orderSearch);
         model.addAttribute("orders", orders);
+        model.addAttribute("nextOrderId", nextOrderId);
 
         return "order/orderList";
     }
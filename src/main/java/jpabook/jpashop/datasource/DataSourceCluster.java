@@ -0,0 +1,180 @@
+package jpabook.jpashop.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jpabook.jpashop.datasource.RoutingDataSourceProperties.Strategy;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * primary 1개 + replica N개 커넥션 풀
+ *
+ * replica 선택
+ *  => lagQuery 로 주기적으로 지연 시간을 확인하여 maxLag 이내인 replica 만 조회 대상으로 사용
+ *  => ROUND_ROBIN : 순서대로 / LEAST_LOADED : 사용 중인 커넥션 수 (HikariCP active connections) 가 가장 적은 replica
+ *  => 사용 가능한 replica 가 없으면 null (primary 로 조회)
+ */
+@Slf4j
+public class DataSourceCluster implements Closeable {
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Strategy strategy;
+    private final Duration maxLag;
+    private final String lagQuery;
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    private ScheduledExecutorService lagChecker;
+
+    public DataSourceCluster(DataSource primary, List<? extends DataSource> replicas, Strategy strategy, Duration maxLag, String lagQuery) {
+        this.primary = primary;
+        this.strategy = strategy;
+        this.maxLag = maxLag;
+        this.lagQuery = lagQuery;
+
+        List<Replica> list = new ArrayList<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            list.add(new Replica("replica-" + i, replicas.get(i)));
+        }
+        this.replicas = Collections.unmodifiableList(list);
+    }
+
+    // 기동 시 1회 확인 후 interval 마다 지연 시간 확인
+    public void start(Duration interval) {
+        checkLag();
+
+        lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-checker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagChecker.scheduleWithFixedDelay(this::checkLag, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    // jpashop.datasource.replica.lag : replica 별 지연 시간 (초, 확인 실패 시 NaN)
+    public void bindTo(MeterRegistry meterRegistry) {
+        for (Replica replica : replicas) {
+            Gauge.builder("jpashop.datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .tag("replica", replica.key)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * 조회할 replica 의 key (사용 가능한 replica 가 없으면 null)
+     */
+    public String selectReplica() {
+        List<Replica> available = replicas.stream()
+                .filter(replica -> replica.available)
+                .collect(Collectors.toList());
+        if (available.isEmpty()) {
+            return null;
+        }
+
+        // 동일한 부하의 replica 끼리는 순서대로 분산되도록 시작 위치를 돌려가며 비교
+        int start = Math.floorMod(sequence.getAndIncrement(), available.size());
+        if (strategy == Strategy.ROUND_ROBIN) {
+            return available.get(start).key;
+        }
+
+        List<Replica> rotated = new ArrayList<>(available.subList(start, available.size()));
+        rotated.addAll(available.subList(0, start));
+        return rotated.stream()
+                .min(Comparator.comparingInt(Replica::activeConnections))
+                .map(replica -> replica.key)
+                .orElse(null);
+    }
+
+    void checkLag() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(lagQuery)) {
+
+                double lagSeconds = rs.next() ? rs.getDouble(1) : 0;
+                replica.lagSeconds = lagSeconds;
+                replica.available = lagSeconds * 1000 <= maxLag.toMillis();
+
+                if (!replica.available) {
+                    log.warn("replica lag exceeded. replica = {}, lag = {}s, maxLag = {}", replica.key, lagSeconds, maxLag);
+                }
+            } catch (SQLException | RuntimeException e) {
+                replica.lagSeconds = Double.NaN;
+                replica.available = false;
+                log.warn("replica lag check failed. replica = {}, message = {}", replica.key, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (lagChecker != null) {
+            lagChecker.shutdownNow();
+        }
+        close(primary);
+        replicas.forEach(replica -> close(replica.dataSource));
+    }
+
+    private void close(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource) {
+            ((HikariDataSource) dataSource).close();
+        }
+    }
+
+    public static class Replica {
+        private final String key;
+        private final DataSource dataSource;
+        private volatile boolean available = true;
+        private volatile double lagSeconds;
+
+        Replica(String key, DataSource dataSource) {
+            this.key = key;
+            this.dataSource = dataSource;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+
+        public boolean isAvailable() {
+            return available;
+        }
+
+        private int activeConnections() {
+            if (dataSource instanceof HikariDataSource && ((HikariDataSource) dataSource).getHikariPoolMXBean() != null) {
+                return ((HikariDataSource) dataSource).getHikariPoolMXBean().getActiveConnections();
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package jpabook.jpashop.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 읽기 / 쓰기 DataSource 분리
+ *
+ * @Transactional(readOnly = true) > replica / 그 외 > primary
+ *  => JpaTransactionManager 는 TransactionSynchronizationManager 에 readOnly 를 표시하기 전에 커넥션을 가져오므로
+ *     반드시 LazyConnectionDataSourceProxy 로 감싸서 첫 SQL 실행 시점에 커넥션을 결정해야 함 (RoutingDataSourceConfig)
+ *  => 쓰기 트랜잭션이 커밋되면 ReadYourWrites 로 일정 시간 동안 조회도 primary 로 보냄
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final DataSourceCluster cluster;
+    private final ReadYourWrites readYourWrites;
+
+    public ReadWriteRoutingDataSource(DataSourceCluster cluster, ReadYourWrites readYourWrites) {
+        this.cluster = cluster;
+        this.readYourWrites = readYourWrites;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, cluster.getPrimary());
+        cluster.getReplicas().forEach(replica -> targets.put(replica.getKey(), replica.getDataSource()));
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(cluster.getPrimary());
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            registerWritten();
+            return PRIMARY;
+        }
+
+        if (readYourWrites.isPinnedToPrimary()) {
+            return PRIMARY;
+        }
+
+        String replica = cluster.selectReplica();
+        return replica == null ? PRIMARY : replica;
+    }
+
+    // 쓰기 트랜잭션 커밋 이후 read-your-writes 적용 (트랜잭션 밖의 auto-commit 조회는 제외)
+    private void registerWritten() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                readYourWrites.written();
+            }
+        });
+    }
+}
@@ -0,0 +1,77 @@
+package jpabook.jpashop.datasource;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+
+/**
+ * 쓰기 이후 읽기 일관성 (read-your-writes)
+ *
+ * replica 는 primary 보다 늦게 반영되므로 주문 직후 주문 목록을 replica 에서 조회하면 방금 주문한 내역이 보이지 않을 수 있음
+ *  => 쓰기 트랜잭션이 커밋되면 stickyDuration 동안 같은 사용자의 조회를 primary 로 보냄
+ *  => 같은 요청 안에서는 ThreadLocal, 이후 요청 (ex. 주문 후 redirect:/orders) 은 쿠키 (만료 시각) 로 전달
+ */
+public class ReadYourWrites {
+
+    private static final ThreadLocal<Long> PRIMARY_UNTIL = new ThreadLocal<>();
+
+    private final Duration stickyDuration;
+    private final String cookieName;
+
+    public ReadYourWrites(Duration stickyDuration, String cookieName) {
+        this.stickyDuration = stickyDuration;
+        this.cookieName = cookieName;
+    }
+
+    public boolean isPinnedToPrimary() {
+        Long until = PRIMARY_UNTIL.get();
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    // 쓰기 트랜잭션 커밋 이후 호출 (ReadWriteRoutingDataSource)
+    public void written() {
+        long until = System.currentTimeMillis() + stickyDuration.toMillis();
+        PRIMARY_UNTIL.set(until);
+
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) { // 요청 밖 (배치 등)
+            return;
+        }
+        HttpServletResponse response = ((ServletRequestAttributes) attributes).getResponse();
+        if (response == null || response.isCommitted()) {
+            return;
+        }
+
+        Cookie cookie = new Cookie(cookieName, String.valueOf(until));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, stickyDuration.getSeconds()));
+        response.addCookie(cookie);
+    }
+
+    // 요청 시작 시 쿠키의 만료 시각을 현재 스레드에 바인딩 (ReadYourWritesFilter)
+    void bind(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return;
+        }
+        for (Cookie cookie : cookies) {
+            if (cookieName.equals(cookie.getName())) {
+                try {
+                    PRIMARY_UNTIL.set(Long.parseLong(cookie.getValue()));
+                } catch (NumberFormatException ignored) {
+                    // 잘못된 쿠키는 무시 (replica 조회)
+                }
+            }
+        }
+    }
+
+    void clear() {
+        PRIMARY_UNTIL.remove();
+    }
+}
@@ -0,0 +1,72 @@
+package jpabook.jpashop.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * 읽기 / 쓰기 DataSource 분리 설정 (jpashop.datasource.routing.enabled=true > application-replica.yml)
+ *
+ * DataSource Bean 을 직접 등록하므로 spring.datasource.* 자동 설정은 사용하지 않음
+ *  => primary / replica 커넥션 풀은 DataSourceCluster 가 관리 (종료 시 close)
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "jpashop.datasource.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(RoutingDataSourceProperties.class)
+public class RoutingDataSourceConfig {
+
+    @Bean
+    public DataSourceCluster dataSourceCluster(RoutingDataSourceProperties properties, MeterRegistry meterRegistry) {
+        List<HikariDataSource> replicas = IntStream.range(0, properties.getReplicas().size())
+                .mapToObj(i -> hikari(properties.getReplicas().get(i), "replica-" + i))
+                .collect(Collectors.toList());
+
+        DataSourceCluster cluster = new DataSourceCluster(hikari(properties.getPrimary(), "primary"), replicas,
+                properties.getStrategy(), properties.getMaxLag(), properties.getLagQuery());
+        cluster.bindTo(meterRegistry);
+        cluster.start(properties.getLagCheckInterval());
+        return cluster;
+    }
+
+    @Bean
+    public ReadYourWrites readYourWrites(RoutingDataSourceProperties properties) {
+        return new ReadYourWrites(properties.getStickyDuration(), properties.getStickyCookie());
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReadYourWrites readYourWrites) {
+        return new ReadYourWritesFilter(readYourWrites);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceCluster dataSourceCluster, ReadYourWrites readYourWrites) {
+        ReadWriteRoutingDataSource routingDataSource = new ReadWriteRoutingDataSource(dataSourceCluster, readYourWrites);
+        routingDataSource.afterPropertiesSet();
+
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    private HikariDataSource hikari(RoutingDataSourceProperties.Connection connection, String poolName) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(connection.getUrl())
+                .username(connection.getUsername())
+                .password(connection.getPassword())
+                .build();
+        dataSource.setPoolName(poolName);
+        dataSource.setMaximumPoolSize(connection.getMaximumPoolSize());
+        return dataSource;
+    }
+}
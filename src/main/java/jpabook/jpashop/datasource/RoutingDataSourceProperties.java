@@ -0,0 +1,46 @@
+package jpabook.jpashop.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * jpashop.datasource.routing.* (application-replica.yml)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "jpashop.datasource.routing")
+public class RoutingDataSourceProperties {
+
+    private boolean enabled;
+
+    private Connection primary = new Connection();
+    private List<Connection> replicas = new ArrayList<>();
+
+    private Strategy strategy = Strategy.ROUND_ROBIN;
+
+    private Duration maxLag = Duration.ofSeconds(1);            // 이 값보다 지연된 replica 는 조회 대상에서 제외
+    private String lagQuery = "select 0";                       // replica 지연 시간 (초) 을 반환하는 쿼리 (ex. MySQL > Seconds_Behind_Master)
+    private Duration lagCheckInterval = Duration.ofSeconds(1);
+
+    private Duration stickyDuration = Duration.ofSeconds(5);    // 쓰기 커밋 이후 primary 로 조회하는 시간 (read-your-writes)
+    private String stickyCookie = "jpashop-primary-until";
+
+    @Getter
+    @Setter
+    public static class Connection {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+
+    public enum Strategy {
+        ROUND_ROBIN,  // 순서대로
+        LEAST_LOADED  // 사용 중인 커넥션 수가 가장 적은 replica
+    }
+}
@@ -3,6 +3,8 @@ package jpabook.jpashop.domain;
 import jpabook.jpashop.domain.item.Item;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -10,6 +12,7 @@ import java.util.List;
 
 @Entity
 @Getter @Setter
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category") // 2차 캐시
 public class Category {
 
     @Id @GeneratedValue
@@ -18,6 +21,7 @@ public class Category {
 
     private String name;
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category.items") // 컬렉션 캐시 (item id 목록)
     @ManyToMany
     @JoinTable(name = "category_item",
         joinColumns = @JoinColumn(name = "category_id"),
@@ -25,10 +29,22 @@ public class Category {
     ) // 일대다 - 다대일 관계를 풀어낼 category_item 중간 테이블 매핑 (실무에서 사용 X)
     private List<Item> items = new ArrayList<>();
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY) // ManyToOne 기본값 EAGER > 카테고리 조회마다 부모를 루트까지 연쇄 조회하므로 LAZY
     @JoinColumn(name = "parent_id") // 자기 자신 매핑
     private Category parent;
 
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "category.child") // 컬렉션 캐시 (하위 category id 목록)
     @OneToMany(mappedBy = "parent") // 자기 자신 매핑
     private List<Category> child = new ArrayList<>();
+
+    // == 연관 관계 메서드 == //
+    public void addChildCategory(Category child) {
+        this.child.add(child);
+        child.setParent(this);
+    }
+
+    public void addItem(Item item) {
+        items.add(item);
+        item.getCategories().add(this);
+    }
 }
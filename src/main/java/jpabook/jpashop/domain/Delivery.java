@@ -1,14 +1,20 @@
 package jpabook.jpashop.domain;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
 
 import javax.persistence.*;
 
 @Entity
 @Getter @Setter
 public class Delivery {
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = "delivery_id_generator")
+    @GenericGenerator(name = "delivery_id_generator", strategy = "jpabook.jpashop.sharding.SnowflakeIdGenerator") // Snowflake id (주문과 같은 shard 에 저장)
+    @JsonSerialize(using = ToStringSerializer.class) // Snowflake id > 문자열로 응답 (SnowflakeIdGenerator 참고)
     @Column(name = "delivery_id")
     private Long id;
 
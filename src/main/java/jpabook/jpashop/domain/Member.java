@@ -1,8 +1,12 @@
 package jpabook.jpashop.domain;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import jpabook.jpashop.search.SearchIndexListener;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.OptimisticLock;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -10,6 +14,8 @@ import java.util.List;
 
 @Entity
 @Getter @Setter
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member") // 2차 캐시 (resources > ehcache.xml)
+@EntityListeners(SearchIndexListener.class) // 이름 검색 색인 (SearchIndex)
 public class Member {
 
     @Id @GeneratedValue
@@ -21,6 +27,10 @@ public class Member {
     @Embedded // 내장 타입을 포함했다는 의미
     private Address address;
 
+    @Version // 낙관적 락 (version 컬럼 : V2 마이그레이션)
+    private Long version;
+
+    @OptimisticLock(excluded = true) // 주문이 추가될 때마다 Member 의 version 이 증가하지 않도록 제외
     @OneToMany(mappedBy = "member") // 연관 관계 (order 테이블의 member 테이블과 매핑) > 양방향 매핑
     private List<Order> orders = new ArrayList<>();
 }
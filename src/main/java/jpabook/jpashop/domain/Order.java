@@ -1,10 +1,13 @@
 package jpabook.jpashop.domain;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.GenericGenerator;
 
 import javax.persistence.*;
 import java.time.LocalDateTime;
@@ -16,7 +19,11 @@ import java.util.List;
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED) // 해당 엔티티의 createOrder() 메소드를 사용하여 Order 를 생성하는 것을 강제하기 위하여 생성자 접근 제어자 protected 설정 (Service 레이어에서 Order 객체 생성 불가)
 public class Order {
-    @Id @GeneratedValue
+    // Snowflake id > shard 간에 중복되지 않는 id 를 DB 호출 없이 생성 (JDBC batch INSERT 가능, id 에 shard 번호 포함)
+    @Id
+    @GeneratedValue(generator = "order_id_generator")
+    @GenericGenerator(name = "order_id_generator", strategy = "jpabook.jpashop.sharding.SnowflakeIdGenerator")
+    @JsonSerialize(using = ToStringSerializer.class) // Snowflake id > 문자열로 응답 (SnowflakeIdGenerator 참고)
     @Column(name = "order_id")
     private Long id;
 
@@ -38,6 +45,9 @@ public class Order {
     @Enumerated(EnumType.STRING)
     private OrderStatus status; // 주문상태 [ORDER, CANCEL] > ENUM
 
+    @Version // 낙관적 락 (version 컬럼 : V2 마이그레이션) > 변경 감지로 UPDATE 시 version 이 다르면 OptimisticLockException (Lost Update 방지)
+    private Long version;
+
     // 해당 엔티티의 createOrder() 메소드를 사용하여 Order 를 생성하는 것을 강제하기 위하여 생성자 접근 제어자 protected 설정 (Service 레이어에서 Order 객체 생성 불가)
     /*
     protected Order() {
@@ -78,17 +88,13 @@ public class Order {
     }
 
     // == 비즈니스 로직 == //
-    // 주문 취소
+    // 주문 취소 (재고 원복은 StockService.restoreStock > shard 를 사용하면 재고는 원본 shard 에만 있음)
     public void cancel() {
         if (delivery.getStatus() == DeliveryStatus.COMP) {
             throw new IllegalStateException("이미 배송 완료된 상품은 취소가 불가능합니다.");
         }
 
         this.setStatus(OrderStatus.CANCEL);
-
-        for (OrderItem orderItem : orderItems) {
-            orderItem.cancel();
-        }
     }
 
     // == 조회 로직 == //
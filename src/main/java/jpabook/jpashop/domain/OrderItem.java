@@ -1,15 +1,21 @@
 package jpabook.jpashop.domain;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import jpabook.jpashop.domain.item.Item;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.GenericGenerator;
 
 import javax.persistence.*;
 
 @Entity
 @Getter @Setter
 public class OrderItem {
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = "order_item_id_generator")
+    @GenericGenerator(name = "order_item_id_generator", strategy = "jpabook.jpashop.sharding.SnowflakeIdGenerator") // Snowflake id (주문과 같은 shard 에 저장)
+    @JsonSerialize(using = ToStringSerializer.class) // Snowflake id > 문자열로 응답 (SnowflakeIdGenerator 참고)
     @Column(name = "order_item_id")
     private Long id;
 
@@ -26,13 +32,20 @@ public class OrderItem {
 
     // == 생성 메서드 == //
     public static OrderItem createOrderItem(Item item, int orderPrice, int count) {
+        OrderItem orderItem = createReservedOrderItem(item, orderPrice, count);
+
+        item.removeStock(count);
+
+        return orderItem;
+    }
+
+    // 재고가 이미 차감된 경우 (StockService - 조건부 UPDATE 로 DB 에서 차감) > Item 엔티티의 재고는 변경하지 않음
+    public static OrderItem createReservedOrderItem(Item item, int orderPrice, int count) {
         OrderItem orderItem = new OrderItem();
         orderItem.setItem(item);
         orderItem.setOrderPrice(orderPrice);
         orderItem.setCount(count);
 
-        item.removeStock(count);
-
         return orderItem;
     }
 
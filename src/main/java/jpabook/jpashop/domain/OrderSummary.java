@@ -0,0 +1,65 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 주문 목록 조회용 요약 테이블 (읽기 모델)
+ *
+ * 주문 목록을 조회할 때마다 orders / member / delivery 를 join 하고 orderItems 를 돌면서 총 금액을 계산하지 않도록
+ * 주문 생성 / 취소 시점에 미리 계산하여 저장 (OrderSummaryService)
+ *  => 조회는 join / 컬렉션 조회 없이 order_summary 테이블 1개만 사용
+ *  => 연관 관계 없이 id 값만 보관 (주문과 같은 shard 에 저장)
+ */
+@Entity
+@Table(name = "order_summary", indexes = {
+        @Index(name = "idx_order_summary_member_id", columnList = "member_id") // 회원 이름 변경 시 갱신
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderSummary {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId; // Order 의 id 를 그대로 사용
+
+    @Column(name = "member_id")
+    private Long memberId;
+
+    private String memberName;
+
+    private LocalDateTime orderDate;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Embedded
+    private Address address; // 배송 주소
+
+    private int totalPrice;
+
+    private int itemCount; // 주문 상품 (OrderItem) 수
+
+    // == 생성 메서드 == //
+    public static OrderSummary createOrderSummary(Order order) {
+        OrderSummary summary = new OrderSummary();
+        summary.orderId = order.getId();
+        summary.memberId = order.getMember().getId();
+        summary.memberName = order.getMember().getName();
+        summary.orderDate = order.getOrderDate();
+        summary.status = order.getStatus();
+        summary.address = order.getDelivery().getAddress();
+        summary.totalPrice = order.getTotalPrice();
+        summary.itemCount = order.getOrderItems().size();
+        return summary;
+    }
+
+    // == 비즈니스 로직 == //
+    public void changeStatus(OrderStatus status) {
+        this.status = status;
+    }
+}
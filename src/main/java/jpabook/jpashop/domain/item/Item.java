@@ -2,8 +2,11 @@ package jpabook.jpashop.domain.item;
 
 import jpabook.jpashop.domain.Category;
 import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.search.SearchIndexListener;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.ArrayList;
@@ -12,6 +15,8 @@ import java.util.List;
 @Entity
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE) // Single Table 전략 (한 테이블에 집합)
 @DiscriminatorColumn(name = "dtype") // dtype 이라는 컬럼값에 따라 value 변경
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "item") // 2차 캐시 (Book / Album / Movie 모두 같은 영역 사용)
+@EntityListeners(SearchIndexListener.class) // 이름 / 저자 / ISBN 검색 색인 (SearchIndex)
 @Getter @Setter
 public abstract class Item {
     @Id
@@ -23,6 +28,9 @@ public abstract class Item {
     private int price;
     private int stockQuantity;
 
+    @Version // 낙관적 락 (version 컬럼 : V2 마이그레이션) > 재고 조건부 UPDATE (ItemRepository.removeStock) 에서도 함께 증가
+    private Long version;
+
     @ManyToMany(mappedBy = "items")
     private List<Category> categories = new ArrayList<>();
 
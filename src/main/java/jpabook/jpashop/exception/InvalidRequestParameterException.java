@@ -0,0 +1,13 @@
+package jpabook.jpashop.exception;
+
+// 잘못된 조회 파라미터 (fields / cursor 등) > API 에서 400 으로 응답
+public class InvalidRequestParameterException extends IllegalArgumentException {
+
+    public InvalidRequestParameterException(String message) {
+        super(message);
+    }
+
+    public InvalidRequestParameterException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
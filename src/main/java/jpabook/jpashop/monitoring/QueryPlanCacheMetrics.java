@@ -0,0 +1,51 @@
+package jpabook.jpashop.monitoring;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Hibernate QueryPlanCache (JPQL > SQL 변환 결과 캐시) 지표
+ *
+ * Spring Boot 가 등록하는 Hibernate 지표에는 쿼리 실행 계획 캐시가 없으므로 Statistics 에서 직접 등록
+ *  => jpashop.query.plan.cache{result=hit|miss} : 캐시 조회 수 (miss 는 JPQL 을 새로 파싱한 횟수)
+ *  => jpashop.query.plan.cache.hit.ratio        : 누적 hit 비율
+ *  => jpashop.query.plan.cache.max.size         : 설정된 최대 크기 (hibernate.query.plan_cache_max_size)
+ *
+ * Named Query / QueryTemplate 은 기동 시점에 미리 파싱되므로 요청 처리 중에는 miss 가 거의 증가하지 않아야 함
+ *  => miss 가 계속 증가하면 조합마다 다른 JPQL 을 만드는 쿼리가 있거나 최대 크기가 작아서 계획이 밀려나는 경우
+ *
+ * * hibernate.generate_statistics 가 꺼져 있으면 모두 0
+ */
+@Component
+public class QueryPlanCacheMetrics {
+
+    public QueryPlanCacheMetrics(EntityManagerFactory entityManagerFactory,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${spring.jpa.properties.hibernate.query.plan_cache_max_size:2048}") int maxSize) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        FunctionCounter.builder("jpashop.query.plan.cache", statistics, Statistics::getQueryPlanCacheHitCount)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("jpashop.query.plan.cache", statistics, Statistics::getQueryPlanCacheMissCount)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("jpashop.query.plan.cache.hit.ratio", statistics, QueryPlanCacheMetrics::hitRatio)
+                .register(meterRegistry);
+        Gauge.builder("jpashop.query.plan.cache.max.size", () -> maxSize)
+                .register(meterRegistry);
+    }
+
+    private static double hitRatio(Statistics statistics) {
+        long hits = statistics.getQueryPlanCacheHitCount();
+        long total = hits + statistics.getQueryPlanCacheMissCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
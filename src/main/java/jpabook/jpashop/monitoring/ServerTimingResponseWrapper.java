@@ -0,0 +1,157 @@
+package jpabook.jpashop.monitoring;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * 응답이 커밋되기 직전 (첫 body 출력 / flush / sendError / sendRedirect) 에 Server-Timing 헤더 추가
+ *
+ * @ResponseBody 는 Controller 메소드 안에서 바로 body 를 쓰면서 커밋되기 때문에 Interceptor.postHandle 에서는 헤더를 추가할 수 없음
+ *  => body 를 버퍼링 (ContentCachingResponseWrapper) 하면 스트리밍 Export 가 전부 메모리에 올라가므로 커밋 시점을 가로채서 처리
+ *  => 커밋 이후에 실행된 SQL (Jackson 직렬화 중 지연 로딩, 스트리밍 조회) 은 헤더에는 포함되지 않고 Micrometer 에만 기록
+ */
+class ServerTimingResponseWrapper extends HttpServletResponseWrapper {
+
+    static final String SERVER_TIMING = "Server-Timing";
+
+    private final SqlMetrics metrics;
+    private boolean written;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    ServerTimingResponseWrapper(HttpServletResponse response, SqlMetrics metrics) {
+        super(response);
+        this.metrics = metrics;
+    }
+
+    void writeHeader() {
+        if (!written && !isCommitted()) {
+            setHeader(SERVER_TIMING, metrics.toServerTiming());
+        }
+        written = true;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new HeaderWritingOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            writer = new HeaderWritingWriter(super.getWriter());
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        writeHeader();
+        super.flushBuffer();
+    }
+
+    @Override
+    public void sendError(int sc) throws IOException {
+        writeHeader();
+        super.sendError(sc);
+    }
+
+    @Override
+    public void sendError(int sc, String msg) throws IOException {
+        writeHeader();
+        super.sendError(sc, msg);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+        writeHeader();
+        super.sendRedirect(location);
+    }
+
+    private class HeaderWritingOutputStream extends ServletOutputStream {
+        private final ServletOutputStream delegate;
+
+        HeaderWritingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            writeHeader();
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            writeHeader();
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writeHeader();
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writeHeader();
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+
+    // PrintWriter 의 print / println / format 은 모두 아래 write 메소드를 거쳐서 출력
+    private class HeaderWritingWriter extends PrintWriter {
+
+        HeaderWritingWriter(PrintWriter delegate) {
+            super(delegate);
+        }
+
+        @Override
+        public void write(int c) {
+            writeHeader();
+            super.write(c);
+        }
+
+        @Override
+        public void write(char[] buf, int off, int len) {
+            writeHeader();
+            super.write(buf, off, len);
+        }
+
+        @Override
+        public void write(String s, int off, int len) {
+            writeHeader();
+            super.write(s, off, len);
+        }
+
+        @Override
+        public void flush() {
+            writeHeader();
+            super.flush();
+        }
+
+        @Override
+        public void close() {
+            writeHeader();
+            super.close();
+        }
+    }
+}
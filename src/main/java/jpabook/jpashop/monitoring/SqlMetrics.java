@@ -0,0 +1,98 @@
+package jpabook.jpashop.monitoring;
+
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * HTTP 요청 1건 동안 실행된 SQL 통계
+ *
+ * SqlMetricsFilter 가 요청 시작 시 현재 스레드에 바인딩하고, SqlMetricsListener (p6spy) 가 SQL 실행마다 누적
+ *  => statements : 실행된 SQL 수 (batch 는 executeBatch 1회를 1건으로 집계)
+ *  => rows       : ResultSet 에서 읽은 row 수
+ *  => jdbcNanos  : SQL 실행 + ResultSet 읽기에 사용된 시간
+ *  => shapes     : 리터럴을 ? 로 치환한 SQL 모양별 실행 횟수 (같은 모양이 반복되면 N+1 의심)
+ *
+ * * 요청 스레드에서 실행된 SQL 만 집계 (ChunkedInLoader 병렬 조회 등 별도 스레드에서 실행된 SQL 은 제외)
+ */
+@Getter
+public class SqlMetrics {
+
+    private static final ThreadLocal<SqlMetrics> CURRENT = new ThreadLocal<>();
+
+    private static final int MAX_SHAPES = 256; // 스트리밍 요청 등에서 SQL 모양이 계속 늘어나는 경우를 대비한 상한
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final long startNanos = System.nanoTime();
+    private String handler; // Controller.method (SqlMetricsHandlerInterceptor)
+    private int statements;
+    private long rows;
+    private long jdbcNanos;
+    private final Map<String, Integer> shapes = new HashMap<>();
+
+    static SqlMetrics start() {
+        SqlMetrics metrics = new SqlMetrics();
+        CURRENT.set(metrics);
+        return metrics;
+    }
+
+    // 요청 밖 (InitDb, 배치 등) 에서 실행된 SQL 이면 null
+    static SqlMetrics current() {
+        return CURRENT.get();
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    void setHandler(String handler) {
+        this.handler = handler;
+    }
+
+    void statementExecuted(String sql, long nanos) {
+        statements++;
+        jdbcNanos += nanos;
+
+        String shape = shape(sql);
+        if (shape != null && (shapes.size() < MAX_SHAPES || shapes.containsKey(shape))) {
+            shapes.merge(shape, 1, Integer::sum);
+        }
+    }
+
+    void rowFetched(long nanos) {
+        rows++;
+        jdbcNanos += nanos;
+    }
+
+    void resultSetNext(long nanos) {
+        jdbcNanos += nanos;
+    }
+
+    // 가장 많이 반복된 SQL 모양 (없으면 null)
+    Map.Entry<String, Integer> mostRepeated() {
+        return shapes.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .orElse(null);
+    }
+
+    // Server-Timing: db;dur=12.345;desc="statements=7 rows=42", app;dur=20.1
+    String toServerTiming() {
+        return String.format(Locale.ROOT, "db;dur=%.3f;desc=\"statements=%d rows=%d\", app;dur=%.3f",
+                jdbcNanos / 1_000_000.0, statements, rows, (System.nanoTime() - startNanos) / 1_000_000.0);
+    }
+
+    // PreparedStatement 는 이미 ? 로 바인딩되어 있으므로 Statement 로 실행된 리터럴만 치환 + 공백 정리
+    static String shape(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
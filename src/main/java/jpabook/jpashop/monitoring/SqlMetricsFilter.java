@@ -0,0 +1,92 @@
+package jpabook.jpashop.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청별 SQL 실행 통계
+ *
+ * p6spy 는 SQL 을 로그로만 남기기 때문에 지연 로딩 N+1 (ex. OrderSimpleApiController.ordersV2) 이 운영 환경에서는 보이지 않음
+ *  => Controller 메소드별로 SQL 수 / 읽은 row 수 / JDBC 시간을 Micrometer 로 기록 (/actuator/metrics)
+ *      => jpashop.sql.statements : 요청당 SQL 수
+ *      => jpashop.sql.rows       : 요청당 읽은 row 수
+ *      => jpashop.sql.time       : 요청당 JDBC 시간
+ *      => jpashop.sql.n_plus_one : 같은 모양의 SQL 이 n-plus-one-threshold 번을 초과하여 실행된 요청 수
+ *  => 응답 헤더 Server-Timing 으로도 전달 (브라우저 개발자 도구 > Network > Timing 에서 확인)
+ */
+@Slf4j
+@Component
+public class SqlMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final int nPlusOneThreshold;
+
+    public SqlMetricsFilter(MeterRegistry meterRegistry,
+                            @Value("${jpashop.monitoring.sql.n-plus-one-threshold:10}") int nPlusOneThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        SqlMetrics metrics = SqlMetrics.start();
+        ServerTimingResponseWrapper wrapper = new ServerTimingResponseWrapper(response, metrics);
+
+        try {
+            filterChain.doFilter(request, wrapper);
+            wrapper.writeHeader(); // body 가 없는 응답
+        } finally {
+            SqlMetrics.clear();
+            record(metrics);
+        }
+    }
+
+    private void record(SqlMetrics metrics) {
+        if (metrics.getHandler() == null) { // 정적 리소스 등 Controller 를 거치지 않은 요청
+            return;
+        }
+
+        Tags tags = Tags.of("handler", metrics.getHandler());
+
+        DistributionSummary.builder("jpashop.sql.statements")
+                .baseUnit("statements")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(metrics.getStatements());
+
+        DistributionSummary.builder("jpashop.sql.rows")
+                .baseUnit("rows")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(metrics.getRows());
+
+        Timer.builder("jpashop.sql.time")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(metrics.getJdbcNanos(), TimeUnit.NANOSECONDS);
+
+        Map.Entry<String, Integer> repeated = metrics.mostRepeated();
+        if (repeated != null && repeated.getValue() > nPlusOneThreshold) {
+            Counter.builder("jpashop.sql.n_plus_one")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("N+1 suspected. handler = {}, repeated = {}, sql = {}", metrics.getHandler(), repeated.getValue(), repeated.getKey());
+        }
+    }
+}
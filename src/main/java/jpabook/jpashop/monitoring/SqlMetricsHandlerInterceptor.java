@@ -0,0 +1,21 @@
+package jpabook.jpashop.monitoring;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+// 요청을 처리하는 Controller 메소드를 SqlMetrics 에 기록 (Micrometer handler 태그)
+public class SqlMetricsHandlerInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlMetrics metrics = SqlMetrics.current();
+        if (metrics != null && handler instanceof HandlerMethod) {
+            HandlerMethod handlerMethod = (HandlerMethod) handler;
+            metrics.setHandler(handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName());
+        }
+        return true;
+    }
+}
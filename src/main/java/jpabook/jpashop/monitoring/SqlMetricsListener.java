@@ -0,0 +1,39 @@
+package jpabook.jpashop.monitoring;
+
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy JDBC 이벤트 > 현재 요청의 SqlMetrics 에 누적
+ *
+ * p6spy-spring-boot-starter 가 JdbcEventListener 타입의 Bean 을 DataSource 프록시에 자동 등록
+ *  => executeBatch / executeUpdate / executeQuery 모두 onAfterAnyExecute 로 전달 (SimpleJdbcEventListener)
+ */
+@Component
+public class SqlMetricsListener extends SimpleJdbcEventListener {
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        SqlMetrics metrics = SqlMetrics.current();
+        if (metrics != null) {
+            metrics.statementExecuted(statementInformation.getSql(), timeElapsedNanos);
+        }
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext, SQLException e) {
+        SqlMetrics metrics = SqlMetrics.current();
+        if (metrics == null) {
+            return;
+        }
+        if (hasNext) {
+            metrics.rowFetched(timeElapsedNanos);
+        } else {
+            metrics.resultSetNext(timeElapsedNanos);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package jpabook.jpashop.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// 한 줄에 이벤트 하나 (NDJSON) > 여러 relay 스레드가 동시에 호출하므로 줄 단위로 동기화
+public class FileOutboxSink implements OutboxSink, AutoCloseable {
+
+    private final ObjectMapper objectMapper;
+    private final BufferedWriter writer;
+
+    public FileOutboxSink(ObjectMapper objectMapper, Path path) throws IOException {
+        this.objectMapper = objectMapper;
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        this.writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    @Override
+    public void publish(OutboxMessage message) throws IOException {
+        String line = objectMapper.writeValueAsString(message);
+
+        synchronized (writer) {
+            writer.write(line);
+            writer.write('\n');
+            writer.flush(); // flush 이후에 발행 완료로 표시
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writer) {
+            writer.close();
+        }
+    }
+}
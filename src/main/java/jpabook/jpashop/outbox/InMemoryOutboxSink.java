@@ -0,0 +1,42 @@
+package jpabook.jpashop.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 메모리 큐 (테스트 / 로컬)
+ *
+ * 큐가 가득 차면 (소비가 느린 경우) 발행 실패로 처리 > OutboxRelay 가 backoff 후 재시도 (back-pressure)
+ * 같은 dedupKey 는 한 번만 큐에 넣음 (중복 제거하는 수신 측 역할)
+ */
+public class InMemoryOutboxSink implements OutboxSink {
+
+    private final BlockingQueue<OutboxMessage> queue;
+    private final Set<String> delivered = ConcurrentHashMap.newKeySet();
+
+    public InMemoryOutboxSink(int capacity) {
+        this.queue = new LinkedBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public void publish(OutboxMessage message) throws InterruptedException {
+        if (delivered.contains(message.getDedupKey())) {
+            return;
+        }
+        if (!queue.offer(message, 100, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("outbox 메모리 큐가 가득 찼습니다. dedupKey = " + message.getDedupKey());
+        }
+        delivered.add(message.getDedupKey());
+    }
+
+    public List<OutboxMessage> drain() {
+        List<OutboxMessage> messages = new ArrayList<>();
+        queue.drainTo(messages);
+        return messages;
+    }
+}
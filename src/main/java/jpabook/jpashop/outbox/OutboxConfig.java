@@ -0,0 +1,30 @@
+package jpabook.jpashop.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+@Configuration
+@EnableScheduling
+public class OutboxConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "jpashop.outbox", name = "sink", havingValue = "file")
+    public FileOutboxSink fileOutboxSink(ObjectMapper objectMapper,
+                                         @Value("${jpashop.outbox.file:outbox/order-events.ndjson}") String file) throws IOException {
+        return new FileOutboxSink(objectMapper, Paths.get(file));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(OutboxSink.class)
+    public InMemoryOutboxSink inMemoryOutboxSink(@Value("${jpashop.outbox.memory-capacity:10000}") int capacity) {
+        return new InMemoryOutboxSink(capacity);
+    }
+}
@@ -0,0 +1,66 @@
+package jpabook.jpashop.outbox;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Transactional Outbox
+ *
+ * 주문 생성 / 취소와 같은 트랜잭션에서 INSERT 하고, OutboxRelay 가 별도 스레드에서 외부로 발행
+ *  => 주문 요청은 외부 시스템 (메시지 브로커 등) 의 응답을 기다리지 않음
+ *  => 주문이 롤백되면 이벤트도 함께 롤백 (발행되지 않은 주문 이벤트 / 존재하지 않는 주문의 이벤트 X)
+ *  => dedupKey : 같은 이벤트가 여러 번 발행될 수 있으므로 (at-least-once) 수신 측에서 중복 제거에 사용
+ */
+@Entity
+@Table(name = "outbox_event", indexes = {
+        @Index(name = "idx_outbox_event_pending", columnList = "published_at, next_attempt_at")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_seq_generator")
+    @SequenceGenerator(name = "outbox_seq_generator", sequenceName = "outbox_seq", allocationSize = 50) // pooled sequence (JDBC batch INSERT)
+    @Column(name = "outbox_event_id")
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 100)
+    private String dedupKey;
+
+    private String aggregateType;
+
+    private Long aggregateId;
+
+    private String eventType;
+
+    @Column(length = 2000)
+    private String payload; // JSON
+
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt; // null > 발행 대기
+
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt; // 발행 실패 시 다음 재시도 시각
+
+    private int attempts;
+
+    // == 생성 메서드 == //
+    public static OutboxEvent createOutboxEvent(String dedupKey, String aggregateType, Long aggregateId, String eventType, String payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.dedupKey = dedupKey;
+        event.aggregateType = aggregateType;
+        event.aggregateId = aggregateId;
+        event.eventType = eventType;
+        event.payload = payload;
+        event.createdAt = LocalDateTime.now();
+        event.nextAttemptAt = event.createdAt;
+        return event;
+    }
+}
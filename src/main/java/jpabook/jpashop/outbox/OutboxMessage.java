@@ -0,0 +1,30 @@
+package jpabook.jpashop.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+// OutboxSink 로 발행하는 메시지 (트랜잭션 밖에서 사용하므로 엔티티 대신 값 객체로 전달)
+@Getter
+@ToString
+@AllArgsConstructor
+public class OutboxMessage {
+
+    private final Long id;
+    private final String dedupKey;
+    private final String aggregateType;
+    private final Long aggregateId;
+    private final String eventType;
+    @JsonRawValue
+    private final String payload;
+    private final LocalDateTime createdAt;
+    private final int attempts;
+
+    static OutboxMessage from(OutboxEvent event) {
+        return new OutboxMessage(event.getId(), event.getDedupKey(), event.getAggregateType(), event.getAggregateId(),
+                event.getEventType(), event.getPayload(), event.getCreatedAt(), event.getAttempts());
+    }
+}
@@ -0,0 +1,168 @@
+package jpabook.jpashop.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Outbox 발행 (polling relay)
+ *
+ * poll-interval 마다 발행 대기 이벤트를 batch-size 만큼 조회하여 OutboxSink 로 발행
+ *  => 발행은 트랜잭션 밖에서 concurrency 개의 스레드로 병렬 처리 (DB 커넥션 / 트랜잭션을 잡고 있지 않음)
+ *      => 작업 큐가 가득 차면 relay 스레드가 직접 발행 (CallerRunsPolicy) > 다음 batch 조회가 늦춰짐 (back-pressure)
+ *      => 발행 시간이 publish-timeout 을 넘으면 실패로 처리
+ *  => 성공한 이벤트는 published_at 기록, 실패한 이벤트는 지수 backoff 후 재시도
+ *  => 발행 후 published_at 기록 전에 종료되면 재발행 (at-least-once) > 수신 측은 dedupKey 로 중복 제거
+ *
+ * * 주문 요청은 outbox_event INSERT 만 하므로 수신 측이 느려도 주문 응답 시간에는 영향 없음
+ * * 인스턴스 1개에서 실행하는 것을 전제 (여러 인스턴스에서 실행하면 같은 이벤트를 동시에 발행할 수 있음)
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "jpashop.outbox.relay", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private static final int MAX_BATCHES_PER_POLL = 10; // 밀린 이벤트가 많아도 한 번의 poll 에서 처리할 최대 batch 수
+
+    private final OutboxRepository outboxRepository;
+    private final OutboxSink outboxSink;
+    private final TransactionTemplate transaction;
+    private final ThreadPoolExecutor executor;
+    private final int batchSize;
+    private final Duration publishTimeout;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration retention;
+
+    private final Counter published;
+    private final Counter failed;
+
+    public OutboxRelay(OutboxRepository outboxRepository,
+                       OutboxSink outboxSink,
+                       PlatformTransactionManager transactionManager,
+                       MeterRegistry meterRegistry,
+                       @Value("${jpashop.outbox.relay.batch-size:100}") int batchSize,
+                       @Value("${jpashop.outbox.relay.concurrency:4}") int concurrency,
+                       @Value("${jpashop.outbox.relay.publish-timeout:2s}") Duration publishTimeout,
+                       @Value("${jpashop.outbox.relay.initial-backoff:1s}") Duration initialBackoff,
+                       @Value("${jpashop.outbox.relay.max-backoff:60s}") Duration maxBackoff,
+                       @Value("${jpashop.outbox.relay.retention:7d}") Duration retention) {
+        this.outboxRepository = outboxRepository;
+        this.outboxSink = outboxSink;
+        this.batchSize = batchSize;
+        this.publishTimeout = publishTimeout;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retention = retention;
+
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(batchSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "outbox-relay-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+
+        this.published = Counter.builder("jpashop.outbox.published").register(meterRegistry);
+        this.failed = Counter.builder("jpashop.outbox.failed").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${jpashop.outbox.relay.poll-interval:1000}")
+    public void relay() {
+        for (int batch = 0; batch < MAX_BATCHES_PER_POLL; batch++) {
+            if (relayBatch() < batchSize) { // 밀린 이벤트 없음
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jpashop.outbox.relay.purge-interval:3600000}")
+    public void purge() {
+        Integer deleted = transaction.execute(status -> outboxRepository.deletePublishedBefore(LocalDateTime.now().minus(retention)));
+        log.debug("outbox purged. deleted = {}", deleted);
+    }
+
+    // 조회한 이벤트 수 반환
+    int relayBatch() {
+        List<OutboxMessage> messages = transaction.execute(status -> outboxRepository.findPending(LocalDateTime.now(), batchSize).stream()
+                .map(OutboxMessage::from)
+                .collect(toList()));
+        if (messages == null || messages.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<Boolean>> results = messages.stream()
+                .map(message -> CompletableFuture.supplyAsync(() -> publish(message), executor)
+                        .completeOnTimeout(false, publishTimeout.toMillis(), TimeUnit.MILLISECONDS))
+                .collect(toList());
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).join();
+
+        List<Long> succeeded = new ArrayList<>();
+        List<OutboxMessage> failures = new ArrayList<>();
+        for (int i = 0; i < messages.size(); i++) {
+            if (results.get(i).join()) {
+                succeeded.add(messages.get(i).getId());
+            } else {
+                failures.add(messages.get(i));
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        transaction.executeWithoutResult(status -> {
+            if (!succeeded.isEmpty()) {
+                outboxRepository.markPublished(succeeded, now);
+            }
+            failures.forEach(message -> outboxRepository.markFailed(message.getId(), now.plus(backoff(message.getAttempts() + 1))));
+        });
+
+        published.increment(succeeded.size());
+        failed.increment(failures.size());
+        return messages.size();
+    }
+
+    private boolean publish(OutboxMessage message) {
+        try {
+            outboxSink.publish(message);
+            return true;
+        } catch (Exception e) {
+            log.warn("outbox publish failed. dedupKey = {}, attempts = {}, message = {}", message.getDedupKey(), message.getAttempts() + 1, e.getMessage());
+            return false;
+        }
+    }
+
+    // initialBackoff * 2^(attempts-1), 최대 maxBackoff
+    private Duration backoff(int attempts) {
+        Duration backoff = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return backoff.compareTo(maxBackoff) > 0 ? maxBackoff : backoff;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,48 @@
+package jpabook.jpashop.outbox;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class OutboxRepository {
+
+    private final EntityManager em;
+
+    public void save(OutboxEvent event) {
+        em.persist(event);
+    }
+
+    // 발행 대기 중인 이벤트 (생성 순서)
+    public List<OutboxEvent> findPending(LocalDateTime now, int limit) {
+        return em.createNamedQuery("OutboxEvent.findPending", OutboxEvent.class)
+                .setParameter("now", now)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    public int markPublished(List<Long> ids, LocalDateTime publishedAt) {
+        return em.createNamedQuery("OutboxEvent.markPublished")
+                .setParameter("publishedAt", publishedAt)
+                .setParameter("ids", ids)
+                .executeUpdate();
+    }
+
+    public int markFailed(Long id, LocalDateTime nextAttemptAt) {
+        return em.createNamedQuery("OutboxEvent.markFailed")
+                .setParameter("nextAttemptAt", nextAttemptAt)
+                .setParameter("id", id)
+                .executeUpdate();
+    }
+
+    // 발행 완료 후 보관 기간이 지난 이벤트 삭제
+    public int deletePublishedBefore(LocalDateTime before) {
+        return em.createNamedQuery("OutboxEvent.deletePublishedBefore")
+                .setParameter("before", before)
+                .executeUpdate();
+    }
+}
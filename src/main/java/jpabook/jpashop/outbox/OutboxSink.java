@@ -0,0 +1,13 @@
+package jpabook.jpashop.outbox;
+
+/**
+ * Outbox 이벤트 발행 대상 (jpashop.outbox.sink)
+ *  => file   : NDJSON 파일에 append (FileOutboxSink)
+ *  => memory : 메모리 큐 (InMemoryOutboxSink, 테스트 / 로컬)
+ *
+ * 예외가 발생하면 OutboxRelay 가 backoff 후 재시도 (at-least-once)
+ */
+public interface OutboxSink {
+
+    void publish(OutboxMessage message) throws Exception;
+}
@@ -0,0 +1,51 @@
+package jpabook.jpashop.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.service.OrderChangedEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 주문 생성 / 취소 이벤트 > outbox_event INSERT (주문과 같은 트랜잭션, 커밋 직전)
+ *
+ * dedupKey : order:{orderId}:{ORDERED|CANCELED} > 같은 주문의 같은 이벤트는 1건만 저장 (unique)
+ */
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    private static final String AGGREGATE_TYPE = "Order";
+
+    private final OutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onOrderChanged(OrderChangedEvent event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", event.getOrderId());
+        payload.put("type", event.getType().name());
+        payload.put("occurredAt", LocalDateTime.now().toString());
+
+        outboxRepository.save(OutboxEvent.createOutboxEvent(
+                "order:" + event.getOrderId() + ":" + event.getType().name(),
+                AGGREGATE_TYPE,
+                event.getOrderId(),
+                event.getType().name(),
+                toJson(payload)));
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("outbox payload 직렬화에 실패하였습니다. payload = " + payload, e);
+        }
+    }
+}
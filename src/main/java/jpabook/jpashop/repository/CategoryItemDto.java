@@ -0,0 +1,14 @@
+package jpabook.jpashop.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// 카테고리 하위 상품 목록 (CategoryRepository.findItemsInSubtree)
+@Data
+@AllArgsConstructor
+public class CategoryItemDto {
+    private Long itemId;
+    private String name;
+    private int price;
+    private int stockQuantity;
+}
@@ -0,0 +1,206 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Category;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * 카테고리 + 계층 closure table (category_closure)
+ *
+ * parent_id 만으로 하위 트리를 조회하면 단계마다 쿼리가 필요하므로 모든 (조상, 자손) 쌍을 category_closure 에 함께 저장
+ *  => 카테고리 저장 / 이동 시 같은 트랜잭션에서 closure 도 변경 (native SQL)
+ *  => closure 는 엔티티가 아니므로 native 변경의 query space 를 category_closure 로 지정하여 2차 캐시 전체 무효화 방지
+ *
+ * * 화면 / API 의 트리 탐색은 DB 가 아닌 메모리 스냅샷 (CategoryTreeCache) 을 사용
+ */
+@Repository
+@RequiredArgsConstructor
+public class CategoryRepository {
+
+    private static final String CLOSURE = "category_closure";
+    private static final String CHILD_ROLE = Category.class.getName() + ".child"; // 하위 카테고리 컬렉션 캐시
+
+    private final EntityManager em;
+
+    // 카테고리 저장 후 closure 추가 : 자기 자신 (depth 0) + 부모의 모든 조상 (depth + 1)
+    public void save(Category category) {
+        em.persist(category);
+        em.flush(); // closure FK > category row 가 먼저 있어야 함
+
+        closureUpdate("insert into category_closure (ancestor_id, descendant_id, depth) values (:id, :id, 0)")
+                .setParameter("id", category.getId())
+                .executeUpdate();
+
+        if (category.getParent() != null) {
+            closureUpdate(
+                    "insert into category_closure (ancestor_id, descendant_id, depth)" +
+                            " select ancestor_id, cast(:id as bigint), depth + 1" +
+                            "   from category_closure" +
+                            "  where descendant_id = :parentId")
+                    .setParameter("id", category.getId())
+                    .setParameter("parentId", category.getParent().getId())
+                    .executeUpdate();
+        }
+    }
+
+    public Category findOne(Long id) {
+        return em.find(Category.class, id);
+    }
+
+    /**
+     * 하위 트리 이동 (parent 변경)
+     *
+     * 1. 하위 트리 (자기 자신 포함) 와 기존 조상 사이의 closure 삭제 (하위 트리 내부 관계는 유지)
+     * 2. 새 부모의 조상 x 하위 트리 전체로 closure 추가
+     *
+     * 2차 캐시
+     *  => child 는 mappedBy (읽기 전용) 컬렉션이라 parent 변경 시 컬렉션 캐시가 무효화되지 않으므로 이전 / 새 부모의 child 캐시를 직접 evict
+     */
+    public void move(Category category, Category parent) {
+        Category oldParent = category.getParent();
+        category.setParent(parent);
+        em.flush();
+
+        evictChildren(oldParent);
+        evictChildren(parent);
+
+        closureUpdate(
+                "delete from category_closure" +
+                        " where descendant_id in (select descendant_id from category_closure where ancestor_id = :id)" +
+                        "   and ancestor_id not in (select descendant_id from category_closure where ancestor_id = :id)")
+                .setParameter("id", category.getId())
+                .executeUpdate();
+
+        if (parent != null) {
+            closureUpdate(
+                    "insert into category_closure (ancestor_id, descendant_id, depth)" +
+                            " select p.ancestor_id, s.descendant_id, p.depth + s.depth + 1" +
+                            "   from category_closure p, category_closure s" +
+                            "  where p.descendant_id = :parentId" +
+                            "    and s.ancestor_id = :id")
+                    .setParameter("parentId", parent.getId())
+                    .setParameter("id", category.getId())
+                    .executeUpdate();
+        }
+    }
+
+    /**
+     * 하위 트리 이동 전 row lock (select ... for update)
+     *
+     * 순환 검사 (isInSubtree) 후 이동하는 사이에 다른 트랜잭션이 반대 방향으로 이동하면 순환이 생길 수 있음 (ex. A > B 아래, B > A 아래)
+     *  => 이동할 카테고리 + 새 부모와 그 조상 전체를 id 순서로 lock (교착 상태 방지)
+     *  => 서로 순환을 만들 수 있는 이동은 상대방의 이동 카테고리를 조상으로 lock 하므로 순서대로 실행되고, 나중 이동은 커밋된 closure 로 다시 검사
+     */
+    public void lockForMove(Long categoryId, Long parentId) {
+        TreeSet<Long> ids = new TreeSet<>();
+        ids.add(categoryId);
+        if (parentId != null) {
+            @SuppressWarnings("unchecked")
+            List<Number> ancestors = em.createNativeQuery("select ancestor_id from category_closure where descendant_id = :parentId")
+                    .setParameter("parentId", parentId)
+                    .getResultList();
+            ancestors.forEach(ancestor -> ids.add(ancestor.longValue()));
+            ids.add(parentId);
+        }
+
+        em.createNamedQuery("Category.lockForMove", Category.class)
+                .setParameter("ids", ids)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    // 상품이 이미 카테고리에 속해 있는지 (category_item PK 조회)
+    public boolean containsItem(Long categoryId, Long itemId) {
+        Number count = (Number) em.createNativeQuery(
+                "select count(*) from category_item" +
+                        " where category_id = :categoryId" +
+                        "   and item_id = :itemId")
+                .setParameter("categoryId", categoryId)
+                .setParameter("itemId", itemId)
+                .getSingleResult();
+        return count.longValue() > 0;
+    }
+
+    // categoryId 가 ancestorId 자신이거나 하위 카테고리인지 (이동 시 순환 방지)
+    public boolean isInSubtree(Long ancestorId, Long categoryId) {
+        Number count = (Number) em.createNativeQuery(
+                "select count(*) from category_closure" +
+                        " where ancestor_id = :ancestorId" +
+                        "   and descendant_id = :categoryId")
+                .setParameter("ancestorId", ancestorId)
+                .setParameter("categoryId", categoryId)
+                .getSingleResult();
+        return count.longValue() > 0;
+    }
+
+    // 트리 스냅샷용 (id, name, parentId) > parent.id 는 FK 컬럼이므로 join 없이 조회
+    public List<Object[]> findAllNodes() {
+        return em.createNamedQuery("Category.findAllNodes", Object[].class)
+                .getResultList();
+    }
+
+    /**
+     * 카테고리 하위 전체 (자기 자신 포함) 상품 - Keyset 페이징 (item_id 순)
+     *
+     * category_closure (ancestor_id) > category_item (category_id) > item (item_id) 모두 PK 인덱스로 한번에 조회
+     *  => 여러 하위 카테고리에 속한 상품도 IN 조건이므로 한번만 나옴
+     */
+    public List<CategoryItemDto> findItemsInSubtree(Long categoryId, Long itemId, int limit) {
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = em.createNativeQuery(
+                "select i.item_id, i.name, i.price, i.stock_quantity" +
+                        "  from item i" +
+                        " where i.item_id in (select ci.item_id" +
+                        "                       from category_closure cc" +
+                        "                       join category_item ci on ci.category_id = cc.descendant_id" +
+                        "                      where cc.ancestor_id = :categoryId)" +
+                        "   and i.item_id > :itemId" +
+                        " order by i.item_id")
+                .setParameter("categoryId", categoryId)
+                .setParameter("itemId", itemId == null ? 0L : itemId)
+                .setMaxResults(limit)
+                .getResultList();
+
+        return rows.stream()
+                .map(row -> new CategoryItemDto(((Number) row[0]).longValue(), (String) row[1],
+                        ((Number) row[2]).intValue(), ((Number) row[3]).intValue()))
+                .collect(Collectors.toList());
+    }
+
+    // 지금 + 커밋 이후 (커밋 전에 다른 트랜잭션이 이전 목록을 다시 캐시할 수 있으므로)
+    private void evictChildren(Category parent) {
+        if (parent == null) {
+            return;
+        }
+
+        Cache cache = em.getEntityManagerFactory().getCache().unwrap(Cache.class);
+        Long parentId = parent.getId();
+        cache.evictCollectionData(CHILD_ROLE, parentId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evictCollectionData(CHILD_ROLE, parentId);
+                }
+            });
+        }
+    }
+
+    @SuppressWarnings("rawtypes")
+    private NativeQuery closureUpdate(String sql) {
+        return em.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace(CLOSURE);
+    }
+}
@@ -0,0 +1,147 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.concurrent.FanOutExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * IN 절 분할 조회 (Chunked IN Loader)
+ *
+ * id 전체를 하나의 IN 절로 조회하는 경우
+ *  => id 수만큼 바인딩 파라미터가 늘어나서 DB 파라미터 개수 제한 초과 (ex. Oracle 1000개)
+ *  => IN 절 길이마다 다른 SQL 이 만들어지므로 Hibernate QueryPlanCache / DB 실행 계획 캐시가 길이별로 계속 쌓임
+ *
+ * 해결
+ *  => id 목록을 maxChunkSize 단위로 나누고, 각 chunk 는 마지막 id 를 반복하여 2의 거듭제곱 크기로 패딩
+ *      => IN 절 길이의 종류가 log2(maxChunkSize) + 1 개로 제한되므로 실행 계획 재사용 가능
+ *  => parallelism > 1 이면 chunk 를 최대 parallelism 개의 묶음으로 나누어 FanOutExecutor 작업 스레드의 readOnly 트랜잭션 (별도 커넥션) 에서 병렬로 조회
+ *      => 조회 1건이 동시에 사용하는 커넥션은 최대 parallelism 개 (묶음 안의 chunk 는 순서대로 조회)
+ *      => 전체 동시 실행 수는 FanOutExecutor 가 커넥션 풀 크기 기준으로 제한
+ */
+@Component
+public class ChunkedInLoader {
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxChunkSize;
+    private final int parallelism;
+    private final FanOutExecutor executor; // parallelism 이 1 이하면 null (호출한 스레드에서 순차 조회)
+
+    public ChunkedInLoader(PlatformTransactionManager transactionManager,
+                           FanOutExecutor fanOutExecutor,
+                           @Value("${jpashop.query.in-chunk-size:512}") int maxChunkSize,
+                           @Value("${jpashop.query.in-chunk-parallelism:1}") int parallelism) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.maxChunkSize = Integer.highestOneBit(Math.max(1, maxChunkSize)); // 2의 거듭제곱으로 내림
+        this.parallelism = Math.max(1, parallelism);
+        this.executor = parallelism > 1 ? fanOutExecutor : null;
+    }
+
+    /**
+     * @param ids   조회할 id 목록 (중복 제거 후 조회)
+     * @param query chunk 단위 id 목록을 받아 IN 절로 조회하는 쿼리 (chunk 에는 패딩된 중복 id 가 포함될 수 있음)
+     */
+    public <T> List<T> load(Collection<Long> ids, Function<List<Long>, List<T>> query) {
+        List<List<Long>> chunks = chunk(ids, maxChunkSize);
+        if (chunks.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        List<T> result = new ArrayList<>();
+        if (executor == null || chunks.size() == 1) {
+            chunks.forEach(chunk -> result.addAll(query.apply(chunk)));
+            return result;
+        }
+
+        // 각 묶음은 작업 스레드에서 새로운 readOnly 트랜잭션으로 실행되므로 EntityManager / 커넥션을 따로 사용
+        List<Future<List<T>>> futures = new ArrayList<>();
+        for (List<List<Long>> group : partition(chunks, parallelism)) {
+            futures.add(executor.submit(() -> readOnlyTransaction.execute(status -> {
+                List<T> rows = new ArrayList<>();
+                group.forEach(chunk -> rows.addAll(query.apply(chunk)));
+                return rows;
+            })));
+        }
+
+        try {
+            for (Future<List<T>> future : futures) {
+                result.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("IN 절 분할 조회 중 인터럽트가 발생하였습니다.", e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("IN 절 분할 조회에 실패하였습니다.", e.getCause());
+        }
+
+        return result;
+    }
+
+    // 호출한 스레드 / 트랜잭션에서 chunk 를 순서대로 조회 (이미 fan-out 작업 스레드 안에서 실행 중인 경우)
+    public <T> List<T> loadSequentially(Collection<Long> ids, Function<List<Long>, List<T>> query) {
+        List<T> result = new ArrayList<>();
+        chunk(ids, maxChunkSize).forEach(chunk -> result.addAll(query.apply(chunk)));
+        return result;
+    }
+
+    // key : keyMapper 결과 (ex. orderId) , value : List<DTO>
+    public <T> Map<Long, List<T>> loadGrouped(Collection<Long> ids, Function<List<Long>, List<T>> query, Function<T, Long> keyMapper) {
+        return load(ids, query).stream()
+                .collect(Collectors.groupingBy(keyMapper));
+    }
+
+    static List<List<Long>> chunk(Collection<Long> ids, int maxChunkSize) {
+        List<Long> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<List<Long>> chunks = new ArrayList<>();
+
+        for (int from = 0; from < distinctIds.size(); from += maxChunkSize) {
+            List<Long> chunk = new ArrayList<>(distinctIds.subList(from, Math.min(from + maxChunkSize, distinctIds.size())));
+
+            // 마지막 id 를 반복하여 2의 거듭제곱 크기로 패딩 (IN 절 결과에는 영향 없음)
+            int paddedSize = chunk.size() == 1 ? 1 : Integer.highestOneBit(chunk.size() - 1) << 1;
+            Long last = chunk.get(chunk.size() - 1);
+            while (chunk.size() < paddedSize) {
+                chunk.add(last);
+            }
+
+            chunks.add(chunk);
+        }
+
+        return chunks;
+    }
+
+    // chunk 목록을 최대 groups 개의 묶음으로 나눔 (앞에서부터 순서대로, 묶음 크기 차이는 최대 1)
+    static <T> List<List<T>> partition(List<T> chunks, int groups) {
+        int count = Math.min(groups, chunks.size());
+        List<List<T>> result = new ArrayList<>(count);
+        int from = 0;
+        for (int i = 0; i < count; i++) {
+            int size = chunks.size() / count + (i < chunks.size() % count ? 1 : 0);
+            result.add(chunks.subList(from, from + size));
+            from += size;
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,12 @@
+package jpabook.jpashop.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+// 선택 목록 / 자동완성 (typeahead) 용 id + 이름
+@Data
+@AllArgsConstructor
+public class IdNameDto {
+    private Long id;
+    private String name;
+}
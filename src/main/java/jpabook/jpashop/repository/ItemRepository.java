@@ -2,15 +2,23 @@ package jpabook.jpashop.repository;
 
 import jpabook.jpashop.domain.item.Item;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
+import org.hibernate.query.NativeQuery;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.persistence.Cache;
 import javax.persistence.EntityManager;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 @RequiredArgsConstructor
 public class ItemRepository {
 
+    public static final String CATALOG_QUERY_REGION = "query.catalog";
+
     private final EntityManager em;
 
     public void save(Item item) {
@@ -26,8 +34,120 @@ public class ItemRepository {
         return em.find(Item.class, id);
     }
 
+    // 2차 캐시 - 쿼리 캐시 (결과 id 목록만 캐시하고 엔티티는 item 영역에서 조회)
     public List<Item> findAll() {
-        return em.createQuery("select i from Item i", Item.class)
+        return em.createNamedQuery("Item.findAll", Item.class)
+                .setHint(QueryHints.CACHEABLE, true)
+                .setHint(QueryHints.CACHE_REGION, CATALOG_QUERY_REGION)
+                .getResultList();
+    }
+
+    // IN 절로 한번에 조회 (대량 주문)
+    public List<Item> findAllById(Collection<Long> ids) {
+        return em.createNamedQuery("Item.findAllById", Item.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /**
+     * 재고 차감 - 조건부 UPDATE
+     *
+     * 재고 확인 (stock_quantity >= quantity) 과 차감을 하나의 UPDATE 로 DB 에서 원자적으로 처리
+     *  => bulk 연산이므로 영속성 컨텍스트를 거치지 않음 (이미 조회된 Item 은 refresh 필요)
+     *  => version 도 함께 증가시켜서 동시에 변경 감지로 수정하던 트랜잭션은 낙관적 락 충돌로 처리
+     *
+     * 2차 캐시
+     *  => JPQL bulk UPDATE 는 Item 캐시 영역 전체와 item 테이블 쿼리 캐시를 비우기 때문에 주문이 들어올 때마다 상품 캐시가 초기화됨
+     *  => native UPDATE + 빈 query space 로 Hibernate 의 영역 전체 무효화를 막고, 변경된 상품만 직접 evict
+     *  => 빈 query space 를 지정하면 Hibernate 가 자동 flush 하지 않으므로 직접 flush
+     *
+     * @return 변경된 row 수 (0 이면 재고 부족)
+     */
+    public int removeStock(Long itemId, int quantity) {
+        em.flush();
+
+        int updated = em.createNativeQuery(
+                "update item" +
+                        "   set stock_quantity = stock_quantity - :quantity," +
+                        "       version = version + 1" +
+                        " where item_id = :itemId" +
+                        "   and stock_quantity >= :quantity")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("")
+                .setParameter("quantity", quantity)
+                .setParameter("itemId", itemId)
+                .executeUpdate();
+
+        if (updated > 0) {
+            evict(itemId);
+        }
+
+        return updated;
+    }
+
+    // 재고 원복 - 조건부 UPDATE 로 차감한 재고를 같은 트랜잭션 안에서 되돌리는 경우 (removeStock 과 동일하게 처리)
+    public int addStock(Long itemId, int quantity) {
+        em.flush();
+
+        int updated = em.createNativeQuery(
+                "update item" +
+                        "   set stock_quantity = stock_quantity + :quantity," +
+                        "       version = version + 1" +
+                        " where item_id = :itemId")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("")
+                .setParameter("quantity", quantity)
+                .setParameter("itemId", itemId)
+                .executeUpdate();
+
+        if (updated > 0) {
+            evict(itemId);
+        }
+
+        return updated;
+    }
+
+    /**
+     * 여러 상품 row lock (select ... for update) 을 item_id 순서로 미리 획득
+     *
+     * 여러 주문의 재고를 한 트랜잭션에서 차감하면 주문마다 item_id 순서로 차감해도 트랜잭션 전체의 lock 순서는 섞임
+     *  => (주문1 : 2, 5) (주문2 : 3) 이면 2 > 5 > 3 순서 > 다른 트랜잭션이 3 > 5 순서로 잡으면 교착 상태
+     *  => 트랜잭션에서 사용할 상품 전체를 먼저 id 순서로 lock
+     */
+    public void lockAll(Collection<Long> itemIds) {
+        em.createNativeQuery("select item_id from item where item_id in (:itemIds) order by item_id for update")
+                .setParameter("itemIds", itemIds)
+                .getResultList();
+    }
+
+    /**
+     * 상품 캐시 evict (지금 + 커밋 이후)
+     *
+     * 커밋 전에 다른 트랜잭션이 이전 값을 다시 캐시에 올릴 수 있으므로 커밋 이후에 한번 더 evict
+     */
+    public void evict(Long itemId) {
+        Cache cache = em.getEntityManagerFactory().getCache();
+        cache.evict(Item.class, itemId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.evict(Item.class, itemId);
+                }
+            });
+        }
+    }
+
+    public void refresh(Item item) {
+        em.refresh(item);
+    }
+
+    // 이름 접두어 검색 (주문 화면 상품 자동완성) > 이름 인덱스 (idx_item_name) 범위 조회, id / 이름만 조회
+    public List<IdNameDto> findNamesByPrefix(String prefix, int limit) {
+        return em.createNamedQuery("Item.findNamesByPrefix", IdNameDto.class)
+                .setParameter("prefix", LikePatterns.prefix(prefix))
+                .setMaxResults(limit)
                 .getResultList();
     }
 }
@@ -0,0 +1,37 @@
+package jpabook.jpashop.repository;
+
+/**
+ * like 검색 패턴
+ *
+ * 사용자 입력의 % / _ 는 와일드카드로 해석되지 않도록 ESCAPE 문자로 이스케이프
+ *  => 쿼리에는 like :pattern escape '!' 로 함께 지정 (META-INF/orm.xml Named Query 도 같은 문자 사용)
+ */
+final class LikePatterns {
+
+    static final char ESCAPE = '!';
+
+    private LikePatterns() {
+    }
+
+    // 접두어 검색 (인덱스 범위 조회 가능) > null / 빈 문자열이면 전체
+    static String prefix(String value) {
+        return escape(value == null ? "" : value) + '%';
+    }
+
+    // 부분 일치 검색 (인덱스 사용 X)
+    static String contains(String value) {
+        return '%' + escape(value == null ? "" : value) + '%';
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ESCAPE || c == '%' || c == '_') {
+                escaped.append(ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
@@ -2,9 +2,11 @@ package jpabook.jpashop.repository;
 
 import jpabook.jpashop.domain.Member;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -28,14 +30,37 @@ public class MemberRepository {
     // 다건 조회
     // JPQL
     public List<Member> findAll() {
-        // Entity 객체를 대상으로 쿼리
-        return em.createQuery("select m from Member m", Member.class)
+        // Entity 객체를 대상으로 쿼리 (META-INF/orm.xml 에 등록된 Named Query)
+        // 2차 캐시 - 쿼리 캐시 (주문 화면 렌더링마다 조회)
+        return em.createNamedQuery("Member.findAll", Member.class)
+                .setHint(QueryHints.CACHEABLE, true)
+                .setHint(QueryHints.CACHE_REGION, ItemRepository.CATALOG_QUERY_REGION)
+                .getResultList();
+    }
+
+    // IN 절로 한번에 조회 (대량 주문)
+    public List<Member> findAllById(Collection<Long> ids) {
+        return em.createNamedQuery("Member.findAllById", Member.class)
+                .setParameter("ids", ids)
                 .getResultList();
     }
 
     public List<Member> findByName(String name) {
-        return em.createQuery("select m from Member m where m.name = :name", Member.class)
+        return em.createNamedQuery("Member.findByName", Member.class)
                 .setParameter("name", name)
                 .getResultList();
     }
+
+    /**
+     * 이름 접두어 검색 (주문 화면 회원 자동완성)
+     *
+     * like '접두어%' 는 이름 인덱스 (idx_member_name) 범위 조회 + 정렬까지 인덱스로 처리하므로 회원 수와 상관없이 limit 건만 읽음
+     *  => 엔티티가 아닌 id / 이름만 조회
+     */
+    public List<IdNameDto> findNamesByPrefix(String prefix, int limit) {
+        return em.createNamedQuery("Member.findNamesByPrefix", IdNameDto.class)
+                .setParameter("prefix", LikePatterns.prefix(prefix))
+                .setMaxResults(limit)
+                .getResultList();
+    }
 }
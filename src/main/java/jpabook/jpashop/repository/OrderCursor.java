@@ -0,0 +1,107 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.exception.InvalidRequestParameterException;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.stream.Collectors;
+
+/**
+ * Keyset (seek) 페이징용 커서
+ *
+ * 마지막으로 조회한 주문의 정렬 키 (orderDate, order_id) 를 Base64 로 감싸서 클라이언트에게 opaque 한 문자열로 전달
+ *  => 클라이언트는 커서 내부 구조를 알 필요 없이 다음 요청의 after 파라미터로 그대로 전달
+ *  => 커서를 만든 정렬 (Sort) 을 함께 담아서, 다른 정렬의 요청에 전달되면 처음부터 다시 조회하지 않고 400 으로 실패
+ *  => ID : order_id 단독 seek / ORDER_DATE : (orderDate, order_id) seek (orderDate 필수)
+ */
+@Getter
+public class OrderCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final Sort sort;
+    private final LocalDateTime orderDate;
+    private final Long orderId;
+
+    public OrderCursor(Sort sort, LocalDateTime orderDate, Long orderId) {
+        this.sort = sort;
+        this.orderDate = orderDate;
+        this.orderId = orderId;
+    }
+
+    // 첫 페이지 (after 파라미터 없음)
+    public static OrderCursor first(Sort sort) {
+        return new OrderCursor(sort, null, null);
+    }
+
+    public static OrderCursor afterId(Long orderId) {
+        return new OrderCursor(Sort.ID, null, orderId);
+    }
+
+    // 요청한 정렬과 커서의 정렬이 다르면 400 (InvalidRequestParameterException)
+    public OrderCursor requireSort(Sort sort) {
+        if (this.sort != sort) {
+            throw new InvalidRequestParameterException("커서의 정렬과 요청한 정렬이 다릅니다. cursor = " + this.sort.getParamName() + ", sort = " + sort.getParamName());
+        }
+        return this;
+    }
+
+    public String encode() {
+        String raw = sort.name() + SEPARATOR + (orderDate == null ? "" : orderDate.toString()) + SEPARATOR + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * sort|orderDate|orderId
+     *  => orderDate 가 없는 ORDER_DATE 커서는 seek 할 위치가 없으므로 잘못된 커서로 처리
+     */
+    public static OrderCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int first = raw.indexOf(SEPARATOR);
+            int second = raw.indexOf(SEPARATOR, first + 1);
+            if (first < 0 || second < 0) {
+                throw new InvalidRequestParameterException("잘못된 커서입니다. cursor = " + cursor);
+            }
+
+            Sort sort = Sort.valueOf(raw.substring(0, first));
+            String orderDate = raw.substring(first + 1, second);
+            Long orderId = Long.valueOf(raw.substring(second + 1));
+
+            if (sort == Sort.ORDER_DATE && orderDate.isEmpty()) {
+                throw new InvalidRequestParameterException("잘못된 커서입니다. cursor = " + cursor);
+            }
+
+            return new OrderCursor(sort, orderDate.isEmpty() ? null : LocalDateTime.parse(orderDate), orderId);
+        } catch (InvalidRequestParameterException e) {
+            throw e;
+        } catch (IllegalArgumentException | DateTimeParseException e) { // NumberFormatException 포함
+            throw new InvalidRequestParameterException("잘못된 커서입니다. cursor = " + cursor, e);
+        }
+    }
+
+    @Getter
+    public enum Sort {
+        ID("id"),                // order_id 오름차순
+        ORDER_DATE("orderDate"); // 최근 주문순 (orderDate, order_id 내림차순)
+
+        private final String paramName;
+
+        Sort(String paramName) {
+            this.paramName = paramName;
+        }
+
+        // sort 요청 파라미터 > Sort (알 수 없는 값이면 400)
+        public static Sort of(String paramName) {
+            return Arrays.stream(values())
+                    .filter(sort -> sort.paramName.equals(paramName))
+                    .findFirst()
+                    .orElseThrow(() -> new InvalidRequestParameterException("지원하지 않는 정렬입니다. sort = " + paramName
+                            + " (" + Arrays.stream(values()).map(Sort::getParamName).collect(Collectors.joining(", ")) + ")"));
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package jpabook.jpashop.repository;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// 주문 목록 화면 (order/orderList) 한 줄 > 주문 + 회원 이름 + 대표 상품 (첫 번째 주문 상품)
+@Data
+public class OrderListDto {
+
+    @JsonSerialize(using = ToStringSerializer.class) // Snowflake id > 문자열로 응답 (SnowflakeIdGenerator 참고)
+    private Long orderId;
+    private String memberName;
+    private String itemName;
+    private int orderPrice;
+    private int count;
+    private OrderStatus orderStatus;
+    private LocalDateTime orderDate;
+
+    // QueryDSL Projections.constructor
+    public OrderListDto(Long orderId, String memberName, String itemName, int orderPrice, int count, OrderStatus orderStatus, LocalDateTime orderDate) {
+        this.orderId = orderId;
+        this.memberName = memberName;
+        this.itemName = itemName;
+        this.orderPrice = orderPrice;
+        this.count = count;
+        this.orderStatus = orderStatus;
+        this.orderDate = orderDate;
+    }
+}
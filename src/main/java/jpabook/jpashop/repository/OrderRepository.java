@@ -1,30 +1,90 @@
 package jpabook.jpashop.repository;
 
-import com.querydsl.core.types.dsl.BooleanExpression;
-import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.Projections;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.JPAExpressions;
+import com.querydsl.jpa.impl.JPAQuery;
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.item.QItem;
+import jpabook.jpashop.search.SearchIndex;
+import jpabook.jpashop.sharding.ScatterGatherExecutor;
+import jpabook.jpashop.sharding.ShardKey;
+import jpabook.jpashop.sharding.ShardRouter;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Hibernate;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
+import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
 
 @Repository
 @RequiredArgsConstructor
 public class OrderRepository {
 
+    private static final int FIND_ALL_LIMIT = 1000;
+    private static final int MAX_MEMBER_IDS = 1000; // 회원 이름 검색 결과를 IN 절로 넘길 최대 회원 수
+
+    // 검색 조건 값 (QueryTemplate 실행 시 바인딩)
+    private static final Param<OrderStatus> STATUS = new Param<>(OrderStatus.class, "status");
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final Param<Collection<Long>> MEMBER_IDS = new Param(Collection.class, "memberIds");
+    private static final Param<String> MEMBER_NAME = new Param<>(String.class, "memberName"); // like 패턴 (LikePatterns.contains)
+    private static final Param<Long> AFTER_ORDER_ID = new Param<>(Long.class, "afterOrderId");
+
+    // 검색 조건 조합 (bit) > 주문 상태 (있음 / 없음) x 회원 조건 (없음 / id IN / 이름 like) = 6가지
+    private static final int STATUS_EQ = 1;
+    private static final int MEMBER_ID_IN = 2;
+    private static final int MEMBER_NAME_LIKE = 4;
+    private static final int SHAPES = (MEMBER_NAME_LIKE | STATUS_EQ) + 1;
+
+    // 조합별 QueryTemplate (클래스 로딩 시점에 한번만 JPQL 로 변환)
+    private static final List<QueryTemplate<Order>> FIND_ALL = compileAll(OrderRepository::findAllTemplate);
+    private static final List<QueryTemplate<OrderListDto>> FIND_ORDER_LIST = compileAll(OrderRepository::findOrderListTemplate);
+
     private final EntityManager em;
+    private final ShardRouter shardRouter;
+    private final ScatterGatherExecutor scatterGatherExecutor;
+    private final SearchIndex searchIndex;
+
+    // 조합별 JPQL 을 기동 시점에 Hibernate 로 미리 파싱 (잘못된 쿼리면 기동 실패)
+    @PostConstruct
+    void validateTemplates() {
+        List<QueryTemplate<?>> templates = new ArrayList<>(FIND_ALL);
+        templates.addAll(FIND_ORDER_LIST);
+        QueryTemplate.validate(em.getEntityManagerFactory(), templates);
+    }
 
-    public void save(Order order) {
+    // 주문 회원의 shard 에 저장
+    public void save(@ShardKey Order order) {
         em.persist(order);
     }
 
-    public Order findOne(Long id) {
+    // 주문 id 에 포함된 shard 에서 조회
+    public Order findOne(@ShardKey(ShardKey.Type.ORDER_ID) Long id) {
         return em.find(Order.class, id);
     }
 
+    // 회원의 주문 > 회원의 shard 1개에서 조회
+    public List<Order> findAllByMember(@ShardKey Long memberId) {
+        return em.createNamedQuery("Order.findAllByMember", Order.class)
+                .setParameter("memberId", memberId)
+                .getResultList();
+    }
+
     // TODO : QueryDSL
     /*
     public List<Order> findAll(OrderSearch orderSearch) {
@@ -53,31 +113,166 @@ public class OrderRepository {
     }
     */
 
+    /**
+     * 주문 검색
+     *
+     * 회원 이름 조건은 주문 쿼리 전에 검색 색인 (SearchIndex) 으로 회원 id 목록을 먼저 구한 후 member_id IN 으로 조회
+     *  => member.name like '%이름%' 은 인덱스를 사용할 수 없어서 회원 테이블 전체를 읽음
+     *  => 이름이 포함된 회원이 없으면 주문 쿼리 없이 빈 결과
+     *  => 색인이 아직 만들어지지 않았거나 일치하는 회원이 너무 많으면 (MAX_MEMBER_IDS 초과) 기존처럼 like 검색
+     *
+     * shard 를 사용하는 경우 (jpashop.sharding.enabled) 모든 shard 에 병렬로 조회 후 order_id 순서로 merge (ScatterGatherExecutor)
+     *  => shard 마다 order by + limit 을 적용하여 최대 1000건씩만 조회 (limit pushdown)
+     *  => shard 별 트랜잭션이 끝난 후 반환되므로 화면 / API 에서 사용하는 연관 엔티티는 미리 초기화
+     *
+     * 쿼리는 검색 조건 조합별로 미리 만들어 둔 QueryTemplate 에 조건 값만 바인딩 (호출마다 QueryDSL 직렬화 / JPQL 파싱 X)
+     */
     public List<Order> findAll(OrderSearch orderSearch) {
+        Map<ParamExpression<?>, Object> params = searchParams(orderSearch);
+        if (params == null) {
+            return Collections.emptyList();
+        }
+
+        QueryTemplate<Order> template = FIND_ALL.get(shape(params));
+        if (!shardRouter.isSharded()) {
+            return template.fetch(em, params, FIND_ALL_LIMIT);
+        }
+
+        return scatterGatherExecutor.query(
+                () -> initialize(template.fetch(em, params, FIND_ALL_LIMIT)),
+                Comparator.comparing(Order::getId),
+                FIND_ALL_LIMIT);
+    }
+
+    private static QueryTemplate<Order> findAllTemplate(int shape) {
         QOrder order = QOrder.order;
         QMember member = QMember.member;
 
-        JPAQueryFactory query = new JPAQueryFactory(em);
-        return query.select(order)
+        return QueryTemplate.of(new JPAQuery<>()
+                .select(order)
                 .from(order)
                 .join(order.member, member)
-                .where(statusEq(orderSearch.getOrderStatus()), nameLike(orderSearch.getMemberName()))
-                .limit(1000)
-                .fetch();
+                .where(searchConditions(shape))
+                .orderBy(order.id.asc()));
+    }
+
+    /**
+     * 주문 목록 화면 - DTO 조회 + Keyset 페이징 (order_id 순)
+     *
+     * Order 엔티티를 화면에 넘기면 렌더링 중에 회원 / 주문 상품 / 상품을 지연 로딩하므로 OSIV 로 커넥션을 렌더링이 끝날 때까지 점유
+     *  => 화면에 필요한 컬럼만 Projections.constructor 로 한번에 조회 (영속성 컨텍스트 / 지연 로딩 X)
+     *  => 대표 상품은 주문의 첫 번째 주문 상품 (order_item_id 최소) 만 join 하므로 주문당 1 row
+     *  => 검색 조건은 findAll 과 동일 (회원 이름은 SearchIndex 로 회원 id 조회)
+     */
+    public List<OrderListDto> findOrderList(OrderSearch orderSearch, Long orderId, int limit) {
+        Map<ParamExpression<?>, Object> params = searchParams(orderSearch);
+        if (params == null) {
+            return Collections.emptyList();
+        }
+
+        QueryTemplate<OrderListDto> template = FIND_ORDER_LIST.get(shape(params));
+        params.put(AFTER_ORDER_ID, orderId == null ? 0L : orderId);
+        if (!shardRouter.isSharded()) {
+            return template.fetch(em, params, limit);
+        }
+
+        return scatterGatherExecutor.query(
+                () -> template.fetch(em, params, limit),
+                Comparator.comparing(OrderListDto::getOrderId),
+                limit);
+    }
+
+    private static QueryTemplate<OrderListDto> findOrderListTemplate(int shape) {
+        QOrder order = QOrder.order;
+        QMember member = QMember.member;
+        QOrderItem orderItem = QOrderItem.orderItem;
+        QOrderItem firstItem = new QOrderItem("firstItem");
+        QItem item = QItem.item;
+
+        return QueryTemplate.of(new JPAQuery<>()
+                .select(Projections.constructor(OrderListDto.class,
+                        order.id, member.name, item.name, orderItem.orderPrice, orderItem.count, order.status, order.orderDate))
+                .from(order)
+                .join(order.member, member)
+                .join(order.orderItems, orderItem)
+                .join(orderItem.item, item)
+                .where(order.id.gt(AFTER_ORDER_ID),
+                        orderItem.id.eq(JPAExpressions.select(firstItem.id.min())
+                                .from(firstItem)
+                                .where(firstItem.order.eq(order))))
+                .where(searchConditions(shape))
+                .orderBy(order.id.asc()));
+    }
+
+    private static <T> List<QueryTemplate<T>> compileAll(IntFunction<QueryTemplate<T>> compiler) {
+        List<QueryTemplate<T>> templates = new ArrayList<>(SHAPES);
+        for (int shape = 0; shape < SHAPES; shape++) {
+            templates.add(compiler.apply(shape));
+        }
+        return Collections.unmodifiableList(templates);
     }
 
-    private BooleanExpression nameLike(String memberName) {
+    // Member / Delivery / OrderItem / Item 지연 로딩 초기화 (default_batch_fetch_size 로 IN 조회)
+    private List<Order> initialize(List<Order> orders) {
+        for (Order order : orders) {
+            Hibernate.initialize(order.getMember());
+            Hibernate.initialize(order.getDelivery());
+            order.getOrderItems().forEach(orderItem -> Hibernate.initialize(orderItem.getItem()));
+        }
+        return orders;
+    }
+
+    // 검색 조건 값 (조건이 있는 Param 만 포함) > null 이면 이름이 포함된 회원 없음 (조회 X)
+    private Map<ParamExpression<?>, Object> searchParams(OrderSearch orderSearch) {
+        Map<ParamExpression<?>, Object> params = new HashMap<>();
+        if (orderSearch.getOrderStatus() != null) {
+            params.put(STATUS, orderSearch.getOrderStatus());
+        }
+
+        String memberName = orderSearch.getMemberName();
         if (!StringUtils.hasText(memberName)) {
+            return params;
+        }
+        if (!searchIndex.isReady()) {
+            params.put(MEMBER_NAME, LikePatterns.contains(memberName));
+            return params;
+        }
+
+        List<Long> memberIds = searchIndex.searchMembers(memberName, MAX_MEMBER_IDS + 1);
+        if (memberIds.isEmpty()) {
             return null;
         }
-        return QMember.member.name.like(memberName);
+        if (memberIds.size() > MAX_MEMBER_IDS) {
+            params.put(MEMBER_NAME, LikePatterns.contains(memberName));
+        } else {
+            params.put(MEMBER_IDS, memberIds);
+        }
+        return params;
     }
 
-    private BooleanExpression statusEq(OrderStatus statusCond) {
-        if (statusCond == null) {
-            return null;
+    // 검색 조건 값 > 조합 (FIND_ALL / FIND_ORDER_LIST 의 index)
+    private static int shape(Map<ParamExpression<?>, Object> params) {
+        int shape = params.containsKey(STATUS) ? STATUS_EQ : 0;
+        if (params.containsKey(MEMBER_IDS)) {
+            shape |= MEMBER_ID_IN;
+        } else if (params.containsKey(MEMBER_NAME)) {
+            shape |= MEMBER_NAME_LIKE;
         }
-        return QOrder.order.status.eq(statusCond);
+        return shape;
+    }
+
+    // 조합 > where 조건 (값은 Param 으로 남겨둠, null 은 QueryDSL where 에서 무시)
+    private static Predicate[] searchConditions(int shape) {
+        Predicate status = (shape & STATUS_EQ) != 0 ? QOrder.order.status.eq(STATUS) : null;
+
+        Predicate memberCond = null;
+        if ((shape & MEMBER_ID_IN) != 0) {
+            memberCond = Expressions.booleanTemplate("{0} in {1}", QOrder.order.member.id, MEMBER_IDS);
+        } else if ((shape & MEMBER_NAME_LIKE) != 0) {
+            memberCond = QMember.member.name.like(MEMBER_NAME, LikePatterns.ESCAPE);
+        }
+
+        return new Predicate[]{status, memberCond};
     }
 
     /**
@@ -91,11 +286,8 @@ public class OrderRepository {
      *
      */
     public List<Order> findAllWithMemberDelivery() {
-        return em.createQuery(
-                "select o from Order o" +
-                        " join fetch o.member m" +
-                        " join fetch o.delivery d", Order.class
-        ).getResultList();
+        return em.createNamedQuery("Order.findAllWithMemberDelivery", Order.class)
+                .getResultList();
     }
 
     /**
@@ -122,27 +314,54 @@ public class OrderRepository {
     */
 
     public List<Order> findAllWithItem() {
-        return em.createQuery(
-                // Order 가 Inner Join 으로 2개가 아닌 4개가 나오게 되는데, distinct 를 통해 Order 데이터를 중복 제거 가능
-                // DB Query 에서는 Distinct 를 날리지만 중복 제거가 되지 않는데, JPA 에서 Entity 중복 제거
-
-                // * 1:N 컬렉션 fetch join 에서는 페이징 처리 X (Memory 에 올려두고 Sorting 을 하게 되는데, 최악의 경우 OOM 발생)
-                "select distinct o from Order o" +
-                        "  join fetch o.member m" +
-                        "  join fetch o.delivery d" +
-                        "  join fetch o.orderItems oi" +
-                        "  join fetch oi.item i", Order.class)
+        // Order 가 Inner Join 으로 2개가 아닌 4개가 나오게 되는데, distinct 를 통해 Order 데이터를 중복 제거 가능
+        // DB Query 에서는 Distinct 를 날리지만 중복 제거가 되지 않는데, JPA 에서 Entity 중복 제거
+
+        // * 1:N 컬렉션 fetch join 에서는 페이징 처리 X (Memory 에 올려두고 Sorting 을 하게 되는데, 최악의 경우 OOM 발생)
+        return em.createNamedQuery("Order.findAllWithItem", Order.class)
                 .getResultList();
     }
 
     public List<Order> findAllWithMemberDelivery(int offset, int limit) {
-        return em.createQuery(
-                // Order -> Member / Delivery 는 ManyToOne 관계이기 때문에 페이징 가능
-                "select o from Order o" +
-                        " join fetch o.member m" +
-                        " join fetch o.delivery d", Order.class)
+        // Order -> Member / Delivery 는 ManyToOne 관계이기 때문에 페이징 가능
+        return em.createNamedQuery("Order.findAllWithMemberDelivery", Order.class)
                 .setFirstResult(offset)
                 .setMaxResults(limit)
                 .getResultList();
     }
+
+    /**
+     * Keyset (seek) 페이징
+     *
+     * offset 방식은 DB 가 offset 만큼의 row 를 모두 읽고 버리기 때문에 뒤 페이지로 갈수록 느려짐
+     *  => 마지막으로 조회한 order_id 이후부터 PK 인덱스를 통해 바로 seek 하므로 페이지 깊이와 상관없이 일정한 성능
+     *  => orderItems 는 fetch join 하지 않고 default_batch_fetch_size 를 통해 IN 쿼리로 조회 (V3.1 과 동일)
+     */
+    public List<Order> findAllWithMemberDeliveryAfter(Long orderId, int limit) {
+        return em.createNamedQuery("Order.findAllWithMemberDeliveryAfter", Order.class)
+                .setParameter("orderId", orderId == null ? 0L : orderId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Keyset (seek) 페이징 - 최근 주문순 (orderDate desc, order_id desc)
+     *
+     * orderDate 는 중복될 수 있으므로 order_id 를 함께 비교하여 row 가 누락 / 중복되지 않도록 처리
+     *  => (order_date, order_id) 복합 인덱스가 있어야 seek 가능 (idx_orders_order_date_id)
+     *  => OR 조건만 있으면 인덱스 범위를 정할 수 없으므로 orderDate <= :orderDate 를 앞에 두어 인덱스 범위 조회
+     */
+    public List<Order> findAllWithMemberDeliveryBefore(LocalDateTime orderDate, Long orderId, int limit) {
+        if (orderDate == null) { // 첫 페이지
+            return em.createNamedQuery("Order.findRecentWithMemberDelivery", Order.class)
+                    .setMaxResults(limit)
+                    .getResultList();
+        }
+
+        return em.createNamedQuery("Order.findRecentWithMemberDeliveryBefore", Order.class)
+                .setParameter("orderDate", orderDate)
+                .setParameter("orderId", orderId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
 }
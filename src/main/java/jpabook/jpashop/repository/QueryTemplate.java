@@ -0,0 +1,88 @@
+package jpabook.jpashop.repository;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.jpa.HQLTemplates;
+import com.querydsl.jpa.JPQLQuery;
+import com.querydsl.jpa.JPQLSerializer;
+import com.querydsl.jpa.impl.JPAUtil;
+import lombok.Getter;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JPQL 로 미리 변환해 둔 QueryDSL 쿼리
+ *
+ * JPAQueryFactory 로 호출마다 쿼리를 만들면 QueryDSL 표현식을 매번 JPQL 문자열로 다시 직렬화
+ *  => 검색 조건 조합별로 한번만 JPQLSerializer 로 변환하고, 조건 값은 Param 으로 남겨두었다가 실행 시점에 바인딩
+ *  => 같은 조합은 항상 같은 JPQL 문자열이므로 Hibernate QueryPlanCache 를 재사용 (JPQL 파싱 X)
+ *  => limit 은 JPQL 에 포함되지 않으므로 실행할 때마다 지정
+ *  => IN 절 컬렉션 Param 은 Hibernate 가 값 개수만큼 펼친 JPQL 로 계획을 만들므로 in_clause_parameter_padding 으로 종류를 제한
+ *
+ * 기동 시점에 validate 로 미리 파싱하면 잘못된 쿼리는 첫 요청이 아닌 기동 시점에 실패
+ */
+public final class QueryTemplate<T> {
+
+    @Getter
+    private final String jpql;
+    private final Map<Object, String> constants;  // 상수 / Param > JPQL 파라미터 라벨
+    private final FactoryExpression<T> projection; // Projections.constructor / Tuple 등 (엔티티 조회면 null)
+
+    private QueryTemplate(String jpql, Map<Object, String> constants, FactoryExpression<T> projection) {
+        this.jpql = jpql;
+        this.constants = constants;
+        this.projection = projection;
+    }
+
+    // EntityManager 없이 만든 QueryDSL 쿼리 (new JPAQuery<>()) > JPQL
+    @SuppressWarnings("unchecked")
+    public static <T> QueryTemplate<T> of(JPQLQuery<T> query) {
+        JPQLSerializer serializer = new JPQLSerializer(HQLTemplates.DEFAULT);
+        serializer.serialize(query.getMetadata(), false, null);
+
+        Expression<?> select = query.getMetadata().getProjection();
+        FactoryExpression<T> projection = select instanceof FactoryExpression ? (FactoryExpression<T>) select : null;
+
+        return new QueryTemplate<>(serializer.toString(), Collections.unmodifiableMap(new HashMap<>(serializer.getConstantToLabel())), projection);
+    }
+
+    // 기동 시점 검증 > Hibernate 가 JPQL 을 파싱하여 QueryPlanCache 에 적재 (잘못된 JPQL 이면 IllegalArgumentException)
+    public static void validate(EntityManagerFactory emf, Collection<? extends QueryTemplate<?>> templates) {
+        EntityManager em = emf.createEntityManager();
+        try {
+            templates.forEach(template -> em.createQuery(template.jpql));
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * @param params 쿼리에 사용한 Param 의 값 (값이 없는 Param 이 있으면 ParamNotSetException)
+     */
+    @SuppressWarnings("unchecked")
+    public List<T> fetch(EntityManager em, Map<ParamExpression<?>, Object> params, int limit) {
+        Query query = em.createQuery(jpql).setMaxResults(limit);
+        JPAUtil.setConstants(query, constants, params);
+        List<?> rows = query.getResultList();
+
+        if (projection == null) {
+            return (List<T>) rows;
+        }
+
+        // JPAQuery 와 동일하게 row (컬럼이 1개면 Object[] 가 아닌 값 자체) 를 projection 으로 변환
+        List<T> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            result.add(projection.newInstance(row instanceof Object[] ? (Object[]) row : new Object[]{row}));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,62 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.exception.InvalidRequestParameterException;
+import org.springframework.util.StringUtils;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 주문 조회 API (V8) 에서 선택할 수 있는 필드 (fields=orderId,orderStatus,...)
+ *
+ * 이름은 OrderQueryDto 의 JSON 필드명과 동일
+ *  => NAME 은 member, ADDRESS 는 delivery join 이 필요하고, ORDER_ITEMS 는 주문 상품을 별도 IN 쿼리로 조회
+ *  => ORDER_ID 는 Keyset 페이징 키이므로 요청하지 않아도 항상 포함
+ */
+public enum OrderField {
+
+    ORDER_ID("orderId"),
+    NAME("name"),
+    ORDER_DATE("orderDate"),
+    ORDER_STATUS("orderStatus"),
+    ADDRESS("address"),
+    ORDER_ITEMS("orderItems");
+
+    private final String jsonName;
+
+    OrderField(String jsonName) {
+        this.jsonName = jsonName;
+    }
+
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    /**
+     * @param fields 콤마로 구분한 필드 이름 (null / 빈 문자열이면 전체 필드)
+     */
+    public static Set<OrderField> parse(String fields) {
+        if (!StringUtils.hasText(fields)) {
+            return EnumSet.allOf(OrderField.class);
+        }
+
+        EnumSet<OrderField> result = EnumSet.of(ORDER_ID);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            result.add(of(trimmed));
+        }
+        return result;
+    }
+
+    private static OrderField of(String jsonName) {
+        for (OrderField field : values()) {
+            if (field.jsonName.equals(jsonName)) {
+                return field;
+            }
+        }
+        throw new InvalidRequestParameterException("지원하지 않는 필드입니다. field = " + jsonName);
+    }
+}
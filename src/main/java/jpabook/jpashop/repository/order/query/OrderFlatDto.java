@@ -1,5 +1,7 @@
 package jpabook.jpashop.repository.order.query;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.OrderStatus;
 import lombok.Data;
@@ -9,6 +11,7 @@ import java.time.LocalDateTime;
 @Data
 public class OrderFlatDto {
 
+    @JsonSerialize(using = ToStringSerializer.class) // Snowflake id > 문자열로 응답 (SnowflakeIdGenerator 참고)
     private Long orderId;
     private String name;
     private LocalDateTime orderDate;
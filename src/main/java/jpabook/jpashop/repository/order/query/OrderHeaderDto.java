@@ -0,0 +1,25 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// 주문 테이블만 조회 (회원 / 배송은 id 로 별도 조회 후 조립)
+@Data
+public class OrderHeaderDto {
+
+    private Long orderId;
+    private Long memberId;
+    private Long deliveryId;
+    private LocalDateTime orderDate;
+    private OrderStatus orderStatus;
+
+    public OrderHeaderDto(Long orderId, Long memberId, Long deliveryId, LocalDateTime orderDate, OrderStatus orderStatus) {
+        this.orderId = orderId;
+        this.memberId = memberId;
+        this.deliveryId = deliveryId;
+        this.orderDate = orderDate;
+        this.orderStatus = orderStatus;
+    }
+}
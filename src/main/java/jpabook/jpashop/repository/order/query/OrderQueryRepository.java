@@ -1,18 +1,68 @@
 package jpabook.jpashop.repository.order.query;
 
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ParamExpression;
+import com.querydsl.core.types.dsl.Param;
+import com.querydsl.jpa.impl.JPAQuery;
+import jpabook.jpashop.concurrent.QueryAssembler;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.QDelivery;
+import jpabook.jpashop.domain.QMember;
+import jpabook.jpashop.domain.QOrder;
+import jpabook.jpashop.repository.ChunkedInLoader;
+import jpabook.jpashop.repository.QueryTemplate;
+import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Repository
 @RequiredArgsConstructor
 public class OrderQueryRepository {
 
+    private static final Param<Long> AFTER_ORDER_ID = new Param<>(Long.class, "afterOrderId"); // sparse fieldset 조회 keyset 파라미터
+
     private final EntityManager em;
+    private final ChunkedInLoader chunkedInLoader;
+    private final QueryAssembler queryAssembler;
+
+    private final Map<Set<OrderField>, Shape> shapes = new ConcurrentHashMap<>(); // 필드 조합 (최대 2^4 개) 별 JPQL
+
+    // 필드 조합 전체를 기동 시점에 미리 JPQL 로 변환 / 검증 (첫 요청에서 직렬화 / 파싱 X)
+    @PostConstruct
+    void compileShapes() {
+        List<OrderField> optional = new ArrayList<>(EnumSet.complementOf(EnumSet.of(OrderField.ORDER_ID, OrderField.ORDER_ITEMS)));
+        for (int mask = 0; mask < 1 << optional.size(); mask++) {
+            EnumSet<OrderField> columns = EnumSet.of(OrderField.ORDER_ID);
+            for (int i = 0; i < optional.size(); i++) {
+                if ((mask & 1 << i) != 0) {
+                    columns.add(optional.get(i));
+                }
+            }
+            shapes.put(columns, compile(columns));
+        }
+
+        QueryTemplate.validate(em.getEntityManagerFactory(),
+                shapes.values().stream().map(shape -> shape.template).collect(Collectors.toList()));
+    }
 
     public List<OrderQueryDto> findOrderQueryDtos() {
         List<OrderQueryDto> result = findOrders(); // Query 1개 -> N개
@@ -27,11 +77,7 @@ public class OrderQueryRepository {
 
     // ManyToOne > row 수가 증가하지 않기 때문에 한번에 쿼리 (OrderItem, Item)
     private List<orderItemQueryDto> findOrderItems(Long orderId) {
-        return em.createQuery(
-                "select new jpabook.jpashop.repository.order.query.orderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
-                        "  from OrderItem oi" +
-                        "  join oi.item i" +
-                        " where oi.order.id = :orderId", orderItemQueryDto.class)
+        return em.createNamedQuery("OrderQuery.findOrderItems", orderItemQueryDto.class)
                 .setParameter("orderId", orderId)
                 .getResultList();
     }
@@ -40,11 +86,7 @@ public class OrderQueryRepository {
     // ManyToOne > row 수가 증가하지 않기 때문에 한번에 쿼리 (Member, Delivery)
     // OneToMany > row 수가 증가되므로 별도 메소드를 통해 데이터 셋팅 (OrderItem)
     private List<OrderQueryDto> findOrders() {
-        return em.createQuery(
-                "select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
-                        "  from Order o" +
-                        "  join o.member m" +
-                        "  join o.delivery d", OrderQueryDto.class)
+        return em.createNamedQuery("OrderQuery.findOrders", OrderQueryDto.class)
                 .getResultList();
     }
 
@@ -59,19 +101,177 @@ public class OrderQueryRepository {
         return result;
     }
 
-    private Map<Long, List<orderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
-        // IN 절을 통해서 DB 1번 Call (orderIds)
-        List<orderItemQueryDto> orderItems = em.createQuery(
-                "select new jpabook.jpashop.repository.order.query.orderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.count)" +
-                        "  from OrderItem oi" +
-                        "  join oi.item i" +
-                        " where oi.order.id in :orderIds", orderItemQueryDto.class)
-                .setParameter("orderIds", orderIds)
+    /**
+     * V5 의 병렬 조립 버전
+     *
+     * 주문 테이블만 먼저 조회한 후, 주문 상품 / 회원 이름 / 배송 주소를 QueryAssembler 로 동시에 조회하여 OrderQueryDto 로 조립
+     *  => 하위 쿼리는 서로 다른 readOnly 커넥션에서 실행되므로 응답 시간은 가장 느린 하위 쿼리 기준
+     *  => deadline (jpashop.query.assembly-timeout) 을 넘기면 나머지 하위 쿼리를 취소하고 예외
+     *  => 하위 쿼리는 이미 작업 스레드에서 실행되므로 IN 절 chunk 는 순차 조회 (ChunkedInLoader.loadSequentially)
+     */
+    public List<OrderQueryDto> findAllByDto_parallel() {
+        List<OrderHeaderDto> headers = findOrderHeaders();
+        if (headers.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Set<Long> orderIds = new LinkedHashSet<>();
+        Set<Long> memberIds = new LinkedHashSet<>();
+        Set<Long> deliveryIds = new LinkedHashSet<>();
+        headers.forEach(header -> {
+            orderIds.add(header.getOrderId());
+            memberIds.add(header.getMemberId());
+            deliveryIds.add(header.getDeliveryId());
+        });
+
+        QueryAssembler.Scope scope = queryAssembler.open();
+        QueryAssembler.Part<Map<Long, List<orderItemQueryDto>>> orderItems = scope.fork(() ->
+                chunkedInLoader.loadSequentially(orderIds, this::findOrderItemsIn).stream()
+                        .collect(Collectors.groupingBy(orderItemQueryDto::getOrderId)));
+        QueryAssembler.Part<Map<Long, String>> memberNames = scope.fork(() ->
+                toMap(chunkedInLoader.loadSequentially(memberIds, this::findMemberNamesIn)));
+        QueryAssembler.Part<Map<Long, Address>> addresses = scope.fork(() ->
+                toMap(chunkedInLoader.loadSequentially(deliveryIds, this::findAddressesIn)));
+        scope.join();
+
+        return headers.stream()
+                .map(header -> {
+                    OrderQueryDto order = new OrderQueryDto(header.getOrderId(), memberNames.get().get(header.getMemberId()),
+                            header.getOrderDate(), header.getOrderStatus(), addresses.get().get(header.getDeliveryId()));
+                    order.setOrderItems(orderItems.get().getOrDefault(header.getOrderId(), new ArrayList<>()));
+                    return order;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private List<OrderHeaderDto> findOrderHeaders() {
+        return em.createNamedQuery("OrderQuery.findOrderHeaders", OrderHeaderDto.class)
                 .getResultList();
+    }
 
+    private List<Object[]> findMemberNamesIn(List<Long> memberIds) {
+        return em.createNamedQuery("OrderQuery.findMemberNamesIn", Object[].class)
+                .setParameter("memberIds", memberIds)
+                .getResultList();
+    }
+
+    private List<Object[]> findAddressesIn(List<Long> deliveryIds) {
+        return em.createNamedQuery("OrderQuery.findAddressesIn", Object[].class)
+                .setParameter("deliveryIds", deliveryIds)
+                .getResultList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> Map<Long, V> toMap(List<Object[]> rows) {
+        Map<Long, V> map = new HashMap<>();
+        rows.forEach(row -> map.put((Long) row[0], (V) row[1]));
+        return map;
+    }
+
+    /**
+     * 요청한 필드만 조회 (sparse fieldset) - Keyset 페이징 (order_id 순)
+     *
+     * 필드 조합마다 필요한 컬럼 / join 만으로 QueryDSL projection 을 만들고, JPQL 로 변환한 결과 (Shape) 를 필드 조합별로 캐시
+     *  => name 을 요청하지 않으면 member, address 를 요청하지 않으면 delivery 를 join 하지 않음
+     *  => join 은 left join > 요청한 필드와 상관없이 같은 주문 (row 수) 을 조회 (회원 / 배송이 없으면 null)
+     *  => orderItems 는 요청한 경우에만 V5 와 같이 IN 쿼리로 한번 더 조회 (row 수 증가 X)
+     *  => 같은 필드 조합은 항상 같은 JPQL 문자열이므로 Hibernate QueryPlanCache 도 재사용
+     *
+     * @return 주문마다 요청한 필드 이름 (OrderField.jsonName) -> 값
+     */
+    public List<Map<String, Object>> findAllByFields(Set<OrderField> fields, Long orderId, int limit) {
+        EnumSet<OrderField> columns = EnumSet.of(OrderField.ORDER_ID);
+        columns.addAll(fields);
+        columns.remove(OrderField.ORDER_ITEMS);
+
+        Shape shape = shapes.computeIfAbsent(columns, this::compile);
+
+        List<Tuple> rows = shape.template.fetch(em,
+                Collections.<ParamExpression<?>, Object>singletonMap(AFTER_ORDER_ID, orderId == null ? 0L : orderId), limit);
+
+        List<Map<String, Object>> result = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Object[] values = row.toArray();
+            Map<String, Object> order = new LinkedHashMap<>();
+            for (int i = 0; i < values.length; i++) {
+                order.put(shape.columns.get(i).getJsonName(), values[i]);
+            }
+            result.add(order);
+        }
+
+        if (fields.contains(OrderField.ORDER_ITEMS) && !result.isEmpty()) {
+            List<Long> orderIds = result.stream()
+                    .map(order -> (Long) order.get(OrderField.ORDER_ID.getJsonName()))
+                    .collect(Collectors.toList());
+            Map<Long, List<orderItemQueryDto>> orderItemMap = findOrderItemMap(orderIds);
+            result.forEach(order -> order.put(OrderField.ORDER_ITEMS.getJsonName(),
+                    orderItemMap.getOrDefault((Long) order.get(OrderField.ORDER_ID.getJsonName()), new ArrayList<>())));
+        }
+
+        return result;
+    }
+
+    // 필드 조합 > JPQL (EntityManager 없이 QueryDSL 로 만들고 QueryTemplate 으로 변환)
+    private Shape compile(Set<OrderField> fields) {
+        QOrder order = QOrder.order;
+        QMember member = QMember.member;
+        QDelivery delivery = QDelivery.delivery;
+
+        List<OrderField> columns = new ArrayList<>();
+        List<Expression<?>> select = new ArrayList<>();
+        columns.add(OrderField.ORDER_ID);
+        select.add(order.id);
+
+        JPAQuery<?> query = new JPAQuery<>().from(order);
+        if (fields.contains(OrderField.NAME)) {
+            query.leftJoin(order.member, member);
+            columns.add(OrderField.NAME);
+            select.add(member.name);
+        }
+        if (fields.contains(OrderField.ADDRESS)) {
+            query.leftJoin(order.delivery, delivery);
+            columns.add(OrderField.ADDRESS);
+            select.add(delivery.address);
+        }
+        if (fields.contains(OrderField.ORDER_DATE)) {
+            columns.add(OrderField.ORDER_DATE);
+            select.add(order.orderDate);
+        }
+        if (fields.contains(OrderField.ORDER_STATUS)) {
+            columns.add(OrderField.ORDER_STATUS);
+            select.add(order.status);
+        }
+
+        QueryTemplate<Tuple> template = QueryTemplate.of(query.select(select.toArray(new Expression<?>[0]))
+                .where(order.id.gt(AFTER_ORDER_ID))
+                .orderBy(order.id.asc()));
+
+        return new Shape(template, Collections.unmodifiableList(columns));
+    }
+
+    // 필드 조합의 JPQL (테스트 확인용)
+    String jpql(Set<OrderField> columns) {
+        return shapes.get(columns).template.getJpql();
+    }
+
+    // 필드 조합별 QueryTemplate + select 컬럼 순서
+    @AllArgsConstructor
+    private static class Shape {
+        private final QueryTemplate<Tuple> template;
+        private final List<OrderField> columns;
+    }
+
+    private Map<Long, List<orderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
+        // IN 절을 통해서 DB Call (orderIds)
+        // 주문 수가 많아지면 IN 절이 너무 길어지므로 ChunkedInLoader 를 통해 2의 거듭제곱 크기 chunk 로 나누어 조회
         // key : OrderId , value : List<DTO>
-        return orderItems.stream()
-                .collect(Collectors.groupingBy(orderItemQueryDto -> orderItemQueryDto.getOrderId()));
+        return chunkedInLoader.loadGrouped(orderIds, this::findOrderItemsIn, orderItemQueryDto -> orderItemQueryDto.getOrderId());
+    }
+
+    private List<orderItemQueryDto> findOrderItemsIn(List<Long> orderIds) {
+        return em.createNamedQuery("OrderQuery.findOrderItemsIn", orderItemQueryDto.class)
+                .setParameter("orderIds", orderIds)
+                .getResultList();
     }
 
     private List<Long> toOrderId(List<OrderQueryDto> result) {
@@ -81,14 +281,47 @@ public class OrderQueryRepository {
     }
 
     public List<OrderFlatDto> findAllByDto_flat() {
-        return em.createQuery(
-                "select new " +
-                        "  jpabook.jpashop.repository.order.query.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count)" +
-                        "  from Order o" +
-                        "  join o.member m" +
-                        "  join o.delivery d" +
-                        "  join o.orderItems oi" +
-                        "  join oi.item i", OrderFlatDto.class)
+        return em.createNamedQuery("OrderQuery.findFlat", OrderFlatDto.class)
                 .getResultList();
     }
+
+    /**
+     * 전체 주문 Export 용 스트리밍 조회
+     *
+     * findAllByDto_flat() 은 전체 결과를 List 로 메모리에 올리기 때문에 주문 테이블 크기에 비례하여 Heap 사용 (OOM)
+     *  => getResultStream() 은 Hibernate 내부적으로 ScrollableResults (FORWARD_ONLY) 를 통해 fetchSize 만큼씩 DB 에서 읽어옴
+     *  => order_id 순으로 정렬하여 같은 주문의 row 가 연속으로 나오므로 OrderFlatDto -> OrderQueryDto 로 바로 묶어서 consumer 에 전달
+     *  => 엔티티가 아닌 DTO projection 이므로 영속성 컨텍스트에 쌓이는 엔티티가 없음 (em.clear 불필요, 호출한 쪽의 엔티티도 detach 하지 않음)
+     *
+     * * 스트림이 열려있는 동안 커넥션을 사용하므로 반드시 트랜잭션 안에서 호출해야 함
+     */
+    public void streamAllByDto(int fetchSize, Consumer<OrderQueryDto> consumer) {
+        try (Stream<OrderFlatDto> flats = em.createNamedQuery("OrderQuery.streamFlat", OrderFlatDto.class)
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true)
+                .getResultStream()) {
+
+            OrderQueryDto current = null;
+
+            Iterator<OrderFlatDto> iterator = flats.iterator();
+            while (iterator.hasNext()) {
+                OrderFlatDto flat = iterator.next();
+
+                // 주문이 바뀌는 시점에 이전 주문을 내보냄
+                if (current == null || !current.getOrderId().equals(flat.getOrderId())) {
+                    if (current != null) {
+                        consumer.accept(current);
+                    }
+                    current = new OrderQueryDto(flat.getOrderId(), flat.getName(), flat.getOrderDate(), flat.getOrderStatus(), flat.getAddress());
+                    current.setOrderItems(new ArrayList<>());
+                }
+
+                current.getOrderItems().add(new orderItemQueryDto(flat.getOrderId(), flat.getItemName(), flat.getOrderPrice(), flat.getCount()));
+            }
+
+            if (current != null) {
+                consumer.accept(current);
+            }
+        }
+    }
 }
@@ -0,0 +1,114 @@
+package jpabook.jpashop.repository.order.reactive;
+
+import io.r2dbc.spi.Row;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.order.query.OrderFlatDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.orderItemQueryDto;
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * 반응형 주문 조회 (R2DBC)
+ *
+ * JPA 조회는 결과를 모두 List 로 만들 때까지 요청 스레드와 JDBC 커넥션을 점유
+ *  => R2DBC 는 row 를 받는 대로 Flux 로 내보내고, 구독자가 요청한 만큼만 DB 에서 읽음 (back-pressure)
+ *  => 대기 중에는 스레드를 점유하지 않으므로 동시 요청 수가 많아도 스레드 / 커넥션 수가 늘어나지 않음
+ *
+ * * 엔티티 / 영속성 컨텍스트를 사용하지 않고 SQL 결과를 DTO 로 바로 매핑 (조회 전용 - 쓰기는 JPA OrderService)
+ * * 주문 row 의 컬럼명은 JPA 엔티티 매핑 (SpringPhysicalNamingStrategy) 기준
+ * * replica / shard 라우팅을 사용하지 않음 (spring.r2dbc.url 1개)
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReactiveOrderQueryRepository {
+
+    private final DatabaseClient databaseClient;
+
+    // 간단 주문 V4 와 같은 결과 (orders + member + delivery)
+    public Flux<OrderSimpleQueryDto> findOrderDtos() {
+        return databaseClient.sql(
+                "select o.order_id, m.name, o.order_date, o.status, d.city, d.street, d.zipcode" +
+                        "  from orders o" +
+                        "  join member m on m.member_id = o.member_id" +
+                        "  join delivery d on d.delivery_id = o.delivery_id" +
+                        " order by o.order_id")
+                .map((row, metadata) -> new OrderSimpleQueryDto(
+                        row.get("order_id", Long.class),
+                        row.get("name", String.class),
+                        row.get("order_date", LocalDateTime.class),
+                        status(row),
+                        address(row)))
+                .all();
+    }
+
+    /**
+     * V5 와 같은 결과 (주문 + 주문 상품 목록)
+     *
+     * 주문 상품까지 flat 하게 조인하여 order_id 순으로 읽고, order_id 가 바뀔 때마다 OrderQueryDto 하나로 묶어서 내보냄
+     *  => 주문 1건 단위로 메모리에 올리므로 전체 주문 수와 상관없이 메모리 사용량 일정 (OrderQueryRepository.streamAllByDto 와 동일)
+     *  => 주문 상품이 없는 주문도 V5 와 같이 빈 목록으로 내보내도록 order_item / item 은 left join (order_item_id 가 null 인 row 는 주문 상품 X)
+     */
+    public Flux<OrderQueryDto> findOrderQueryDtos() {
+        return databaseClient.sql(
+                "select o.order_id, m.name, o.order_date, o.status, d.city, d.street, d.zipcode," +
+                        "       oi.order_item_id, i.name as item_name, oi.order_price, oi.count" +
+                        "  from orders o" +
+                        "  join member m on m.member_id = o.member_id" +
+                        "  join delivery d on d.delivery_id = o.delivery_id" +
+                        "  left join order_item oi on oi.order_id = o.order_id" +
+                        "  left join item i on i.item_id = oi.item_id" +
+                        " order by o.order_id")
+                .map((row, metadata) -> row.get("order_item_id", Long.class) == null
+                        ? Tuples.of(flat(row, null, 0, 0), false)
+                        : Tuples.of(flat(row, row.get("item_name", String.class), row.get("order_price", Integer.class), row.get("count", Integer.class)), true))
+                .all()
+                .bufferUntilChanged(flat -> flat.getT1().getOrderId())
+                .map(this::toOrderQueryDto);
+    }
+
+    private OrderFlatDto flat(Row row, String itemName, int orderPrice, int count) {
+        return new OrderFlatDto(
+                row.get("order_id", Long.class),
+                row.get("name", String.class),
+                row.get("order_date", LocalDateTime.class),
+                status(row),
+                address(row),
+                itemName,
+                orderPrice,
+                count);
+    }
+
+    // T2 : 주문 상품 row 여부 (left join 으로 주문 상품 없이 주문만 있는 row 는 false)
+    private OrderQueryDto toOrderQueryDto(List<Tuple2<OrderFlatDto, Boolean>> flats) {
+        OrderFlatDto first = flats.get(0).getT1();
+
+        OrderQueryDto order = new OrderQueryDto(first.getOrderId(), first.getName(), first.getOrderDate(), first.getOrderStatus(), first.getAddress());
+        order.setOrderItems(flats.stream()
+                .filter(Tuple2::getT2)
+                .map(Tuple2::getT1)
+                .map(flat -> new orderItemQueryDto(flat.getOrderId(), flat.getItemName(), flat.getOrderPrice(), flat.getCount()))
+                .collect(toList()));
+        return order;
+    }
+
+    private OrderStatus status(Row row) {
+        String status = row.get("status", String.class);
+        return status == null ? null : OrderStatus.valueOf(status);
+    }
+
+    private Address address(Row row) {
+        return new Address(row.get("city", String.class), row.get("street", String.class), row.get("zipcode", String.class));
+    }
+}
@@ -13,13 +13,9 @@ public class OrderSimpleQueryRepository {
     private final EntityManager em;
 
     public List<OrderSimpleQueryDto> findOrderDtos() {
-        return em.createQuery(
-                // OrderSimpleQueryDto Construct 에 조회 및 Response DTO 로 사용할 데이터 매핑
-                "select new jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto(o.id, m.name, o.orderDate, o.status, d.address)" +
-                        " from Order o" +
-                        " join o.member m" +
-                        " join o.delivery d", OrderSimpleQueryDto.class
-        ).getResultList();
+        // OrderSimpleQueryDto Construct 에 조회 및 Response DTO 로 사용할 데이터 매핑 (META-INF/orm.xml)
+        return em.createNamedQuery("OrderSimpleQuery.findOrderDtos", OrderSimpleQueryDto.class)
+                .getResultList();
     }
 
 }
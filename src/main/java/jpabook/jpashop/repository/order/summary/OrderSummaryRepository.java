@@ -0,0 +1,75 @@
+package jpabook.jpashop.repository.order.summary;
+
+import jpabook.jpashop.domain.OrderSummary;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class OrderSummaryRepository {
+
+    private final EntityManager em;
+
+    public void save(OrderSummary orderSummary) {
+        em.persist(orderSummary);
+    }
+
+    public OrderSummary findOne(Long orderId) {
+        return em.find(OrderSummary.class, orderId);
+    }
+
+    /**
+     * Keyset (seek) 페이징 - order_id 오름차순
+     *
+     * order_summary 테이블 1개만 PK 인덱스로 조회 (join / 컬렉션 조회 X)
+     */
+    public List<OrderSummaryDto> findAllAfter(Long orderId, int limit) {
+        return em.createNamedQuery("OrderSummary.findAllAfter", OrderSummaryDto.class)
+                .setParameter("orderId", orderId == null ? 0L : orderId)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    // 회원 이름 변경 반영 (벌크 UPDATE > 영속성 컨텍스트의 OrderSummary 는 갱신되지 않음)
+    public int updateMemberName(Long memberId, String memberName) {
+        return em.createNamedQuery("OrderSummary.updateMemberName")
+                .setParameter("memberName", memberName)
+                .setParameter("memberId", memberId)
+                .executeUpdate();
+    }
+
+    public boolean isEmpty() {
+        return em.createNamedQuery("OrderSummary.findAnyOrderId", Long.class)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    /**
+     * 전체 재생성 (초기 적재 / 불일치 복구)
+     *
+     * INSERT ... SELECT 로 DB 안에서 한번에 처리 (주문을 애플리케이션으로 읽어오지 않음)
+     *  => order_summary 만 변경하므로 synchronized entity 를 지정하여 다른 2차 캐시 영역은 무효화하지 않음
+     */
+    public int rebuild() {
+        em.flush();
+        em.createNamedQuery("OrderSummary.deleteAll").executeUpdate();
+
+        return em.createNativeQuery(
+                "insert into order_summary (order_id, member_id, member_name, order_date, status, city, street, zipcode, total_price, item_count)" +
+                        " select o.order_id, m.member_id, m.name, o.order_date, o.status, d.city, d.street, d.zipcode," +
+                        "        coalesce(sum(oi.order_price * oi.count), 0), count(oi.order_item_id)" +
+                        "   from orders o" +
+                        "   join member m on m.member_id = o.member_id" +
+                        "   join delivery d on d.delivery_id = o.delivery_id" +
+                        "   left join order_item oi on oi.order_id = o.order_id" +
+                        "  group by o.order_id, m.member_id, m.name, o.order_date, o.status, d.city, d.street, d.zipcode")
+                .unwrap(NativeQuery.class)
+                .addSynchronizedEntityClass(OrderSummary.class)
+                .executeUpdate();
+    }
+}
@@ -0,0 +1,162 @@
+package jpabook.jpashop.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 메모리 n-gram (bigram) 역색인
+ *
+ * like '%검색어%' 는 B-Tree 인덱스를 사용할 수 없어서 전체 테이블을 읽어야 함
+ *  => 문서 (id + 검색 대상 문자열) 를 2글자 단위 (bigram) 로 잘라서 bigram > id 목록으로 저장
+ *  => 검색어의 bigram 목록이 모두 포함된 id 만 후보로 추린 후 (교집합), 원문에 검색어가 실제로 포함되는지 확인
+ *  => 한글 이름은 보통 2 ~ 3글자이므로 trigram 대신 bigram 사용 / 1글자 검색어는 전체 문서를 확인
+ *
+ * * 대소문자 / 앞뒤 공백 무시 (Locale.ROOT 소문자)
+ * * 하나의 id 에 여러 필드 (ex. 상품명 / 저자 / ISBN) 를 등록하면 필드 중 하나라도 포함되면 검색
+ */
+public class NgramIndex {
+
+    private static final int GRAM = 2;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, List<String>> documents = new HashMap<>();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+
+    // 등록 (이미 등록된 id 는 교체)
+    public void put(Long id, String... fields) {
+        List<String> values = new ArrayList<>();
+        for (String field : fields) {
+            String value = normalize(field);
+            if (!value.isEmpty()) {
+                values.add(value);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            if (values.isEmpty()) {
+                return;
+            }
+            documents.put(id, values);
+            grams(values).forEach(gram -> postings.computeIfAbsent(gram, key -> new HashSet<>()).add(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 검색어가 포함된 id 목록 (id 오름차순, 최대 limit 개)
+     */
+    public List<Long> search(String query, int limit) {
+        String value = normalize(query);
+        if (value.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Long> matches = new ArrayList<>();
+            for (Long id : candidates(value)) {
+                if (documents.get(id).stream().anyMatch(field -> field.contains(value))) {
+                    matches.add(id);
+                }
+            }
+            matches.sort(Comparator.naturalOrder());
+            return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 검색어 bigram 이 모두 포함된 id (posting 이 가장 짧은 bigram 부터 교집합)
+    private Set<Long> candidates(String value) {
+        if (value.length() < GRAM) {
+            return documents.keySet();
+        }
+
+        List<Set<Long>> lists = new ArrayList<>();
+        for (String gram : grams(Collections.singletonList(value))) {
+            Set<Long> posting = postings.get(gram);
+            if (posting == null) {
+                return Collections.emptySet();
+            }
+            lists.add(posting);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    private void removeInternal(Long id) {
+        List<String> previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String gram : grams(previous)) {
+            Set<Long> posting = postings.get(gram);
+            if (posting != null) {
+                posting.remove(id);
+                if (posting.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static Set<String> grams(List<String> values) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String value : values) {
+            for (int i = 0; i + GRAM <= value.length(); i++) {
+                grams.add(value.substring(i, i + GRAM));
+            }
+        }
+        return grams;
+    }
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,160 @@
+package jpabook.jpashop.search;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 회원 이름 / 상품 (이름, 저자, ISBN) 검색 색인 (NgramIndex)
+ *
+ * 기동 시 (ApplicationReadyEvent) 전체 회원 / 상품을 읽어서 색인을 만들고, 이후 변경은 SearchIndexListener (엔티티 리스너) 로 반영
+ *  => 변경은 트랜잭션이 커밋된 후에 반영 (롤백된 변경이 검색되지 않도록)
+ *  => 색인이 만들어지기 전에는 isReady() = false > 호출하는 쪽에서 DB like 검색으로 대체
+ *  => rebuild 는 새 색인을 따로 만든 후 한번에 교체 (만드는 동안에는 기존 색인으로 검색 / 빈 색인이 검색되지 않음)
+ *
+ * * 색인은 서버마다 메모리에 있으므로 다른 서버에서 변경한 내용은 재기동 (rebuild) 전까지 반영되지 않음
+ * * JPQL bulk / native UPDATE 는 엔티티 리스너가 호출되지 않으므로 이름을 변경하는 경우 rebuild 필요
+ */
+@Slf4j
+@Component
+public class SearchIndex {
+
+    private final EntityManager em;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Object rebuildLock = new Object();
+
+    private volatile Indexes indexes = new Indexes();
+    private volatile boolean ready;
+    private List<Consumer<Indexes>> pending; // rebuild 중 커밋된 변경 (새 색인에 다시 반영) - this 로 동기화
+
+    public SearchIndex(EntityManager em, PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.em = em;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        Gauge.builder("jpashop.search.documents", this, searchIndex -> searchIndex.indexes.members.size()).tag("index", "member").register(meterRegistry);
+        Gauge.builder("jpashop.search.documents", this, searchIndex -> searchIndex.indexes.items.size()).tag("index", "item").register(meterRegistry);
+    }
+
+    /**
+     * 새 색인을 만들어서 교체
+     *
+     * 전체 회원 / 상품을 읽는 동안 커밋된 변경은 읽은 결과에 포함되지 않을 수 있으므로 pending 에 모아두었다가
+     * 새 색인에 다시 반영한 후 교체 (put / remove 는 같은 변경을 두번 반영해도 결과가 같음)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                pending = new ArrayList<>();
+            }
+
+            Indexes rebuilt = new Indexes();
+            try {
+                readOnlyTransaction.executeWithoutResult(status -> {
+                    List<Object[]> memberRows = em.createNamedQuery("SearchIndex.findMembers", Object[].class).getResultList();
+                    memberRows.forEach(row -> rebuilt.members.put((Long) row[0], (String) row[1]));
+
+                    List<Object[]> itemRows = em.createNamedQuery("SearchIndex.findItems", Object[].class).getResultList();
+                    itemRows.forEach(row -> rebuilt.items.put((Long) row[0], (String) row[1], (String) row[2], (String) row[3]));
+                });
+            } catch (RuntimeException e) { // 실패하면 기존 색인 유지
+                synchronized (this) {
+                    pending = null;
+                }
+                throw e;
+            }
+
+            synchronized (this) {
+                pending.forEach(change -> change.accept(rebuilt));
+                pending = null;
+                indexes = rebuilt;
+            }
+
+            ready = true;
+            log.info("Search index built. members={}, items={}", rebuilt.members.size(), rebuilt.items.size());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // 이름에 검색어가 포함된 회원 id (id 오름차순, 최대 limit 개)
+    public List<Long> searchMembers(String query, int limit) {
+        return indexes.members.search(query, limit);
+    }
+
+    // 이름 / 저자 / ISBN 에 검색어가 포함된 상품 id (id 오름차순, 최대 limit 개)
+    public List<Long> searchItems(String query, int limit) {
+        return indexes.items.search(query, limit);
+    }
+
+    void index(Object entity) {
+        if (entity instanceof Member) {
+            Member member = (Member) entity;
+            afterCommit(index -> index.members.put(member.getId(), member.getName()));
+        } else if (entity instanceof Book) {
+            Book book = (Book) entity;
+            afterCommit(index -> index.items.put(book.getId(), book.getName(), book.getAuthor(), book.getIsbn()));
+        } else if (entity instanceof Item) {
+            Item item = (Item) entity;
+            afterCommit(index -> index.items.put(item.getId(), item.getName()));
+        }
+    }
+
+    void remove(Object entity) {
+        if (entity instanceof Member) {
+            Long id = ((Member) entity).getId();
+            afterCommit(index -> index.members.remove(id));
+        } else if (entity instanceof Item) {
+            Long id = ((Item) entity).getId();
+            afterCommit(index -> index.items.remove(id));
+        }
+    }
+
+    private void afterCommit(Consumer<Indexes> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(change);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(change);
+            }
+        });
+    }
+
+    // 현재 색인에 반영 (rebuild 중이면 새 색인에도 반영되도록 pending 에 추가)
+    private void apply(Consumer<Indexes> change) {
+        synchronized (this) {
+            if (pending != null) {
+                pending.add(change);
+            }
+        }
+        change.accept(indexes);
+    }
+
+    // 회원 / 상품 색인은 함께 교체
+    private static class Indexes {
+        private final NgramIndex members = new NgramIndex();
+        private final NgramIndex items = new NgramIndex();
+    }
+}
@@ -0,0 +1,33 @@
+package jpabook.jpashop.search;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * 회원 / 상품 변경 시 검색 색인 반영 (@EntityListeners)
+ *
+ * Spring Boot 는 Hibernate 에 SpringBeanContainer 를 등록하므로 엔티티 리스너도 생성자 주입 가능
+ *  => 리스너는 EntityManagerFactory 생성 중에 만들어지므로 SearchIndex (EntityManager 필요) 는 ObjectProvider 로 나중에 조회
+ */
+public class SearchIndexListener {
+
+    private final ObjectProvider<SearchIndex> searchIndex;
+
+    public SearchIndexListener(ObjectProvider<SearchIndex> searchIndex) {
+        this.searchIndex = searchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void index(Object entity) {
+        searchIndex.ifAvailable(index -> index.index(entity));
+    }
+
+    @PostRemove
+    public void remove(Object entity) {
+        searchIndex.ifAvailable(index -> index.remove(entity));
+    }
+}
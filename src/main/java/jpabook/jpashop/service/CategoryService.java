@@ -0,0 +1,82 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.category.CategoryTreeCache;
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.CategoryItemDto;
+import jpabook.jpashop.repository.CategoryRepository;
+import jpabook.jpashop.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class CategoryService {
+
+    private final CategoryRepository categoryRepository;
+    private final ItemRepository itemRepository;
+    private final CategoryTreeCache categoryTreeCache;
+
+    @Transactional
+    public Long create(String name, Long parentId) {
+        Category category = new Category();
+        category.setName(name);
+        if (parentId != null) {
+            findCategory(parentId).addChildCategory(category);
+        }
+
+        categoryRepository.save(category);
+        categoryTreeCache.rebuildAfterCommit();
+
+        return category.getId();
+    }
+
+    // parentId 가 null 이면 루트로 이동 > 동시에 실행되는 이동과 순환이 생기지 않도록 lock 후 검사
+    @Transactional
+    public void move(Long categoryId, Long parentId) {
+        Category category = findCategory(categoryId);
+        categoryRepository.lockForMove(categoryId, parentId);
+        Category parent = null;
+        if (parentId != null) {
+            if (categoryRepository.isInSubtree(categoryId, parentId)) {
+                throw new IllegalArgumentException("자기 자신 또는 하위 카테고리로 이동할 수 없습니다. categoryId = " + categoryId + ", parentId = " + parentId);
+            }
+            parent = findCategory(parentId);
+        }
+
+        categoryRepository.move(category, parent);
+        categoryTreeCache.rebuildAfterCommit();
+    }
+
+    // 이미 속한 상품이면 변경 없음 (같은 요청 재시도 시 PK 위반 X)
+    @Transactional
+    public void addItem(Long categoryId, Long itemId) {
+        Item item = itemRepository.findOne(itemId);
+        if (item == null) {
+            throw new IllegalArgumentException("존재하지 않는 상품입니다. itemId = " + itemId);
+        }
+
+        Category category = findCategory(categoryId);
+        if (categoryRepository.containsItem(categoryId, itemId)) {
+            return;
+        }
+        category.addItem(item);
+    }
+
+    // 하위 카테고리 포함 상품 (itemId 이후부터 limit 개)
+    public List<CategoryItemDto> findItems(Long categoryId, Long itemId, int limit) {
+        return categoryRepository.findItemsInSubtree(categoryId, itemId, limit);
+    }
+
+    private Category findCategory(Long categoryId) {
+        Category category = categoryRepository.findOne(categoryId);
+        if (category == null) {
+            throw new IllegalArgumentException("존재하지 않는 카테고리입니다. categoryId = " + categoryId);
+        }
+        return category;
+    }
+}
@@ -1,8 +1,10 @@
 package jpabook.jpashop.service;
 
+import jpabook.jpashop.aop.OptimisticLockRetry;
 import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.repository.ItemRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,6 +16,7 @@ import java.util.List;
 public class ItemService {
 
     private final ItemRepository itemRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     public void setItem(Item item) {
@@ -23,11 +26,13 @@ public class ItemService {
     // 1. Dirty Checking - 변경 감지에 의한 데이터 변경 방법
     // 2. merge - Dirty Checking 코드를 merge 한줄로 적용 가능하지만, 값이 없는 field 를 null 로 모두 update 하기 때문에 아래 코드와 같이
     //            Dirty Checking 을 통하여 Entity 레벨에서 변경 감지를 사용하는 방법이 더 나은 방법
+    @OptimisticLockRetry
     @Transactional
     public void updateItem(Long itemId, String name, int price, int stockQuantity) {
         // * 준영속 상태 (JPA 를 통해 조회해 온 객체) > 데이터 변경 후 Transactional 에 의하여 commit 시점에 flush 되어서 update
         // * Transaction 안에서 조회 해야 영속 상태로 조회되기 때문에 Dirty Checking (변경 감지) 가능
         Item findItem = itemRepository.findOne(itemId);
+        boolean renamed = !findItem.getName().equals(name);
 
         // TODO : 아래와 같이 Entity 레벨에 별도의 수정 method 를 생성하여 수정이 필요한 필드만 수정 가능하도록 하는 것이 명시적이고 장애 유발 방지를 위해 좋음
         //          - 아래와 같은 setter 를 통한 변경은 Anti Pattern
@@ -36,6 +41,13 @@ public class ItemService {
         findItem.setPrice(price);
         findItem.setName(name);
         findItem.setStockQuantity(stockQuantity);
+
+        // 2차 캐시 > 커밋 이후 해당 상품 캐시 evict (다음 조회 시 DB 에서 최신 값으로 다시 캐시)
+        itemRepository.evict(itemId);
+
+        if (renamed) { // 주문 조회 결과에 포함된 상품 이름 > 커밋 이후 OrderQueryCache 무효화
+            eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceDataChangedEvent.Type.ITEM, itemId));
+        }
     }
 
 
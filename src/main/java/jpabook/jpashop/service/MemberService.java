@@ -1,8 +1,10 @@
 package jpabook.jpashop.service;
 
+import jpabook.jpashop.aop.OptimisticLockRetry;
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.repository.MemberRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -14,6 +16,8 @@ import java.util.List;
 public class MemberService {
 
     private final MemberRepository memberRepository;
+    private final OrderSummaryService orderSummaryService;
+    private final ApplicationEventPublisher eventPublisher;
 
     // 회원 가입
     @Transactional // (readOnly = false) - JPA 에서 데이터 저장, 변경과 같은 작업을 하는 경우 반드시 Transactional 안에서 사용해야 함
@@ -42,11 +46,15 @@ public class MemberService {
         }
     }
 
+    @OptimisticLockRetry
     @Transactional
     public void update(Long id, String name) {
         // 준영속 상태
         Member member = memberRepository.findOne(id); // 변경 감지 > 시작
         member.setName(name);
         // Transaction > commit 순간 flush 를 통해 name 이 update
+
+        orderSummaryService.changeMemberName(id, name); // 주문 요약의 회원 이름도 변경
+        eventPublisher.publishEvent(new ReferenceDataChangedEvent(ReferenceDataChangedEvent.Type.MEMBER, id)); // 커밋 이후 OrderQueryCache 무효화
     }
 }
@@ -0,0 +1,20 @@
+package jpabook.jpashop.service;
+
+import lombok.Getter;
+
+// 주문 생성 / 취소 이벤트 > OrderService 에서 발행 (@TransactionalEventListener 로 커밋 이후 처리)
+@Getter
+public class OrderChangedEvent {
+
+    public enum Type {
+        ORDERED, CANCELED
+    }
+
+    private final Long orderId;
+    private final Type type;
+
+    public OrderChangedEvent(Long orderId, Type type) {
+        this.orderId = orderId;
+        this.type = type;
+    }
+}
@@ -0,0 +1,29 @@
+package jpabook.jpashop.service;
+
+import lombok.Getter;
+
+import java.util.List;
+
+// 대량 주문 요청 (주문 1건 = 회원 1명 + 주문 상품 여러개)
+@Getter
+public class OrderCommand {
+
+    private final Long memberId;
+    private final List<Line> lines;
+
+    public OrderCommand(Long memberId, List<Line> lines) {
+        this.memberId = memberId;
+        this.lines = lines;
+    }
+
+    @Getter
+    public static class Line {
+        private final Long itemId;
+        private final int count;
+
+        public Line(Long itemId, int count) {
+            this.itemId = itemId;
+            this.count = count;
+        }
+    }
+}
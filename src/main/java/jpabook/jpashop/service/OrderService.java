@@ -9,11 +9,22 @@ import jpabook.jpashop.repository.ItemRepository;
 import jpabook.jpashop.repository.MemberRepository;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.aop.OptimisticLockRetry;
+import jpabook.jpashop.sharding.ShardKey;
+import jpabook.jpashop.sharding.ShardRouter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
 
 @Service
 @RequiredArgsConstructor
@@ -23,10 +34,13 @@ public class OrderService {
     private final OrderRepository orderRepository;
     private final MemberRepository memberRepository;
     private final ItemRepository itemRepository;
+    private final StockService stockService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShardRouter shardRouter;
 
-    // 주문
+    // 주문 > 회원의 shard 에 저장 (@ShardKey)
     @Transactional
-    public Long order(Long memberId, Long itemId, int count) {
+    public Long order(@ShardKey Long memberId, Long itemId, int count) {
         // 엔티티 조회
         Member member = memberRepository.findOne(memberId);
         Item item = itemRepository.findOne(itemId);
@@ -35,8 +49,11 @@ public class OrderService {
         Delivery delivery = new Delivery();
         delivery.setAddress(member.getAddress());
 
-        // 주문 상품 생성
-        OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), count);
+        // 재고 차감 (조건부 UPDATE) > 재고가 부족하면 NotEnoughStockException
+        stockService.removeStock(item, count);
+
+        // 주문 상품 생성 (재고는 위에서 이미 차감)
+        OrderItem orderItem = OrderItem.createReservedOrderItem(item, item.getPrice(), count);
 
         // 주문 생성
         Order order = Order.createOrder(member, delivery, orderItem); // delivery 와 orderItem 은 cascade = CascadeType.ALL 옵션을 통해서 Order 를 orderRepository.save 할 때 같이 persist 하여 저장
@@ -44,14 +61,100 @@ public class OrderService {
         // 주문 저장
         orderRepository.save(order);
 
+        eventPublisher.publishEvent(new OrderChangedEvent(order.getId(), OrderChangedEvent.Type.ORDERED));
+
         return order.getId();
     }
 
+    /**
+     * 대량 주문 (여러 주문 / 주문당 여러 상품)
+     *
+     * 주문마다 order() 를 호출하면 회원 / 상품을 건건이 em.find 하고, Order / Delivery / OrderItem 도 한 건씩 INSERT
+     *  => 회원 / 상품은 IN 절로 각각 1번씩 조회
+     *  => 재고는 상품별 주문 수량을 합산하여 상품당 1번만 조건부 UPDATE
+     *      => item_id 순서로 UPDATE 하여 동시에 실행되는 대량 주문끼리 row lock 획득 순서가 엇갈리지 않도록 처리 (deadlock 방지)
+     *  => INSERT 는 hibernate.jdbc.batch_size / order_inserts 설정으로 JDBC batch 처리 (Snowflake id 를 DB 호출 없이 생성하기 때문에 가능)
+     *
+     * * 하나라도 재고가 부족하면 전체 롤백 (NotEnoughStockException)
+     * * shard 를 사용하는 경우 하나의 트랜잭션 (커넥션) 으로 처리하므로 모든 회원이 같은 shard 에 있어야 함
+     */
+    @Transactional
+    public List<Long> orders(@ShardKey List<OrderCommand> commands) {
+        validateSingleShard(commands);
+
+        // 엔티티 조회 (IN 절)
+        Map<Long, Member> members = memberRepository.findAllById(distinct(commands.stream().map(OrderCommand::getMemberId))).stream()
+                .collect(toMap(Member::getId, member -> member));
+        Map<Long, Item> items = itemRepository.findAllById(distinct(commands.stream().flatMap(command -> command.getLines().stream()).map(OrderCommand.Line::getItemId))).stream()
+                .collect(toMap(Item::getId, item -> item));
+
+        // 상품별 주문 수량 합산 (item_id 순서)
+        Map<Long, Integer> quantities = new TreeMap<>();
+        for (OrderCommand command : commands) {
+            if (!members.containsKey(command.getMemberId())) {
+                throw new IllegalArgumentException("존재하지 않는 회원입니다. memberId = " + command.getMemberId());
+            }
+            for (OrderCommand.Line line : command.getLines()) {
+                if (!items.containsKey(line.getItemId())) {
+                    throw new IllegalArgumentException("존재하지 않는 상품입니다. itemId = " + line.getItemId());
+                }
+                quantities.merge(line.getItemId(), line.getCount(), Integer::sum);
+            }
+        }
+
+        // 재고 차감 (조건부 UPDATE) > 위에서 조회한 Item 엔티티의 재고 값은 갱신되지 않지만, 주문 생성에는 가격만 사용하므로 refresh 생략
+        for (Map.Entry<Long, Integer> quantity : quantities.entrySet()) {
+            stockService.removeStock(quantity.getKey(), quantity.getValue());
+        }
+
+        // 주문 생성 / 저장
+        List<Long> orderIds = new ArrayList<>();
+        for (OrderCommand command : commands) {
+            Member member = members.get(command.getMemberId());
+
+            Delivery delivery = new Delivery();
+            delivery.setAddress(member.getAddress());
+
+            OrderItem[] orderItems = command.getLines().stream()
+                    .map(line -> {
+                        Item item = items.get(line.getItemId());
+                        return OrderItem.createReservedOrderItem(item, item.getPrice(), line.getCount());
+                    })
+                    .toArray(OrderItem[]::new);
+
+            Order order = Order.createOrder(member, delivery, orderItems);
+            orderRepository.save(order);
+            orderIds.add(order.getId());
+
+            eventPublisher.publishEvent(new OrderChangedEvent(order.getId(), OrderChangedEvent.Type.ORDERED));
+        }
+
+        return orderIds;
+    }
+
+    private void validateSingleShard(List<OrderCommand> commands) {
+        long shards = commands.stream()
+                .map(command -> shardRouter.shardOfMember(command.getMemberId()))
+                .distinct()
+                .count();
+        if (shards > 1) {
+            throw new IllegalArgumentException("대량 주문의 회원은 모두 같은 shard 에 있어야 합니다.");
+        }
+    }
+
+    private List<Long> distinct(Stream<Long> ids) {
+        return ids.distinct().collect(toList());
+    }
+
     // 취소
+    @OptimisticLockRetry
     @Transactional
-    public void cancelOrder(Long orderId) {
+    public void cancelOrder(@ShardKey(ShardKey.Type.ORDER_ID) Long orderId) {
         Order order = orderRepository.findOne(orderId);
         order.cancel();
+        stockService.restoreStock(order); // 재고 원복 (shard 를 사용하면 원본 shard 의 item)
+
+        eventPublisher.publishEvent(new OrderChangedEvent(orderId, OrderChangedEvent.Type.CANCELED));
     }
 
     // 검색
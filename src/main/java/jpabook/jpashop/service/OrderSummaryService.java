@@ -0,0 +1,81 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderSummary;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.order.summary.OrderSummaryRepository;
+import jpabook.jpashop.sharding.CrossShardExecutor;
+import jpabook.jpashop.sharding.ShardContext;
+import jpabook.jpashop.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 주문 요약 (order_summary) 갱신
+ *
+ * OrderService 가 발행한 OrderChangedEvent 를 커밋 직전 (BEFORE_COMMIT) 에 같은 트랜잭션 안에서 반영
+ *  => 주문과 요약이 항상 함께 커밋 / 롤백되므로 불일치 X
+ *  => 주문 / 주문 상품은 이미 영속성 컨텍스트에 있으므로 추가 조회 없이 총 금액 계산
+ *
+ * * OrderService 를 거치지 않고 저장된 주문 (직접 INSERT, order_summary 이전에 생성된 주문) 은 rebuild() 로 반영
+ * * rebuild 는 전체 삭제 후 재생성이므로 기동 시에는 테이블이 비어 있는 경우 (최초 적재) 에만 실행 (rebuildIfEmpty)
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderSummaryService {
+
+    private final OrderRepository orderRepository;
+    private final OrderSummaryRepository orderSummaryRepository;
+    private final ShardRouter shardRouter;
+    private final CrossShardExecutor crossShardExecutor;
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (event.getType() == OrderChangedEvent.Type.ORDERED) {
+            Order order = orderRepository.findOne(event.getOrderId());
+            orderSummaryRepository.save(OrderSummary.createOrderSummary(order));
+            return;
+        }
+
+        OrderSummary summary = orderSummaryRepository.findOne(event.getOrderId());
+        if (summary == null) { // rebuild 이전에 생성된 주문
+            orderSummaryRepository.save(OrderSummary.createOrderSummary(orderRepository.findOne(event.getOrderId())));
+            return;
+        }
+        summary.changeStatus(orderRepository.findOne(event.getOrderId()).getStatus()); // 변경 감지
+    }
+
+    /**
+     * 회원 이름 변경 반영
+     *
+     * 주문 요약은 회원의 shard 에 있고 회원 (원본) 은 0번 shard 에서 변경되므로
+     *  => 같은 shard 면 MemberService.update 와 같은 트랜잭션
+     *  => 다른 shard 면 회원 변경이 커밋된 후 회원의 shard 에서 별도 트랜잭션
+     */
+    @Transactional
+    public void changeMemberName(Long memberId, String memberName) {
+        int shard = shardRouter.shardOfMember(memberId);
+        if (shard == ShardContext.currentOrDefault()) {
+            orderSummaryRepository.updateMemberName(memberId, memberName);
+            return;
+        }
+        crossShardExecutor.afterCommit(shard, () -> orderSummaryRepository.updateMemberName(memberId, memberName));
+    }
+
+    @Transactional
+    public int rebuild() {
+        return orderSummaryRepository.rebuild();
+    }
+
+    // 최초 적재 > 이미 요약이 있으면 그대로 (재기동마다 전체 재생성 X)
+    @Transactional
+    public int rebuildIfEmpty() {
+        if (!orderSummaryRepository.isEmpty()) {
+            return 0;
+        }
+        return orderSummaryRepository.rebuild();
+    }
+}
@@ -0,0 +1,20 @@
+package jpabook.jpashop.service;
+
+import lombok.Getter;
+
+// 주문 조회 결과에 포함되는 회원 / 상품 정보 변경 이벤트 > MemberService / ItemService 에서 발행 (@TransactionalEventListener 로 커밋 이후 처리)
+@Getter
+public class ReferenceDataChangedEvent {
+
+    public enum Type {
+        MEMBER, ITEM
+    }
+
+    private final Type type;
+    private final Long id;
+
+    public ReferenceDataChangedEvent(Type type, Long id) {
+        this.type = type;
+        this.id = id;
+    }
+}
@@ -0,0 +1,129 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.sharding.CrossShardExecutor;
+import jpabook.jpashop.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeSet;
+
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * 재고 차감 (예약)
+ *
+ * 기존 방식 : Item 조회 -> Item.removeStock() -> 변경 감지로 UPDATE (read-modify-write)
+ *  => 동시 주문 시 같은 재고를 읽은 트랜잭션들이 각자 계산한 값으로 덮어쓰기 때문에 초과 판매 발생 (Lost Update)
+ *  => 비관적 락 (select ... for update) 으로 막으면 조회 시점부터 커밋까지 row lock 을 잡고 있으므로 인기 상품 주문이 직렬화
+ *
+ * 조건부 UPDATE
+ *  => update item set stock_quantity = stock_quantity - ? where item_id = ? and stock_quantity >= ?
+ *  => 재고 확인과 차감을 DB 에서 한번에 처리하므로 애플리케이션에서 읽고 계산하는 구간이 없음 (초과 판매 X)
+ *  => row lock 은 UPDATE 시점부터 커밋까지만 유지
+ *  => 변경된 row 가 없으면 재고 부족 > 기존과 동일하게 NotEnoughStockException
+ *
+ * shard 를 사용하는 경우
+ *  => item 은 모든 shard 에 복제되어 있으므로 회원의 shard 에서 차감하면 shard 마다 재고를 따로 판매 (최대 shard 수 배만큼 초과 판매)
+ *  => 재고는 원본 shard (ShardRouter.REFERENCE_SHARD) 의 item 에서만 차감 / 원복
+ *  => 주문 트랜잭션과 다른 shard 이므로 차감은 별도 트랜잭션으로 먼저 커밋하고, 주문 트랜잭션이 롤백되면 차감한 재고를 원복 (보상)
+ *  => 주문 취소의 재고 원복은 주문 트랜잭션이 커밋된 후 원본 shard 에 반영
+ */
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class StockService {
+
+    private final ItemRepository itemRepository;
+    private final ShardRouter shardRouter;
+    private final CrossShardExecutor crossShardExecutor;
+
+    public void removeStock(Long itemId, int quantity) {
+        if (shardRouter.isOnReferenceShard()) {
+            removeLocalStock(itemId, quantity);
+            return;
+        }
+        crossShardExecutor.execute(ShardRouter.REFERENCE_SHARD, () -> removeLocalStock(itemId, quantity));
+        crossShardExecutor.afterRollback(ShardRouter.REFERENCE_SHARD, () -> itemRepository.addStock(itemId, quantity));
+    }
+
+    // 이미 조회된 (영속 상태) Item 은 bulk UPDATE 결과가 반영되지 않으므로 차감 후 refresh (다른 shard 에서 차감한 경우는 제외)
+    public void removeStock(Item item, int quantity) {
+        boolean local = shardRouter.isOnReferenceShard();
+        removeStock(item.getId(), quantity);
+        if (local) {
+            itemRepository.refresh(item);
+        }
+    }
+
+    /**
+     * 여러 주문의 재고를 순서대로 차감 (주문마다 전부 성공 또는 전부 실패)
+     *
+     * 주문 전체의 상품을 먼저 item_id 순서로 lock (ItemRepository.lockAll) 한 후 차감 > 동시에 실행되는 다른 batch 와 교착 상태 X
+     *
+     * @param orders 주문별 상품 id -> 수량
+     * @return orders 와 같은 순서의 재고 부족 상품 id (성공이면 null) > 실패한 주문에서 이미 차감한 재고는 원복
+     */
+    public List<Long> reserveAll(List<? extends SortedMap<Long, Integer>> orders) {
+        if (shardRouter.isOnReferenceShard()) {
+            return reserveAllLocal(orders);
+        }
+        List<Long> failed = crossShardExecutor.execute(ShardRouter.REFERENCE_SHARD, () -> reserveAllLocal(orders));
+        List<SortedMap<Long, Integer>> reserved = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            if (failed.get(i) == null) {
+                reserved.add(orders.get(i));
+            }
+        }
+        crossShardExecutor.afterRollback(ShardRouter.REFERENCE_SHARD, () -> reserved.forEach(quantities -> quantities.forEach(itemRepository::addStock)));
+        return failed;
+    }
+
+    // 주문 취소 시 재고 원복
+    public void restoreStock(Order order) {
+        if (shardRouter.isOnReferenceShard()) {
+            order.getOrderItems().forEach(OrderItem::cancel); // 영속 상태 Item 의 변경 감지 (낙관적 락)
+            return;
+        }
+        Map<Long, Integer> quantities = order.getOrderItems().stream()
+                .collect(toMap(orderItem -> orderItem.getItem().getId(), OrderItem::getCount, Integer::sum));
+        crossShardExecutor.afterCommit(ShardRouter.REFERENCE_SHARD, () -> quantities.forEach(itemRepository::addStock));
+    }
+
+    private void removeLocalStock(Long itemId, int quantity) {
+        if (itemRepository.removeStock(itemId, quantity) == 0) {
+            throw new NotEnoughStockException("need more stock");
+        }
+    }
+
+    private List<Long> reserveAllLocal(List<? extends SortedMap<Long, Integer>> orders) {
+        TreeSet<Long> itemIds = new TreeSet<>();
+        orders.forEach(quantities -> itemIds.addAll(quantities.keySet()));
+        if (!itemIds.isEmpty()) {
+            itemRepository.lockAll(itemIds);
+        }
+        return orders.stream().map(this::reserveLocal).collect(toList());
+    }
+
+    private Long reserveLocal(SortedMap<Long, Integer> quantities) {
+        List<Map.Entry<Long, Integer>> reserved = new ArrayList<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            if (itemRepository.removeStock(entry.getKey(), entry.getValue()) == 0) {
+                reserved.forEach(done -> itemRepository.addStock(done.getKey(), done.getValue())); // 이번에 차감한 재고만 원복
+                return entry.getKey();
+            }
+            reserved.add(entry);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,142 @@
+package jpabook.jpashop.service.intake;
+
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.service.OrderChangedEvent;
+import jpabook.jpashop.service.OrderCommand;
+import jpabook.jpashop.service.StockService;
+import jpabook.jpashop.sharding.ShardKey;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.summingInt;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * 주문 micro-batch 저장 (트랜잭션 1개 = 커밋 1번)
+ *
+ * OrderService.orders (대량 주문) 와 달리 주문마다 성공 / 실패를 따로 처리
+ *  => 1단계 : batch 전체 상품을 item_id 순서로 lock 한 후 주문 순서대로 재고 차감 (StockService.reserveAll)
+ *      => 주문의 일부 상품이 재고 부족이면 그 주문에서 이미 차감한 재고만 되돌리고 해당 주문만 실패 (다른 주문은 계속 진행)
+ *      => 같은 트랜잭션 안에서 순서대로 차감하므로 앞 주문이 차감한 재고를 기준으로 다음 주문을 판단 (초과 판매 X)
+ *      => lock 순서가 batch 단위로 정렬되므로 동시에 실행되는 다른 batch / 주문 트랜잭션과 교착 상태 X
+ *  => 2단계 : 재고 차감에 성공한 주문만 생성 > 커밋 시 한번에 flush (JDBC batch INSERT)
+ *
+ * * shard 를 사용하는 경우 batch 의 회원은 모두 같은 shard 에 있어야 함 (OrderIntake 에서 shard 별로 나누어 호출)
+ *
+ * @return commands 와 같은 순서의 결과 (orderId 또는 실패 사유)
+ */
+@Component
+@RequiredArgsConstructor
+public class OrderBatchWriter {
+
+    private final OrderRepository orderRepository;
+    private final MemberRepository memberRepository;
+    private final ItemRepository itemRepository;
+    private final StockService stockService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public List<Result> write(@ShardKey List<OrderCommand> commands) {
+        Map<Long, Member> members = memberRepository.findAllById(commands.stream().map(OrderCommand::getMemberId).distinct().collect(toList())).stream()
+                .collect(toMap(Member::getId, member -> member));
+        Map<Long, Item> items = itemRepository.findAllById(commands.stream().flatMap(command -> command.getLines().stream()).map(OrderCommand.Line::getItemId).distinct().collect(toList())).stream()
+                .collect(toMap(Item::getId, item -> item));
+
+        // 1단계 : 재고 차감
+        List<Result> results = new ArrayList<>(commands.size());
+        List<Integer> reserving = new ArrayList<>();
+        List<TreeMap<Long, Integer>> quantities = new ArrayList<>();
+        for (int i = 0; i < commands.size(); i++) {
+            OrderCommand command = commands.get(i);
+            Result invalid = validate(command, members, items);
+            results.add(invalid);
+            if (invalid == null) {
+                reserving.add(i);
+                quantities.add(command.getLines().stream()
+                        .collect(groupingBy(OrderCommand.Line::getItemId, TreeMap::new, summingInt(OrderCommand.Line::getCount))));
+            }
+        }
+
+        List<Long> failed = stockService.reserveAll(quantities);
+        for (int j = 0; j < reserving.size(); j++) {
+            Long itemId = failed.get(j);
+            results.set(reserving.get(j), itemId == null ? Result.success(null) : Result.failure("need more stock. itemId = " + itemId));
+        }
+
+        // 2단계 : 주문 생성
+        for (int i = 0; i < commands.size(); i++) {
+            if (results.get(i).getError() != null) {
+                continue;
+            }
+            OrderCommand command = commands.get(i);
+            Member member = members.get(command.getMemberId());
+
+            Delivery delivery = new Delivery();
+            delivery.setAddress(member.getAddress());
+
+            OrderItem[] orderItems = command.getLines().stream()
+                    .map(line -> {
+                        Item item = items.get(line.getItemId());
+                        return OrderItem.createReservedOrderItem(item, item.getPrice(), line.getCount());
+                    })
+                    .toArray(OrderItem[]::new);
+
+            Order order = Order.createOrder(member, delivery, orderItems);
+            orderRepository.save(order);
+            results.set(i, Result.success(order.getId()));
+
+            eventPublisher.publishEvent(new OrderChangedEvent(order.getId(), OrderChangedEvent.Type.ORDERED));
+        }
+
+        return results;
+    }
+
+    // 존재하지 않는 회원 / 상품이면 실패 결과 (정상이면 null)
+    private Result validate(OrderCommand command, Map<Long, Member> members, Map<Long, Item> items) {
+        if (!members.containsKey(command.getMemberId())) {
+            return Result.failure("존재하지 않는 회원입니다. memberId = " + command.getMemberId());
+        }
+        for (OrderCommand.Line line : command.getLines()) {
+            if (!items.containsKey(line.getItemId())) {
+                return Result.failure("존재하지 않는 상품입니다. itemId = " + line.getItemId());
+            }
+        }
+        return null;
+    }
+
+    @Getter
+    public static class Result {
+        private final Long orderId;
+        private final String error;
+
+        private Result(Long orderId, String error) {
+            this.orderId = orderId;
+            this.error = error;
+        }
+
+        static Result success(Long orderId) {
+            return new Result(orderId, null);
+        }
+
+        static Result failure(String error) {
+            return new Result(null, error);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package jpabook.jpashop.service.intake;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jpabook.jpashop.service.OrderCommand;
+import jpabook.jpashop.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 비동기 주문 접수 (bounded queue + group commit)
+ *
+ * 주문 요청마다 트랜잭션 / 커밋을 하면 커밋 (fsync) 횟수만큼 DB 처리량이 제한됨
+ *  => 요청 스레드는 주문을 큐에 넣고 바로 ticket 을 반환 (POST /api/orders > 202 Accepted)
+ *  => writer 스레드 1개가 큐에서 최대 batchSize 건 또는 maxWait 동안 모인 주문을 꺼내서 트랜잭션 1개로 저장 (OrderBatchWriter)
+ *      => 커밋 1번에 여러 주문을 처리하고, INSERT 는 JDBC batch 로 처리
+ *      => 재고 차감은 writer 스레드에서 순서대로 처리하므로 batch 안에서도 초과 판매 X
+ *  => 큐가 가득 차면 바로 거절 (QueueFullException > 503 + Retry-After) > 요청 스레드가 대기하며 쌓이지 않도록 처리 (backpressure)
+ *  => 클라이언트는 ticket 을 polling / long-polling 하여 결과 확인 (GET /api/orders/tickets/{id})
+ *
+ * * shard 를 사용하는 경우 batch 를 회원의 shard 별로 나누어 각각 트랜잭션 처리
+ * * batch 트랜잭션이 실패 (DB 오류 등) 하면 주문마다 한 건씩 다시 저장 > 실패 원인이 된 주문만 실패 처리
+ * * writer 스레드가 인터럽트되면 꺼냈거나 큐에 남아있는 주문은 모두 실패 처리 (PENDING 으로 남지 않도록)
+ * * 서버가 비정상 종료되면 큐에 남아있는 주문은 유실되므로, 응답을 받기 전까지는 클라이언트가 결과를 확인해야 함
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "jpashop.order-intake.enabled", havingValue = "true")
+public class OrderIntake {
+
+    private final OrderBatchWriter orderBatchWriter;
+    private final ShardRouter shardRouter;
+    private final BlockingQueue<Entry> queue;
+    private final int batchSize;
+    private final long maxWaitNanos;
+    private final Cache<String, OrderTicket> tickets;
+
+    private final Counter accepted;
+    private final Counter rejected;
+    private final Counter batches;
+
+    private volatile boolean running = true;
+    private Thread writer;
+
+    public OrderIntake(OrderBatchWriter orderBatchWriter,
+                       ShardRouter shardRouter,
+                       MeterRegistry meterRegistry,
+                       @Value("${jpashop.order-intake.capacity:10000}") int capacity,
+                       @Value("${jpashop.order-intake.batch-size:500}") int batchSize,
+                       @Value("${jpashop.order-intake.max-wait:5ms}") Duration maxWait,
+                       @Value("${jpashop.order-intake.ticket-ttl:10m}") Duration ticketTtl) {
+        this.orderBatchWriter = orderBatchWriter;
+        this.shardRouter = shardRouter;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.tickets = Caffeine.newBuilder()
+                .expireAfterWrite(ticketTtl)
+                .build();
+
+        this.accepted = Counter.builder("jpashop.order.intake").tag("result", "accepted").register(meterRegistry);
+        this.rejected = Counter.builder("jpashop.order.intake").tag("result", "rejected").register(meterRegistry);
+        this.batches = Counter.builder("jpashop.order.intake.batches").register(meterRegistry);
+        Gauge.builder("jpashop.order.intake.queue", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        writer = new Thread(this::drain, "order-intake-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * 주문 접수 > 큐가 가득 차면 QueueFullException
+     */
+    public OrderTicket submit(OrderCommand command) {
+        if (!running) {
+            throw new QueueFullException("주문 접수가 중지되었습니다.");
+        }
+
+        OrderTicket ticket = new OrderTicket();
+        tickets.put(ticket.getId(), ticket);
+
+        if (!queue.offer(new Entry(command, ticket))) {
+            tickets.invalidate(ticket.getId());
+            rejected.increment();
+            throw new QueueFullException("주문 접수 대기열이 가득 찼습니다.");
+        }
+
+        accepted.increment();
+        return ticket;
+    }
+
+    public Optional<OrderTicket> findTicket(String id) {
+        return Optional.ofNullable(tickets.getIfPresent(id));
+    }
+
+    // writer 스레드 > 첫 주문을 기다린 후 batchSize 가 찰 때까지 최대 maxWait 동안 추가로 모음
+    private void drain() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + maxWaitNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    Entry next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+                queue.drainTo(batch);
+                log.warn("Order intake writer interrupted. failing {} pending orders", batch.size());
+                batch.forEach(entry -> entry.ticket.fail("주문 접수가 중단되었습니다. 다시 시도해주세요."));
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Entry> batch) {
+        Map<Integer, List<Entry>> shards = new LinkedHashMap<>();
+        for (Entry entry : batch) {
+            int shard = shardRouter.isSharded() ? shardRouter.shardOfMember(entry.command.getMemberId()) : 0;
+            shards.computeIfAbsent(shard, key -> new ArrayList<>()).add(entry);
+        }
+
+        for (List<Entry> entries : shards.values()) {
+            batches.increment();
+            if (entries.size() == 1) {
+                writeOne(entries.get(0));
+                continue;
+            }
+            try {
+                writeBatch(entries);
+            } catch (RuntimeException e) {
+                // batch 전체 롤백 (DB 오류 등) > 한 건씩 다시 저장하여 실패 원인이 된 주문만 실패 처리
+                log.warn("Order intake batch failed. retrying one by one. size={}", entries.size(), e);
+                entries.forEach(this::writeOne);
+            }
+        }
+    }
+
+    private void writeBatch(List<Entry> entries) {
+        List<OrderCommand> commands = new ArrayList<>(entries.size());
+        entries.forEach(entry -> commands.add(entry.command));
+
+        List<OrderBatchWriter.Result> results = orderBatchWriter.write(commands);
+        for (int i = 0; i < entries.size(); i++) {
+            OrderBatchWriter.Result result = results.get(i);
+            if (result.getError() == null) {
+                entries.get(i).ticket.complete(result.getOrderId());
+            } else {
+                entries.get(i).ticket.fail(result.getError());
+            }
+        }
+    }
+
+    private void writeOne(Entry entry) {
+        try {
+            writeBatch(Collections.singletonList(entry));
+        } catch (RuntimeException e) {
+            log.warn("Order intake order failed. memberId={}", entry.command.getMemberId(), e);
+            entry.ticket.fail("주문 처리에 실패하였습니다. 다시 시도해주세요.");
+        }
+    }
+
+    // 접수를 중지하고 큐에 남아있는 주문을 모두 처리한 후 종료
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (writer != null) {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    private static class Entry {
+        private final OrderCommand command;
+        private final OrderTicket ticket;
+
+        private Entry(OrderCommand command, OrderTicket ticket) {
+            this.command = command;
+            this.ticket = ticket;
+        }
+    }
+
+    public static class QueueFullException extends RuntimeException {
+        public QueueFullException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package jpabook.jpashop.service.intake;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 비동기 주문 접수 결과 (OrderIntake)
+ *
+ * PENDING > COMPLETED (orderId) / FAILED (error)
+ *  => done : 처리가 끝나면 완료되는 future (long-polling)
+ */
+@Getter
+public class OrderTicket {
+
+    public enum Status {
+        PENDING, COMPLETED, FAILED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final LocalDateTime acceptedAt = LocalDateTime.now();
+    private volatile Status status = Status.PENDING;
+    private volatile Long orderId;
+    private volatile String error;
+
+    private final CompletableFuture<OrderTicket> done = new CompletableFuture<>();
+
+    void complete(Long orderId) {
+        this.orderId = orderId;
+        this.status = Status.COMPLETED;
+        done.complete(this);
+    }
+
+    void fail(String error) {
+        this.error = error;
+        this.status = Status.FAILED;
+        done.complete(this);
+    }
+}
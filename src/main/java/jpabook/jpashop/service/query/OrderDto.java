@@ -1,5 +1,7 @@
 package jpabook.jpashop.service.query;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderStatus;
@@ -13,6 +15,7 @@ import static java.util.stream.Collectors.toList;
 @Data
 public class OrderDto {
 
+    @JsonSerialize(using = ToStringSerializer.class) // Snowflake id (2^53 초과) > JavaScript 에서 정밀도가 유지되도록 문자열로 응답
     private Long orderId;
     private String name;
     private LocalDateTime orderDate;
@@ -0,0 +1,103 @@
+package jpabook.jpashop.service.query;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.repository.order.query.orderItemQueryDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * 전체 주문 Export (NDJSON / CSV)
+ *
+ * 전체 주문을 List 로 만든 후 Jackson 으로 직렬화하면 주문 테이블 크기만큼 메모리 사용
+ *  => OrderQueryRepository.streamAllByDto 로 스트리밍 조회하면서 주문 단위로 바로 Response 에 기록
+ *  => 스트림이 열려있는 동안 커넥션이 필요하므로 조회용 Service 에서 @Transactional(readOnly = true) 로 감싸서 처리
+ */
+@Service
+@Transactional(readOnly = true)
+@RequiredArgsConstructor
+public class OrderExportService {
+
+    private static final int FETCH_SIZE = 500; // DB 에서 한번에 읽어올 row 수
+
+    private static final String CSV_HEADER = "orderId,name,orderDate,orderStatus,city,street,zipcode,itemName,orderPrice,count";
+
+    private final OrderQueryRepository orderQueryRepository;
+    private final ObjectMapper objectMapper;
+
+    // 한 줄에 주문 하나 (OrderQueryDto)
+    public void exportNdjson(Writer writer) throws IOException {
+        try {
+            orderQueryRepository.streamAllByDto(FETCH_SIZE, order -> {
+                try {
+                    writer.write(objectMapper.writeValueAsString(order));
+                    writer.write('\n');
+                } catch (JsonProcessingException e) {
+                    throw new IllegalStateException("주문 직렬화에 실패하였습니다. orderId = " + order.getOrderId(), e);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    // 한 줄에 주문 상품 하나 (주문 정보는 상품마다 반복)
+    public void exportCsv(Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+
+        try {
+            orderQueryRepository.streamAllByDto(FETCH_SIZE, order -> {
+                try {
+                    for (orderItemQueryDto orderItem : order.getOrderItems()) {
+                        writer.write(toCsvLine(order, orderItem));
+                        writer.write('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private String toCsvLine(OrderQueryDto order, orderItemQueryDto orderItem) {
+        Address address = order.getAddress();
+
+        return String.join(",",
+                String.valueOf(order.getOrderId()),
+                csv(order.getName()),
+                csv(order.getOrderDate() == null ? null : order.getOrderDate().toString()),
+                csv(order.getOrderStatus() == null ? null : order.getOrderStatus().name()),
+                csv(address == null ? null : address.getCity()),
+                csv(address == null ? null : address.getStreet()),
+                csv(address == null ? null : address.getZipcode()),
+                csv(orderItem.getItemName()),
+                String.valueOf(orderItem.getOrderPrice()),
+                String.valueOf(orderItem.getCount()));
+    }
+
+    // 콤마, 따옴표, 개행이 포함된 값은 따옴표로 감싸고 내부 따옴표는 이스케이프 (RFC 4180)
+    private String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
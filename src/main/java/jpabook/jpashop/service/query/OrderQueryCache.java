@@ -0,0 +1,143 @@
+package jpabook.jpashop.service.query;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jpabook.jpashop.repository.order.query.OrderFlatDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepository;
+import jpabook.jpashop.service.OrderChangedEvent;
+import jpabook.jpashop.service.ReferenceDataChangedEvent;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 조회 API (V4 / V5 / V6, simple V4) 응답 DTO 캐시 (Caffeine)
+ *
+ * 같은 projection 쿼리를 요청마다 다시 실행하지 않도록 결과 DTO 목록을 캐시
+ *  => maximumWeight : 결과 row 수 기준으로 크기 제한 (큰 목록이 작은 목록보다 많은 공간을 차지)
+ *  => refreshAfterWrite : 일정 시간이 지난 항목은 기존 값을 바로 반환하고 백그라운드에서 갱신 (refresh-ahead)
+ *  => LoadingCache : 같은 key 에 대해 동시에 cache miss 가 발생하면 DB 조회는 1번만 실행하고 나머지는 결과를 기다림 (request coalescing)
+ *
+ * 무효화
+ *  => 주문 생성 / 취소, 회원 / 상품 이름 변경 커밋 이후 (@TransactionalEventListener - AFTER_COMMIT) generation 을 증가시켜 key 를 변경
+ *  => 무효화 이전에 시작된 조회 / refresh 결과는 이전 generation key 에 저장되므로 이후 요청에서 사용되지 않음 (stale 데이터 X)
+ */
+@Slf4j
+@Component
+public class OrderQueryCache {
+
+    enum Query {
+        ORDERS_V4, ORDERS_V5, ORDERS_V6, SIMPLE_ORDERS_V4
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    static class Key {
+        private final Query query;
+        private final long generation;
+    }
+
+    private final OrderQueryRepository orderQueryRepository;
+    private final OrderSimpleQueryRepository orderSimpleQueryRepository;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final LoadingCache<Key, List<?>> cache;
+
+    public OrderQueryCache(OrderQueryRepository orderQueryRepository,
+                           OrderSimpleQueryRepository orderSimpleQueryRepository,
+                           PlatformTransactionManager transactionManager,
+                           MeterRegistry meterRegistry,
+                           @Value("${jpashop.cache.order-query.maximum-weight:100000}") long maximumWeight,
+                           @Value("${jpashop.cache.order-query.expire-after-write:10m}") Duration expireAfterWrite,
+                           @Value("${jpashop.cache.order-query.refresh-after-write:30s}") Duration refreshAfterWrite) {
+        this.orderQueryRepository = orderQueryRepository;
+        this.orderSimpleQueryRepository = orderSimpleQueryRepository;
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((Key key, List<?> value) -> value.size() + 1)
+                .expireAfterWrite(expireAfterWrite)
+                .refreshAfterWrite(refreshAfterWrite)
+                .recordStats()
+                .build(this::load);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "orderQuery");
+    }
+
+    public List<OrderQueryDto> findOrderQueryDtos() {
+        return get(Query.ORDERS_V4);
+    }
+
+    public List<OrderQueryDto> findAllByDto_optimization() {
+        return get(Query.ORDERS_V5);
+    }
+
+    public List<OrderFlatDto> findAllByDto_flat() {
+        return get(Query.ORDERS_V6);
+    }
+
+    public List<OrderSimpleQueryDto> findOrderDtos() {
+        return get(Query.SIMPLE_ORDERS_V4);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderChanged(OrderChangedEvent event) {
+        long next = invalidate();
+        log.debug("order query cache invalidated. orderId = {}, type = {}, generation = {}", event.getOrderId(), event.getType(), next);
+    }
+
+    // 주문 DTO 에 포함된 회원 이름 / 상품 이름 변경
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onReferenceDataChanged(ReferenceDataChangedEvent event) {
+        long next = invalidate();
+        log.debug("order query cache invalidated. {} id = {}, generation = {}", event.getType(), event.getId(), next);
+    }
+
+    private long invalidate() {
+        long next = generation.incrementAndGet();
+        cache.invalidateAll(); // 이전 generation 항목 메모리 정리
+        return next;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> get(Query query) {
+        return (List<T>) cache.get(new Key(query, generation.get()));
+    }
+
+    // cache miss / refresh 시 호출 (refresh 는 별도 스레드에서 실행되므로 readOnly 트랜잭션으로 감싸서 조회)
+    private List<?> load(Key key) {
+        return readOnlyTransaction.<List<?>>execute(status -> {
+            switch (key.query) {
+                case ORDERS_V4:
+                    return orderQueryRepository.findOrderQueryDtos();
+                case ORDERS_V5:
+                    return orderQueryRepository.findAllByDto_optimization();
+                case ORDERS_V6:
+                    return orderQueryRepository.findAllByDto_flat();
+                case SIMPLE_ORDERS_V4:
+                    return orderSimpleQueryRepository.findOrderDtos();
+                default:
+                    throw new IllegalArgumentException("지원하지 않는 조회입니다. query = " + key.query);
+            }
+        });
+    }
+}
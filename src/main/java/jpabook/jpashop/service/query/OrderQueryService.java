@@ -1,16 +1,25 @@
 package jpabook.jpashop.service.query;
 
 import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.repository.OrderCursor;
+import jpabook.jpashop.repository.OrderListDto;
 import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.function.Function;
 
 import static java.util.stream.Collectors.toList;
 
-// Query 용 Service 별도 생성 (Command / Query 분리)
+/**
+ * Query 용 Service 별도 생성 (Command / Query 분리)
+ *
+ * open-in-view: false > 트랜잭션이 끝나면 영속성 컨텍스트 / 커넥션이 정리되므로 Controller / View 에서는 지연 로딩 불가
+ *  => 엔티티를 DTO 로 변환하는 (지연 로딩이 필요한) 작업은 모두 이 Service 의 readOnly 트랜잭션 안에서 처리
+ */
 @Service
 @Transactional(readOnly = true)
 @RequiredArgsConstructor
@@ -18,6 +27,13 @@ public class OrderQueryService {
 
     private final OrderRepository orderRepository;
 
+    // 주문 검색 결과를 트랜잭션 안에서 변환 (변환 중 지연 로딩 가능)
+    public <T> List<T> findOrders(OrderSearch orderSearch, Function<Order, T> mapper) {
+        return orderRepository.findAll(orderSearch).stream()
+                .map(mapper)
+                .collect(toList());
+    }
+
     public List<OrderDto> ordersV3() {
         List<Order> orders = orderRepository.findAllWithItem();
 
@@ -25,4 +41,27 @@ public class OrderQueryService {
                 .map(OrderDto::new)
                 .collect(toList());
     }
+
+    // V3.1 > ToOne fetch join + offset 페이징 (OrderItem 은 default_batch_fetch_size 로 IN 조회)
+    public List<OrderDto> ordersV3_page(int offset, int limit) {
+        return orderRepository.findAllWithMemberDelivery(offset, limit).stream()
+                .map(OrderDto::new)
+                .collect(toList());
+    }
+
+    // V3.2 > Keyset 페이징 (커서의 정렬 순서로 조회)
+    public List<OrderDto> ordersV3_cursor(OrderCursor cursor, int limit) {
+        List<Order> orders = cursor.getSort() == OrderCursor.Sort.ORDER_DATE
+                ? orderRepository.findAllWithMemberDeliveryBefore(cursor.getOrderDate(), cursor.getOrderId(), limit)
+                : orderRepository.findAllWithMemberDeliveryAfter(cursor.getOrderId(), limit);
+
+        return orders.stream()
+                .map(OrderDto::new)
+                .collect(toList());
+    }
+
+    // 주문 목록 화면 > DTO 조회 (orderId 이후부터 limit 개)
+    public List<OrderListDto> findOrderList(OrderSearch orderSearch, Long orderId, int limit) {
+        return orderRepository.findOrderList(orderSearch, orderId, limit);
+    }
 }
@@ -0,0 +1,95 @@
+package jpabook.jpashop.service.query;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jpabook.jpashop.repository.IdNameDto;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.repository.MemberRepository;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 주문 화면 회원 / 상품 자동완성 (typeahead)
+ *
+ * 주문 화면에서 전체 회원 / 상품을 select 로 내려주면 화면 크기 / 메모리가 카탈로그 크기에 비례
+ *  => 입력한 접두어로 이름 인덱스를 범위 조회하여 id / 이름만 최대 maxResults 건 반환
+ *  => 같은 접두어는 짧은 시간 (ttl) 동안 캐시 (Caffeine) > 타이핑마다 들어오는 같은 요청을 DB 까지 보내지 않음
+ *  => cache miss 일 때만 readOnly 트랜잭션으로 조회 (cache hit 는 커넥션 사용 X)
+ *
+ * * 별도 무효화 없이 ttl 이 지나면 새로 추가 / 변경된 이름이 반영됨
+ */
+@Service
+public class TypeaheadService {
+
+    enum Target {
+        MEMBER, ITEM
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    static class Key {
+        private final Target target;
+        private final String prefix;
+        private final int limit;
+    }
+
+    private final MemberRepository memberRepository;
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int maxResults;
+
+    private final LoadingCache<Key, List<IdNameDto>> cache;
+
+    public TypeaheadService(MemberRepository memberRepository,
+                            ItemRepository itemRepository,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry meterRegistry,
+                            @Value("${jpashop.typeahead.max-results:20}") int maxResults,
+                            @Value("${jpashop.typeahead.cache-size:10000}") long cacheSize,
+                            @Value("${jpashop.typeahead.cache-ttl:10s}") Duration cacheTtl) {
+        this.memberRepository = memberRepository;
+        this.itemRepository = itemRepository;
+        this.maxResults = maxResults;
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build(this::load);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "typeahead");
+    }
+
+    // 이름이 prefix 로 시작하는 회원 (이름순, 최대 limit 건 / maxResults 이하)
+    public List<IdNameDto> members(String prefix, int limit) {
+        return get(Target.MEMBER, prefix, limit);
+    }
+
+    // 이름이 prefix 로 시작하는 상품 (이름순, 최대 limit 건 / maxResults 이하)
+    public List<IdNameDto> items(String prefix, int limit) {
+        return get(Target.ITEM, prefix, limit);
+    }
+
+    private List<IdNameDto> get(Target target, String prefix, int limit) {
+        String normalized = prefix == null ? "" : prefix.trim();
+        return cache.get(new Key(target, normalized, Math.max(1, Math.min(limit, maxResults))));
+    }
+
+    private List<IdNameDto> load(Key key) {
+        return readOnlyTransaction.execute(status -> key.target == Target.MEMBER
+                ? memberRepository.findNamesByPrefix(key.prefix, key.limit)
+                : itemRepository.findNamesByPrefix(key.prefix, key.limit));
+    }
+}
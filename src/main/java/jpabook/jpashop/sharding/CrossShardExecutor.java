@@ -0,0 +1,73 @@
+package jpabook.jpashop.sharding;
+
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * 현재 트랜잭션과 다른 shard 에서 실행
+ *
+ * 트랜잭션의 커넥션은 하나의 shard 에만 연결되므로 다른 shard 의 데이터는 별도 트랜잭션 (REQUIRES_NEW) 으로 처리
+ *  => 두 shard 를 하나의 트랜잭션으로 묶을 수 없으므로 (XA X) 호출한 쪽에서 커밋 이후 실행 / 롤백 시 보상으로 일관성을 맞춤
+ *  => afterCommit / afterRollback 은 현재 트랜잭션이 없으면 바로 (afterRollback 은 실행하지 않음) 처리
+ */
+public class CrossShardExecutor {
+
+    private final TransactionTemplate requiresNew;
+
+    public CrossShardExecutor(PlatformTransactionManager transactionManager) {
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // shard 의 새 트랜잭션에서 실행 (현재 트랜잭션은 일시 중단)
+    public <T> T execute(int shard, Supplier<T> action) {
+        try {
+            return ShardContext.call(shard, () -> requiresNew.execute(status -> action.get()));
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException("shard 작업에 실패하였습니다. shard = " + shard, e);
+        }
+    }
+
+    public void execute(int shard, Runnable action) {
+        execute(shard, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    // 현재 트랜잭션이 커밋된 후 실행 (ex. 원본 shard 변경을 다른 shard 에 반영)
+    public void afterCommit(int shard, Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            execute(shard, action);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                execute(shard, action);
+            }
+        });
+    }
+
+    // 현재 트랜잭션이 롤백된 경우 실행 (ex. 다른 shard 에서 먼저 커밋한 변경의 보상)
+    public void afterRollback(int shard, Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    execute(shard, action);
+                }
+            }
+        });
+    }
+}
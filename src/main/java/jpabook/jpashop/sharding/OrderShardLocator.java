@@ -0,0 +1,40 @@
+package jpabook.jpashop.sharding;
+
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Snowflake 도입 이전 주문 id (hibernate_sequence) 의 shard 조회
+ *
+ * 이전 id 에는 shard 번호가 없으므로 (ShardRouter.isLegacyOrderId) 모든 shard 에 PK 조회 (scatter) 로 주문이 있는 shard 를 찾음
+ *  => 주문이 없으면 0번 shard (조회 결과 없음 / 기존과 동일)
+ */
+@Component
+public class OrderShardLocator {
+
+    private final ScatterGatherExecutor scatterGatherExecutor;
+    private final EntityManager em;
+
+    public OrderShardLocator(ScatterGatherExecutor scatterGatherExecutor, EntityManager em) {
+        this.scatterGatherExecutor = scatterGatherExecutor;
+        this.em = em;
+    }
+
+    public int locate(Long orderId) {
+        List<Integer> shards = scatterGatherExecutor.query(
+                () -> exists(orderId) ? Collections.singletonList(ShardContext.currentOrDefault()) : Collections.<Integer>emptyList(),
+                Comparator.naturalOrder(),
+                1);
+        return shards.isEmpty() ? 0 : shards.get(0);
+    }
+
+    private boolean exists(Long orderId) {
+        return em.createNamedQuery("Order.countById", Long.class)
+                .setParameter("orderId", orderId)
+                .getSingleResult() > 0;
+    }
+}
@@ -0,0 +1,128 @@
+package jpabook.jpashop.sharding;
+
+import jpabook.jpashop.concurrent.FanOutExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 전체 shard 조회 (scatter-gather)
+ *
+ * 회원 조건이 없는 조회 (ex. 주문 검색) 는 모든 shard 에 같은 쿼리를 병렬로 실행하고 결과를 합침
+ *  => shard 별 쿼리는 FanOutExecutor (공용 fan-out 스레드, 커넥션 풀 크기 기준 동시 실행 수 제한) 에서 실행
+ *  => 각 shard 의 쿼리는 정렬 + limit 을 포함해야 함 (limit pushdown) > shard 마다 최대 limit 건만 가져옴
+ *  => shard 별 결과는 이미 정렬되어 있으므로 k-way merge 로 limit 건까지만 합침
+ *  => 각 shard 는 작업 스레드의 별도 readOnly 트랜잭션에서 실행되므로 결과 엔티티는 준영속 상태
+ *      => 지연 로딩이 필요한 연관 엔티티는 query 안에서 초기화해야 함
+ *
+ * * shard 를 사용하지 않으면 (shard 1개) 호출한 스레드 / 트랜잭션에서 그대로 실행
+ */
+public class ScatterGatherExecutor {
+
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final FanOutExecutor executor; // shard 1개면 null
+    private final Duration timeout;
+
+    public ScatterGatherExecutor(ShardRouter shardRouter, PlatformTransactionManager transactionManager, FanOutExecutor fanOutExecutor, Duration timeout) {
+        this.shardRouter = shardRouter;
+        this.timeout = timeout;
+
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        this.executor = shardRouter.isSharded() ? fanOutExecutor : null;
+    }
+
+    /**
+     * @param query 각 shard 에서 실행할 쿼리 (order 순서로 정렬 + limit 적용)
+     * @param order query 의 정렬 순서
+     * @param limit 최종 결과 최대 건수
+     */
+    public <T> List<T> query(Supplier<List<T>> query, Comparator<? super T> order, int limit) {
+        if (executor == null) {
+            return query.get();
+        }
+
+        List<Future<List<T>>> futures = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            int target = shard;
+            futures.add(executor.submit(() -> ShardContext.call(target, () -> readOnlyTransaction.execute(status -> query.get()))));
+        }
+
+        List<List<T>> results = new ArrayList<>();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try {
+            for (Future<List<T>> future : futures) {
+                results.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            }
+        } catch (InterruptedException e) {
+            futures.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("shard 조회 중 인터럽트가 발생하였습니다.", e);
+        } catch (TimeoutException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw new IllegalStateException("shard 조회 시간이 초과되었습니다. timeout = " + timeout, e);
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("shard 조회에 실패하였습니다.", e.getCause());
+        }
+
+        return merge(results, order, limit);
+    }
+
+    // 정렬된 shard 별 결과를 k-way merge (limit 건까지)
+    static <T> List<T> merge(List<List<T>> sortedResults, Comparator<? super T> order, int limit) {
+        PriorityQueue<Cursor<T>> queue = new PriorityQueue<>((a, b) -> order.compare(a.current, b.current));
+        for (List<T> result : sortedResults) {
+            Iterator<T> iterator = result.iterator();
+            if (iterator.hasNext()) {
+                queue.add(new Cursor<>(iterator));
+            }
+        }
+
+        List<T> merged = new ArrayList<>();
+        while (!queue.isEmpty() && merged.size() < limit) {
+            Cursor<T> cursor = queue.poll();
+            merged.add(cursor.current);
+            if (cursor.advance()) {
+                queue.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    private static class Cursor<T> {
+        private final Iterator<T> iterator;
+        private T current;
+
+        Cursor(Iterator<T> iterator) {
+            this.iterator = iterator;
+            this.current = iterator.next();
+        }
+
+        boolean advance() {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            current = iterator.next();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package jpabook.jpashop.sharding;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 현재 스레드에서 사용할 shard 번호
+ *
+ * ShardRoutingAspect (@ShardKey) / ScatterGatherExecutor 가 트랜잭션 시작 전에 설정
+ *  => ShardRoutingDataSource 가 커넥션을 가져올 때 사용 (설정되지 않았으면 0번 shard)
+ *  => SnowflakeIdGenerator 가 id 에 shard 번호를 포함 (findOne(orderId) 는 id 만으로 shard 를 찾을 수 있음)
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    public static int currentOrDefault() {
+        Integer shard = CURRENT.get();
+        return shard == null ? 0 : shard;
+    }
+
+    // shard 를 설정하고 이전 값을 반환 (restore 로 복원)
+    static Integer bind(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    // shard 를 설정한 상태로 실행 후 이전 값으로 복원
+    public static <T> T call(int shard, Callable<T> callable) throws Exception {
+        Integer previous = bind(shard);
+        try {
+            return callable.call();
+        } finally {
+            restore(previous);
+        }
+    }
+}
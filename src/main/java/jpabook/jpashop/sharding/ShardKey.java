@@ -0,0 +1,26 @@
+package jpabook.jpashop.sharding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * shard 를 결정하는 파라미터 (ShardRoutingAspect)
+ *
+ * @Transactional 보다 먼저 실행되어 트랜잭션의 커넥션을 해당 shard 에서 가져옴
+ *  => MEMBER_ID : 회원 id 의 hash (Long)
+ *  => ORDER_ID  : 주문 id 에 포함된 shard 번호 (Long, SnowflakeIdGenerator) > 이전 시퀀스 id 는 OrderShardLocator 로 조회
+ *  => Order / OrderCommand 타입 파라미터는 type 과 상관없이 주문 회원의 id 로 결정 (목록이면 첫 번째 주문 기준)
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ShardKey {
+
+    Type value() default Type.MEMBER_ID;
+
+    enum Type {
+        MEMBER_ID,
+        ORDER_ID
+    }
+}
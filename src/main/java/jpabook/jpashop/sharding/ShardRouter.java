@@ -0,0 +1,68 @@
+package jpabook.jpashop.sharding;
+
+/**
+ * member_id hash 기반 shard 결정
+ *
+ * 같은 회원의 주문은 항상 같은 shard 에 저장 (회원 단위 조회는 shard 1개에서 처리)
+ *  => shard 를 사용하지 않으면 (jpashop.sharding.enabled=false) 항상 0번 shard
+ *  => shard 개수를 변경하면 기존 회원의 shard 가 바뀌므로 재분배 (resharding) 가 필요
+ *
+ * 참조 테이블 (회원 / 상품 / 카테고리) 은 모든 shard 에 복제되지만 원본은 REFERENCE_SHARD (0번)
+ *  => 상품 재고 차감 / 회원 변경 등 쓰기는 원본 shard 에서만 처리 (StockService, MemberService)
+ */
+public class ShardRouter {
+
+    public static final int REFERENCE_SHARD = 0;
+
+    private final int shardCount;
+
+    public ShardRouter(int shardCount) {
+        if (shardCount < 1 || shardCount > SnowflakeIdGenerator.MAX_SHARDS) {
+            throw new IllegalArgumentException("shard 개수는 1 ~ " + SnowflakeIdGenerator.MAX_SHARDS + " 사이여야 합니다. shardCount = " + shardCount);
+        }
+        this.shardCount = shardCount;
+    }
+
+    public boolean isSharded() {
+        return shardCount > 1;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public int shardOfMember(Long memberId) {
+        if (!isSharded() || memberId == null) {
+            return 0;
+        }
+        return (int) Math.floorMod(mix(memberId), (long) shardCount);
+    }
+
+    // Snowflake id 에 포함된 shard 번호 (이전 시퀀스 id 는 shard 번호가 없으므로 isLegacyOrderId 로 먼저 확인)
+    public int shardOfOrder(Long orderId) {
+        if (!isSharded() || orderId == null) {
+            return 0;
+        }
+        return SnowflakeIdGenerator.shardOf(orderId);
+    }
+
+    // Snowflake 도입 이전에 발급된 주문 id > 어느 shard 에 있는지 id 만으로 알 수 없음 (OrderShardLocator)
+    public boolean isLegacyOrderId(Long orderId) {
+        return isSharded() && orderId != null && !SnowflakeIdGenerator.isSnowflakeId(orderId);
+    }
+
+    // 현재 트랜잭션이 참조 테이블 원본 shard 에서 실행 중인지 (shard 를 사용하지 않으면 항상 true)
+    public boolean isOnReferenceShard() {
+        return !isSharded() || ShardContext.currentOrDefault() == REFERENCE_SHARD;
+    }
+
+    // 연속된 id (1, 2, 3 ...) 가 shard 에 고르게 분산되도록 bit 를 섞음 (MurmurHash3 fmix64)
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
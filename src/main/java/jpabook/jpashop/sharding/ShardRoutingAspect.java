@@ -0,0 +1,95 @@
+package jpabook.jpashop.sharding;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.service.OrderCommand;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.annotation.Annotation;
+import java.util.Collection;
+
+/**
+ * @ShardKey 파라미터로 shard 를 결정하여 ShardContext 에 설정
+ *
+ * 트랜잭션의 커넥션은 트랜잭션 시작 시 결정되므로 @Transactional / @OptimisticLockRetry 보다 먼저 실행
+ *  => 이미 다른 shard 로 트랜잭션이 진행 중이면 같은 커넥션으로 다른 shard 의 데이터를 다룰 수 없으므로 IllegalStateException
+ *  => 트랜잭션 밖 (Controller 등) 에서 호출하는 Service / Repository 메소드에 선언
+ */
+@Aspect
+@Component
+@org.springframework.core.annotation.Order(Ordered.HIGHEST_PRECEDENCE) // jpabook.jpashop.domain.Order 와 이름이 같으므로 전체 이름 사용
+public class ShardRoutingAspect {
+
+    private final ShardRouter shardRouter;
+    private final ObjectProvider<OrderShardLocator> orderShardLocator; // EntityManager 를 사용하므로 처음 필요할 때 조회
+
+    public ShardRoutingAspect(ShardRouter shardRouter, ObjectProvider<OrderShardLocator> orderShardLocator) {
+        this.shardRouter = shardRouter;
+        this.orderShardLocator = orderShardLocator;
+    }
+
+    @Around("execution(* *(.., @jpabook.jpashop.sharding.ShardKey (*), ..))")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        int shard = resolveShard(joinPoint);
+
+        // 트랜잭션의 커넥션은 이미 결정되었으므로 (설정되지 않았으면 0번 shard) 같은 shard 인 경우만 허용
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            int transactionShard = ShardContext.currentOrDefault();
+            if (transactionShard != shard) {
+                throw new IllegalStateException("다른 shard 의 트랜잭션 안에서 호출할 수 없습니다. current = " + transactionShard + ", requested = " + shard
+                        + ", method = " + joinPoint.getSignature().toShortString());
+            }
+            return joinPoint.proceed();
+        }
+
+        Integer previous = ShardContext.bind(shard);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    private int resolveShard(ProceedingJoinPoint joinPoint) {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Annotation[][] parameterAnnotations = signature.getMethod().getParameterAnnotations();
+        Object[] args = joinPoint.getArgs();
+
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof ShardKey) {
+                    return shardOf((ShardKey) annotation, args[i]);
+                }
+            }
+        }
+        throw new IllegalStateException("@ShardKey 파라미터가 없습니다. method = " + signature.toShortString());
+    }
+
+    private int shardOf(ShardKey shardKey, Object arg) {
+        if (arg instanceof Collection) { // 대량 주문 > 첫 번째 주문 기준 (같은 shard 인지는 호출한 메소드에서 검증)
+            Collection<?> collection = (Collection<?>) arg;
+            return collection.isEmpty() ? 0 : shardOf(shardKey, collection.iterator().next());
+        }
+        if (arg instanceof OrderCommand) {
+            return shardRouter.shardOfMember(((OrderCommand) arg).getMemberId());
+        }
+        if (arg instanceof Order) {
+            Order order = (Order) arg;
+            return shardRouter.shardOfMember(order.getMember() == null ? null : order.getMember().getId());
+        }
+        if (shardKey.value() == ShardKey.Type.ORDER_ID) {
+            Long orderId = (Long) arg;
+            if (shardRouter.isLegacyOrderId(orderId)) { // Snowflake 이전 id > shard 번호가 없으므로 모든 shard 에서 조회
+                return orderShardLocator.getObject().locate(orderId);
+            }
+            return shardRouter.shardOfOrder(orderId);
+        }
+        return shardRouter.shardOfMember((Long) arg);
+    }
+}
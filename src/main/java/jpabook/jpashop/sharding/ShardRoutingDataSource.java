@@ -0,0 +1,12 @@
+package jpabook.jpashop.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// ShardContext 의 shard 번호로 커넥션을 가져올 DataSource 결정 (설정되지 않았으면 0번 shard)
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.currentOrDefault();
+    }
+}
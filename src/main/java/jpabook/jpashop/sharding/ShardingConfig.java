@@ -0,0 +1,131 @@
+package jpabook.jpashop.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jpabook.jpashop.concurrent.FanOutExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 주문 shard 설정
+ *
+ * jpashop.sharding.enabled=false (기본) > shard 1개 (spring.datasource), ShardRouter 는 항상 0번 shard
+ * jpashop.sharding.enabled=true         > shards 목록의 DataSource 를 ShardRoutingDataSource 로 묶어서 사용
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public ShardRouter shardRouter(ShardingProperties properties) {
+        return new ShardRouter(properties.isEnabled() ? properties.getShards().size() : 1);
+    }
+
+    @Bean
+    public ScatterGatherExecutor scatterGatherExecutor(ShardRouter shardRouter, PlatformTransactionManager transactionManager, FanOutExecutor fanOutExecutor, ShardingProperties properties) {
+        return new ScatterGatherExecutor(shardRouter, transactionManager, fanOutExecutor, properties.getScatterTimeout());
+    }
+
+    @Bean
+    public CrossShardExecutor crossShardExecutor(PlatformTransactionManager transactionManager) {
+        return new CrossShardExecutor(transactionManager);
+    }
+
+    /**
+     * Snowflake worker 번호 (jpashop.id.worker-id) > Hibernate 설정 (SnowflakeIdGenerator.WORKER_ID) 으로 전달
+     *
+     * 주문 / 주문 상품 / 배송 id 는 shard 사용 여부와 상관없이 SnowflakeIdGenerator 로 생성
+     *  => 인스턴스끼리 worker 번호가 같으면 같은 ms 에 같은 id 를 발급하므로 (PK 중복) 기본값 없이 지정하지 않으면 기동 실패
+     *  => 인스턴스를 1개만 실행하는 경우에만 jpashop.id.single-instance=true 로 0 사용
+     */
+    @Bean
+    public HibernatePropertiesCustomizer snowflakeWorkerId(@Value("${jpashop.id.worker-id:}") String workerId,
+                                                           @Value("${jpashop.id.single-instance:false}") boolean singleInstance) {
+        String resolved = resolveWorkerId(workerId, singleInstance);
+        return properties -> properties.put(SnowflakeIdGenerator.WORKER_ID, resolved);
+    }
+
+    static String resolveWorkerId(String workerId, boolean singleInstance) {
+        if (StringUtils.hasText(workerId)) {
+            return workerId.trim();
+        }
+        if (!singleInstance) {
+            throw new IllegalStateException("jpashop.id.worker-id 를 지정해야 합니다. (인스턴스마다 다른 값 0 ~ 31 / 인스턴스를 1개만 실행하면 jpashop.id.single-instance=true)");
+        }
+        return "0";
+    }
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "jpashop.sharding", name = "enabled", havingValue = "true")
+    static class ShardDataSourceConfig {
+
+        /**
+         * 트랜잭션 시작 전에 ShardContext 가 설정되지만, 트랜잭션 안에서 처음 SQL 을 실행하는 시점에 커넥션을 가져오도록 LazyConnectionDataSourceProxy 로 감쌈
+         * * shard DataSource 는 Bean 으로 등록하지 않으므로 (p6spy 중복 적용 방지) 종료 시 ShardDataSources 가 close
+         */
+        @Bean
+        public ShardDataSources shardDataSources(ShardingProperties properties) {
+            return new ShardDataSources(properties.getShards());
+        }
+
+        @Bean
+        @Primary
+        public DataSource dataSource(ShardDataSources shardDataSources) {
+            Map<Object, Object> targets = new HashMap<>();
+            List<HikariDataSource> dataSources = shardDataSources.getDataSources();
+            for (int shard = 0; shard < dataSources.size(); shard++) {
+                targets.put(shard, dataSources.get(shard));
+            }
+
+            ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource();
+            routingDataSource.setTargetDataSources(targets);
+            routingDataSource.setDefaultTargetDataSource(dataSources.get(0));
+            routingDataSource.afterPropertiesSet();
+
+            return new LazyConnectionDataSourceProxy(routingDataSource);
+        }
+    }
+
+    static class ShardDataSources implements AutoCloseable {
+
+        private final List<HikariDataSource> dataSources = new ArrayList<>();
+
+        ShardDataSources(List<ShardingProperties.Shard> shards) {
+            for (int i = 0; i < shards.size(); i++) {
+                ShardingProperties.Shard shard = shards.get(i);
+                HikariDataSource dataSource = DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .url(shard.getUrl())
+                        .username(shard.getUsername())
+                        .password(shard.getPassword())
+                        .build();
+                dataSource.setPoolName("shard-" + i);
+                dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+                dataSources.add(dataSource);
+            }
+        }
+
+        List<HikariDataSource> getDataSources() {
+            return dataSources;
+        }
+
+        @Override
+        public void close() {
+            dataSources.forEach(HikariDataSource::close);
+        }
+    }
+}
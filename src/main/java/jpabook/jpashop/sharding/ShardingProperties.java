@@ -0,0 +1,33 @@
+package jpabook.jpashop.sharding;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * jpashop.sharding.* (application-shard.yml)
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "jpashop.sharding")
+public class ShardingProperties {
+
+    private boolean enabled;
+
+    private List<Shard> shards = new ArrayList<>();        // 목록 순서가 shard 번호 (순서 / 개수 변경 시 재분배 필요)
+
+    private Duration scatterTimeout = Duration.ofSeconds(5);
+
+    @Getter
+    @Setter
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,106 @@
+package jpabook.jpashop.sharding;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+/**
+ * 전역 유일 id 생성 (Snowflake)
+ *
+ * shard 마다 DB 시퀀스를 사용하면 shard 간에 id 가 중복되므로 애플리케이션에서 직접 생성
+ *  => [41 bit : 2021-01-01 부터의 ms] [6 bit : shard] [5 bit : worker] [11 bit : ms 당 순번]
+ *  => 시간 순으로 증가하므로 PK 인덱스 / Keyset 페이징 (order by id) 에 그대로 사용 가능
+ *  => DB 호출이 없으므로 pooled sequence 와 동일하게 JDBC batch INSERT 가능
+ *  => worker : 애플리케이션 인스턴스마다 다른 값을 지정 (jpashop.id.worker-id, 0 ~ 31) > 지정하지 않으면 기동 실패 (ShardingConfig.snowflakeWorkerId)
+ *
+ * * 53 bit 를 초과하므로 JavaScript 클라이언트에서는 정밀도가 손실됨 > API 응답은 문자열로 변환 (@JsonSerialize(using = ToStringSerializer.class)), 화면은 문자열 속성으로 전달
+ */
+public class SnowflakeIdGenerator implements IdentifierGenerator {
+
+    public static final String WORKER_ID = "jpashop.worker_id";
+
+    static final long EPOCH = 1609459200000L; // 2021-01-01T00:00:00Z
+
+    private static final int SEQUENCE_BITS = 11;
+    private static final int WORKER_BITS = 5;
+    private static final int SHARD_BITS = 6;
+
+    static final int MAX_SHARDS = 1 << SHARD_BITS;
+    private static final int MAX_WORKERS = 1 << WORKER_BITS;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long MIN_ID = 1L << (32 + SHARD_BITS + WORKER_BITS + SEQUENCE_BITS);
+
+    private long workerId;
+    private long lastTimestamp = -1L;
+    private long sequence;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) {
+        Object value = serviceRegistry.getService(ConfigurationService.class).getSettings().get(WORKER_ID);
+        if (value == null) { // 기본값 0 으로 여러 인스턴스가 같은 id 를 발급하지 않도록 기동 실패
+            throw new IllegalStateException(WORKER_ID + " 설정이 없습니다. jpashop.id.worker-id 를 지정해야 합니다.");
+        }
+        workerId = Long.parseLong(value.toString().trim());
+
+        if (workerId < 0 || workerId >= MAX_WORKERS) {
+            throw new IllegalArgumentException(WORKER_ID + " 는 0 ~ " + (MAX_WORKERS - 1) + " 사이여야 합니다. workerId = " + workerId);
+        }
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        return nextId(ShardContext.currentOrDefault());
+    }
+
+    synchronized long nextId(int shard) {
+        long timestamp = System.currentTimeMillis();
+
+        // 시계가 뒤로 이동한 경우 (NTP 보정) 마지막 발급 시각 기준으로 이어서 발급 (중복 방지)
+        if (timestamp < lastTimestamp) {
+            timestamp = lastTimestamp;
+        }
+
+        if (timestamp == lastTimestamp) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) { // ms 당 순번 소진 > 다음 ms 까지 대기
+                timestamp = waitNextMillis(lastTimestamp);
+            }
+        } else {
+            sequence = 0;
+        }
+        lastTimestamp = timestamp;
+
+        return ((timestamp - EPOCH) << (SHARD_BITS + WORKER_BITS + SEQUENCE_BITS))
+                | ((long) shard << (WORKER_BITS + SEQUENCE_BITS))
+                | (workerId << SEQUENCE_BITS)
+                | sequence;
+    }
+
+    /**
+     * Snowflake id 여부
+     *
+     * 시각 부분이 2^32 ms (EPOCH 이후 약 50일, 2021-02) 이상이므로 Snowflake id 는 항상 MIN_ID 이상
+     *  => 그보다 작은 id 는 Snowflake 도입 이전에 hibernate_sequence 로 발급된 id (shard 번호 없음)
+     */
+    static boolean isSnowflakeId(long id) {
+        return id >= MIN_ID;
+    }
+
+    static int shardOf(long id) {
+        return (int) ((id >>> (WORKER_BITS + SEQUENCE_BITS)) & (MAX_SHARDS - 1));
+    }
+
+    private long waitNextMillis(long last) {
+        long timestamp = System.currentTimeMillis();
+        while (timestamp <= last) {
+            Thread.onSpinWait();
+            timestamp = System.currentTimeMillis();
+        }
+        return timestamp;
+    }
+}
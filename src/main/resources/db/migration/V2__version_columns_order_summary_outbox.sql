@@ -0,0 +1,46 @@
+-- 초기 스키마 (V1) 이후 추가된 컬럼 / 테이블
+--  => 기존 DB (V1 baseline) 에도 그대로 적용되도록 ALTER / CREATE 로만 작성
+
+-- 낙관적 락 (@Version) : 기존 row 는 0 으로 채움 (null 이면 version 조건 UPDATE 가 항상 실패)
+alter table member add column version bigint default 0 not null;
+alter table item add column version bigint default 0 not null;
+alter table orders add column version bigint default 0 not null;
+
+-- 주문 / 배송 / 주문 상품 id 는 Snowflake (SnowflakeIdGenerator) > 기존 row 의 hibernate_sequence id 는 그대로 유지
+
+-- 주문 목록 읽기 모델 (OrderSummary) > 기존 주문은 기동 시 테이블이 비어 있으면 OrderSummaryService.rebuild 로 적재
+create table order_summary (
+    order_id bigint not null,
+    member_id bigint,
+    member_name varchar(255),
+    order_date timestamp,
+    status varchar(255),
+    city varchar(255),
+    street varchar(255),
+    zipcode varchar(255),
+    total_price integer not null,
+    item_count integer not null,
+    primary key (order_id)
+);
+
+create index idx_order_summary_member_id on order_summary (member_id);
+
+-- Transactional Outbox (OutboxEvent)
+create sequence outbox_seq start with 1 increment by 50;  -- pooled, allocationSize = 50
+
+create table outbox_event (
+    outbox_event_id bigint not null,
+    dedup_key varchar(100) not null,
+    aggregate_type varchar(255),
+    aggregate_id bigint,
+    event_type varchar(255),
+    payload varchar(2000),
+    created_at timestamp,
+    published_at timestamp,
+    next_attempt_at timestamp,
+    attempts integer not null,
+    primary key (outbox_event_id)
+);
+
+alter table outbox_event add constraint uk_outbox_event_dedup_key unique (dedup_key);
+create index idx_outbox_event_pending on outbox_event (published_at, next_attempt_at);
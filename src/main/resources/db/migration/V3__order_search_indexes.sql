@@ -0,0 +1,29 @@
+-- 주문 조회 경로별 복합 / 커버링 인덱스 (QueryPlanTest 로 full scan 여부 확인)
+
+-- 주문 검색 (OrderRepository.findAll) : status = ? order by order_id limit 1000
+create index idx_orders_status_id on orders (status, order_id);
+
+-- 주문 검색 회원 조건 (member_id in (...)) / 회원의 주문 (findAllByMember) : member_id = ? order by order_id desc
+create index idx_orders_member_id on orders (member_id, order_id);
+
+-- 최근 주문순 keyset 페이징 (findAllWithMemberDeliveryBefore) : order_date <= ? order by order_date desc, order_id desc
+create index idx_orders_order_date_id on orders (order_date, order_id);
+
+-- 배송 > 주문 (Delivery.order, OneToOne mappedBy) : 배송 1건 = 주문 1건
+create unique index ux_orders_delivery_id on orders (delivery_id);
+
+-- 주문 상품 조회 (V4 / V5, batch fetch) : order_id in (...)
+-- 주문 상품 DTO 에 필요한 컬럼을 모두 포함하여 order_item 테이블을 읽지 않고 인덱스만으로 처리 (covering index)
+create index idx_order_item_order_cover on order_item (order_id, item_id, order_price, count);
+
+-- 상품별 주문 상품 (상품 삭제 / 통계)
+create index idx_order_item_item_id on order_item (item_id);
+
+-- 회원 이름 중복 확인 (MemberRepository.findByName) / 상품 이름 조회
+create index idx_member_name on member (name);
+create index idx_item_name on item (name);
+
+-- 카테고리 하위 / 상품 목록
+create index idx_category_parent_id on category (parent_id);
+alter table category_item add constraint pk_category_item primary key (category_id, item_id);
+create index idx_category_item_item_id on category_item (item_id);
@@ -0,0 +1,26 @@
+-- 카테고리 계층 closure table : 모든 (조상, 자손) 쌍과 거리 (depth) 를 저장
+--  => 자기 자신도 depth 0 으로 저장하므로 "카테고리 X 하위 전체" 는 ancestor_id = X 인덱스 조회 한번으로 처리
+--  => 하위 카테고리 상품 조회 (CategoryRepository.findItemsInSubtree) : category_closure (PK) > category_item (PK) > item (PK)
+create table category_closure (
+    ancestor_id bigint not null,
+    descendant_id bigint not null,
+    depth integer not null,
+    primary key (ancestor_id, descendant_id)
+);
+
+-- 조상 목록 / 하위 트리 이동 (descendant_id = ?)
+create index idx_category_closure_descendant on category_closure (descendant_id, depth);
+
+alter table category_closure add constraint fk_category_closure_ancestor foreign key (ancestor_id) references category;
+alter table category_closure add constraint fk_category_closure_descendant foreign key (descendant_id) references category;
+
+-- 기존 카테고리 backfill : 자기 자신 (depth 0) 에서 시작하여 자식 방향으로 한 단계씩 (깊이 제한 없음)
+with recursive paths (ancestor_id, descendant_id, depth) as (
+    select category_id, category_id, 0 from category
+    union all
+    select p.ancestor_id, c.category_id, p.depth + 1
+      from paths p
+      join category c on c.parent_id = p.descendant_id
+)
+insert into category_closure (ancestor_id, descendant_id, depth)
+select ancestor_id, descendant_id, depth from paths;
@@ -0,0 +1,87 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Snowflake 주문 id 는 2^53 을 초과하므로 JSON 숫자로 내려주면 JavaScript 클라이언트에서 정밀도가 손실됨
+ *  => 응답의 orderId 는 문자열이어야 하고, 그 문자열 그대로 취소 요청을 보내면 같은 주문이 취소되어야 함
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class OrderIdJsonTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    OrderService orderService;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Test
+    public void 주문_id_문자열_응답으로_주문_취소() throws Exception {
+        // given
+        Member member = new Member();
+        member.setName("KJH");
+        member.setAddress(new Address("서울", "상암", "12345"));
+        em.persist(member);
+
+        Book book = new Book();
+        book.setName("JPA 표준");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        em.persist(book);
+
+        Long orderId = orderService.order(member.getId(), book.getId(), 2);
+        assertTrue(orderId > (1L << 53), "Snowflake id 는 JavaScript 의 정확한 정수 범위 (2^53) 를 초과");
+
+        // when
+        String body = mockMvc.perform(get("/api/v3.2/orders").param("sort", "orderDate").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        JsonNode responseOrderId = objectMapper.readTree(body).path("data").path(0).path("orderId");
+
+        mockMvc.perform(post("/orders/" + responseOrderId.asText() + "/cancel"))
+                .andExpect(status().is3xxRedirection());
+
+        // then
+        assertTrue(responseOrderId.isTextual(), "orderId 는 문자열로 응답");
+        assertEquals(String.valueOf(orderId), responseOrderId.asText());
+
+        em.flush();
+        em.clear();
+        assertEquals(OrderStatus.CANCEL, orderRepository.findOne(orderId).getStatus());
+        assertEquals(10, em.find(Book.class, book.getId()).getStockQuantity()); // 재고 원복
+    }
+}
@@ -0,0 +1,59 @@
+package jpabook.jpashop.category;
+
+import jpabook.jpashop.service.CategoryService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+// 스냅샷은 커밋 이후 (afterCommit) 에 교체되므로 테스트 트랜잭션 없이 확인 (@Transactional 테스트는 롤백되므로 afterCommit 이 호출되지 않음)
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+class CategoryTreeCacheTest {
+
+    @Autowired
+    CategoryTreeCache categoryTreeCache;
+
+    @Autowired
+    CategoryService categoryService;
+
+    @Test
+    public void 카테고리_변경_커밋_이후_스냅샷_교체() throws Exception {
+        // given
+        Long books = categoryService.create("캐시-도서", null);
+        Long it = categoryService.create("캐시-IT", books);
+        Long electronics = categoryService.create("캐시-전자", null);
+
+        CategoryTree created = categoryTreeCache.get();
+        assertEquals(Arrays.asList(books, it), created.path(it).stream().map(CategoryTree.Node::getId).collect(Collectors.toList()), "생성 커밋 이후 스냅샷에 포함");
+
+        // when
+        categoryService.move(it, electronics);
+
+        // then
+        CategoryTree moved = categoryTreeCache.get();
+        assertEquals(Arrays.asList(electronics, it), moved.path(it).stream().map(CategoryTree.Node::getId).collect(Collectors.toList()), "이동 커밋 이후 새 스냅샷으로 교체");
+        assertEquals(books, created.path(it).get(0).getId(), "이전 스냅샷은 변경되지 않음 (불변)");
+    }
+
+    @Test
+    public void 롤백된_변경은_스냅샷에_반영하지_않음() throws Exception {
+        // given
+        Long books = categoryService.create("롤백-도서", null);
+        Long it = categoryService.create("롤백-IT", books);
+        CategoryTree before = categoryTreeCache.get();
+
+        // when : 자기 하위 카테고리로 이동 > 예외로 롤백
+        assertThrows(IllegalArgumentException.class, () -> categoryService.move(books, it));
+
+        // then
+        assertEquals(before, categoryTreeCache.get(), "롤백되면 스냅샷을 다시 만들지 않음");
+    }
+}
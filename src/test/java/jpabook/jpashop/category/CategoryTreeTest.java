@@ -0,0 +1,55 @@
+package jpabook.jpashop.category;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CategoryTreeTest {
+
+    @Test
+    public void 트리_생성_하위_id_순_정렬() throws Exception {
+        // given : 도서 (1) > IT (3) , 소설 (2) > JPA (4)
+        List<Object[]> rows = Arrays.asList(
+                new Object[]{4L, "JPA", 3L},
+                new Object[]{3L, "IT", 1L},
+                new Object[]{1L, "도서", null},
+                new Object[]{2L, "소설", 1L},
+                new Object[]{5L, "전자", null});
+
+        // when
+        CategoryTree tree = CategoryTree.of(rows);
+
+        // then
+        assertEquals(5, tree.size());
+        assertEquals(Arrays.asList(1L, 5L), ids(tree.getRoots()));
+        assertEquals(Arrays.asList(2L, 3L), ids(tree.get(1L).getChildren()), "같은 부모의 하위 카테고리는 id 순");
+        assertEquals(2, tree.get(4L).getDepth());
+        assertEquals(Arrays.asList(1L, 3L, 4L), ids(tree.path(4L)), "루트부터 해당 카테고리까지");
+    }
+
+    @Test
+    public void 루트까지_이어지지_않는_카테고리_제외() throws Exception {
+        // given : 부모 (99) 가 없는 카테고리
+        List<Object[]> rows = Arrays.asList(
+                new Object[]{1L, "도서", null},
+                new Object[]{2L, "고아", 99L});
+
+        // when
+        CategoryTree tree = CategoryTree.of(rows);
+
+        // then
+        assertEquals(1, tree.size());
+        assertNull(tree.get(2L));
+        assertTrue(tree.path(2L).isEmpty());
+    }
+
+    private List<Long> ids(List<CategoryTree.Node> nodes) {
+        return nodes.stream().map(CategoryTree.Node::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,76 @@
+package jpabook.jpashop.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FanOutExecutorTest {
+
+    @Test
+    public void 동시_실행_수_제한() throws Exception {
+        // given
+        // 스레드는 충분히 많지만 (가상 스레드와 동일한 조건) permit 은 2개
+        FanOutExecutor executor = new FanOutExecutor(Executors.newCachedThreadPool(), 2, Duration.ofSeconds(5), false);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        // when
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(executor.submit(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(20);
+                running.decrementAndGet();
+                return 1;
+            }));
+        }
+        for (Future<Integer> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // then
+        assertTrue(maxRunning.get() <= 2, "동시에 실행되는 작업은 permit 수를 넘지 않아야 한다.");
+        assertEquals(0, executor.getActiveCount());
+    }
+
+    @Test
+    public void permit_대기_시간_초과() throws Exception {
+        // given
+        FanOutExecutor executor = new FanOutExecutor(Executors.newCachedThreadPool(), 1, Duration.ofMillis(50), false);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Object> blocking = executor.submit(() -> release.await(5, TimeUnit.SECONDS));
+
+        // when
+        Future<Object> waiting = executor.submit(() -> "done");
+
+        // then
+        ExecutionException e = assertThrows(ExecutionException.class, () -> waiting.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof RejectedExecutionException);
+
+        release.countDown();
+        blocking.get(5, TimeUnit.SECONDS);
+        executor.shutdown();
+    }
+
+    @Test
+    public void 요청_fan_out_합계_커넥션_풀_이하() throws Exception {
+        assertEquals(10, ThreadingConfig.requestConcurrency(20, 10, 0), "기본값은 풀 크기 - fan-out");
+        assertEquals(5, ThreadingConfig.requestConcurrency(20, 10, 5));
+        assertThrows(IllegalStateException.class, () -> ThreadingConfig.requestConcurrency(20, 10, 20), "요청 + fan-out 이 풀 크기를 초과하면 기동 실패");
+        assertThrows(IllegalStateException.class, () -> ThreadingConfig.requestConcurrency(10, 10, 0), "요청에 사용할 커넥션이 없음");
+    }
+}
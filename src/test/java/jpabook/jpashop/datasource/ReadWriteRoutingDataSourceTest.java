@@ -0,0 +1,92 @@
+package jpabook.jpashop.datasource;
+
+import jpabook.jpashop.datasource.RoutingDataSourceProperties.Strategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private final ReadYourWrites readYourWrites = new ReadYourWrites(Duration.ofSeconds(5), "jpashop-primary-until");
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        readYourWrites.clear();
+    }
+
+    @Test
+    public void 읽기전용_트랜잭션_replica_순서대로_조회() throws Exception {
+        // given
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(cluster("select 0"), readYourWrites);
+
+        // when
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // then
+        assertEquals("replica-0", dataSource.determineCurrentLookupKey());
+        assertEquals("replica-1", dataSource.determineCurrentLookupKey());
+        assertEquals("replica-0", dataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    public void 쓰기_트랜잭션_primary_조회() throws Exception {
+        // given
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(cluster("select 0"), readYourWrites);
+
+        // when
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+
+        // then
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, dataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    public void 쓰기_커밋_이후_primary_조회() throws Exception {
+        // given
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(cluster("select 0"), readYourWrites);
+
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        dataSource.determineCurrentLookupKey(); // 쓰기 트랜잭션
+
+        // when
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // then
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, dataSource.determineCurrentLookupKey(), "커밋 직후 조회는 primary 에서 실행되어야 한다.");
+    }
+
+    @Test
+    public void 지연된_replica_제외() throws Exception {
+        // given
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(cluster("select 5"), readYourWrites);
+
+        // when
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        // then
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, dataSource.determineCurrentLookupKey(), "maxLag 를 초과한 replica 는 조회 대상에서 제외되어야 한다.");
+    }
+
+    private DataSourceCluster cluster(String lagQuery) {
+        DataSourceCluster cluster = new DataSourceCluster(
+                new DriverManagerDataSource("jdbc:h2:mem:primary"),
+                Arrays.asList(new DriverManagerDataSource("jdbc:h2:mem:replica0"), new DriverManagerDataSource("jdbc:h2:mem:replica1")),
+                Strategy.ROUND_ROBIN, Duration.ofSeconds(1), lagQuery);
+        cluster.checkLag();
+        return cluster;
+    }
+}
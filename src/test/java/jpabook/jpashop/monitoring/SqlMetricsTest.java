@@ -0,0 +1,38 @@
+package jpabook.jpashop.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlMetricsTest {
+
+    @Test
+    public void SQL_모양_리터럴_치환() throws Exception {
+        String shape = SqlMetrics.shape("select * from member  where member_id = 12 and name = 'it''s'");
+
+        assertEquals("select * from member where member_id = ? and name = ?", shape);
+    }
+
+    @Test
+    public void 같은_모양_SQL_반복_집계() throws Exception {
+        SqlMetrics metrics = SqlMetrics.start();
+        try {
+            metrics.statementExecuted("select * from orders", 1_000);
+            for (int i = 0; i < 3; i++) {
+                metrics.statementExecuted("select * from member where member_id = " + i, 1_000);
+            }
+
+            Map.Entry<String, Integer> repeated = metrics.mostRepeated();
+
+            assertEquals(4, metrics.getStatements(), "실행된 SQL 수");
+            assertEquals("select * from member where member_id = ?", repeated.getKey());
+            assertEquals(3, repeated.getValue(), "같은 모양의 SQL 반복 횟수");
+            assertTrue(metrics.toServerTiming().startsWith("db;dur=0.004;desc=\"statements=4 rows=0\""));
+        } finally {
+            SqlMetrics.clear();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package jpabook.jpashop.outbox;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InMemoryOutboxSinkTest {
+
+    @Test
+    public void 같은_dedupKey_한번만_전달() throws Exception {
+        // given
+        InMemoryOutboxSink sink = new InMemoryOutboxSink(10);
+
+        // when
+        sink.publish(message(1L, "order:1:ORDERED"));
+        sink.publish(message(1L, "order:1:ORDERED")); // 재발행 (at-least-once)
+
+        // then
+        assertEquals(1, sink.drain().size());
+    }
+
+    @Test
+    public void 큐가_가득_차면_발행_실패() throws Exception {
+        // given
+        InMemoryOutboxSink sink = new InMemoryOutboxSink(1);
+        sink.publish(message(1L, "order:1:ORDERED"));
+
+        // when / then
+        assertThrows(IllegalStateException.class, () -> sink.publish(message(2L, "order:2:ORDERED")));
+    }
+
+    private OutboxMessage message(Long id, String dedupKey) {
+        return new OutboxMessage(id, dedupKey, "Order", id, "ORDERED", "{}", LocalDateTime.now(), 0);
+    }
+}
@@ -0,0 +1,56 @@
+package jpabook.jpashop.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkedInLoaderTest {
+
+    @Test
+    public void chunk_크기_2의_거듭제곱_패딩() throws Exception {
+        // given
+        List<Long> ids = LongStream.rangeClosed(1, 11).boxed().collect(Collectors.toList());
+
+        // when
+        List<List<Long>> chunks = ChunkedInLoader.chunk(ids, 8);
+
+        // then
+        assertEquals(2, chunks.size());
+        assertEquals(8, chunks.get(0).size());
+        assertEquals(Arrays.asList(9L, 10L, 11L, 11L), chunks.get(1)); // 3개 -> 4개 (마지막 id 반복)
+    }
+
+    @Test
+    public void chunk_중복_id_제거() throws Exception {
+        // when
+        List<List<Long>> chunks = ChunkedInLoader.chunk(Arrays.asList(1L, 1L, 2L, 2L, 3L), 512);
+
+        // then
+        assertEquals(1, chunks.size());
+        assertEquals(Arrays.asList(1L, 2L, 3L, 3L), chunks.get(0));
+    }
+
+    @Test
+    public void chunk_빈_목록() throws Exception {
+        assertTrue(ChunkedInLoader.chunk(Collections.emptyList(), 512).isEmpty());
+    }
+
+    @Test
+    public void chunk_parallelism_개수로_묶음() throws Exception {
+        // given
+        List<Integer> chunks = Arrays.asList(1, 2, 3, 4, 5);
+
+        // when
+        List<List<Integer>> groups = ChunkedInLoader.partition(chunks, 2);
+
+        // then
+        assertEquals(Arrays.asList(Arrays.asList(1, 2, 3), Arrays.asList(4, 5)), groups);
+        assertEquals(2, ChunkedInLoader.partition(Arrays.asList(1, 2), 4).size(), "chunk 가 parallelism 보다 적으면 chunk 개수만큼");
+    }
+}
@@ -0,0 +1,52 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.exception.InvalidRequestParameterException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderCursorTest {
+
+    @Test
+    public void 커서_정렬_포함_encode_decode() throws Exception {
+        // given
+        LocalDateTime orderDate = LocalDateTime.of(2021, 3, 1, 10, 30);
+
+        // when
+        OrderCursor cursor = OrderCursor.decode(new OrderCursor(OrderCursor.Sort.ORDER_DATE, orderDate, 7L).encode());
+
+        // then
+        assertEquals(OrderCursor.Sort.ORDER_DATE, cursor.getSort());
+        assertEquals(orderDate, cursor.getOrderDate());
+        assertEquals(7L, cursor.getOrderId());
+    }
+
+    @Test
+    public void 다른_정렬의_커서는_400() throws Exception {
+        // given
+        String idCursor = OrderCursor.afterId(7L).encode();
+
+        // then
+        assertThrows(InvalidRequestParameterException.class, () -> OrderCursor.decode(idCursor).requireSort(OrderCursor.Sort.ORDER_DATE));
+        assertEquals(7L, OrderCursor.decode(idCursor).requireSort(OrderCursor.Sort.ID).getOrderId());
+    }
+
+    @Test
+    public void orderDate_없는_최근_주문순_커서는_400() throws Exception {
+        // given
+        String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString("ORDER_DATE||7".getBytes(StandardCharsets.UTF_8));
+
+        // then
+        assertThrows(InvalidRequestParameterException.class, () -> OrderCursor.decode(cursor));
+    }
+
+    @Test
+    public void 알_수_없는_정렬은_400() throws Exception {
+        assertThrows(InvalidRequestParameterException.class, () -> OrderCursor.Sort.of("price"));
+        assertEquals(OrderCursor.Sort.ORDER_DATE, OrderCursor.Sort.of("orderDate"));
+    }
+}
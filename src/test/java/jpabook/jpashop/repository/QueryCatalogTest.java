@@ -0,0 +1,123 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.order.query.OrderField;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.search.SearchIndex;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.BDDMockito.given;
+
+/**
+ * Named Query (META-INF/orm.xml) / QueryTemplate 은 기동 시점에 미리 파싱되므로
+ * 요청 처리 중에는 검색 조건 값이 달라도 QueryPlanCache miss (JPQL 파싱) 가 발생하지 않아야 함
+ *
+ * 회원 이름 조건은 검색 색인 (SearchIndex) 상태에 따라 조합이 달라지므로 색인을 mock 으로 대체
+ *  => 색인 준비 전 : 회원 이름 like (MEMBER_NAME_LIKE)
+ *  => 색인 검색 결과 : 회원 id IN (MEMBER_ID_IN) > Hibernate 가 값 개수만큼 펼친 JPQL 로 계획을 만들므로 패딩된 길이별로 첫 실행만 miss
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.query.in_clause_parameter_padding=true"
+})
+@Transactional
+class QueryCatalogTest {
+
+    private static final OrderStatus[] STATUSES = {null, OrderStatus.ORDER, OrderStatus.CANCEL};
+
+    @MockBean
+    SearchIndex searchIndex;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    OrderQueryRepository orderQueryRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Test
+    public void 검색_조건_조합과_상관없이_JPQL_파싱_없음() throws Exception {
+        // given
+        given(searchIndex.isReady()).willReturn(false); // 회원 이름 like
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // when
+        for (OrderStatus status : STATUSES) {
+            for (String memberName : new String[]{null, "없는회원%_"}) {
+                OrderSearch orderSearch = new OrderSearch();
+                orderSearch.setOrderStatus(status);
+                orderSearch.setMemberName(memberName);
+
+                orderRepository.findAll(orderSearch);
+                orderRepository.findOrderList(orderSearch, 0L, 20);
+            }
+        }
+        orderRepository.findAllWithMemberDeliveryBefore(LocalDateTime.now(), Long.MAX_VALUE, 10);
+        orderQueryRepository.findAllByFields(EnumSet.of(OrderField.NAME, OrderField.ORDER_STATUS), null, 10);
+        memberRepository.findNamesByPrefix("user", 20);
+        itemRepository.findNamesByPrefix("JPA", 20);
+
+        // then
+        assertTrue(statistics.getQueryPlanCacheHitCount() > 0, "Named Query / QueryTemplate 은 QueryPlanCache 에서 조회");
+        assertEquals(0, statistics.getQueryPlanCacheMissCount(), "요청 처리 중 JPQL 파싱 발생");
+        assertTrue(Arrays.stream(statistics.getQueries()).anyMatch(query -> query.contains(" like ")), "회원 이름 like 조합 실행");
+    }
+
+    @Test
+    public void 회원_id_IN_조합은_패딩된_길이별로_한번만_파싱() throws Exception {
+        // given
+        given(searchIndex.isReady()).willReturn(true);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        given(searchIndex.searchMembers(anyString(), anyInt())).willReturn(Arrays.asList(1L, 2L, 3L));
+        findAllByMemberName(); // 길이 4 (3 > 패딩) 로 펼친 JPQL 계획 생성
+        statistics.clear();
+
+        // when
+        given(searchIndex.searchMembers(anyString(), anyInt())).willReturn(Arrays.asList(4L, 5L, 6L, 7L));
+        findAllByMemberName();
+
+        // then
+        assertTrue(statistics.getQueryPlanCacheHitCount() > 0);
+        assertEquals(0, statistics.getQueryPlanCacheMissCount(), "회원 id 값 / 개수가 달라도 패딩된 길이가 같으면 같은 계획을 사용");
+        assertTrue(Arrays.stream(statistics.getQueries()).anyMatch(query -> query.contains(" in ")), "회원 id IN 조합 실행");
+    }
+
+    private void findAllByMemberName() {
+        for (OrderStatus status : STATUSES) {
+            OrderSearch orderSearch = new OrderSearch();
+            orderSearch.setOrderStatus(status);
+            orderSearch.setMemberName("회원");
+
+            orderRepository.findAll(orderSearch);
+            orderRepository.findOrderList(orderSearch, 0L, 20);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package jpabook.jpashop.repository;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.outbox.OutboxRepository;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.repository.order.summary.OrderSummaryRepository;
+import jpabook.jpashop.search.SearchIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+
+/**
+ * Repository 쿼리 실행 계획 (EXPLAIN) 확인
+ *
+ * 실제 Repository 메소드를 호출하면서 실행된 SELECT 를 수집한 후 H2 EXPLAIN 으로 full scan (tableScan) 여부 확인
+ *  => 실행 계획은 파라미터 값이 아니라 prepare 시점에 결정되므로 파라미터는 모두 null 로 바인딩
+ *  => WHERE 조건이 없는 전체 조회는 첫 번째 (driving) 테이블만 scan 허용, 나머지 테이블은 모두 인덱스로 조회해야 함
+ *  => 회원 이름 like '%..%' (검색 색인 준비 전 대체 검색) 는 member scan 이 의도된 동작이므로 해당 SQL 의 member scan 만 명시적으로 허용
+ *
+ * * 스키마 / 인덱스는 Flyway 마이그레이션 (db/migration) 기준
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@Transactional
+@Import(QueryPlanTest.CaptureConfig.class)
+class QueryPlanTest {
+
+    private static final Pattern TABLE_SCAN = Pattern.compile("/\\* PUBLIC\\.(\\w+)\\.tableScan");
+    private static final Pattern TABLE_ACCESS = Pattern.compile("/\\* PUBLIC\\.(\\w+)\\.");
+    private static final Pattern MEMBER_NAME_LIKE = Pattern.compile("\\.name like \\?", Pattern.CASE_INSENSITIVE);
+
+    @SpyBean
+    SearchIndex searchIndex;
+
+    @Autowired
+    SqlCapture sqlCapture;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    OrderQueryRepository orderQueryRepository;
+
+    @Autowired
+    OrderSummaryRepository orderSummaryRepository;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    ItemRepository itemRepository;
+
+    @Autowired
+    OutboxRepository outboxRepository;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Test
+    public void 조회_쿼리_full_scan_없음() throws Exception {
+        // given
+        Member member = memberRepository.findAll().get(0); // InitDb 회원
+
+        // when
+        sqlCapture.start();
+
+        OrderSearch byStatus = new OrderSearch();
+        byStatus.setOrderStatus(OrderStatus.ORDER);
+        orderRepository.findAll(byStatus);
+
+        OrderSearch byName = new OrderSearch();
+        byName.setOrderStatus(OrderStatus.ORDER);
+        byName.setMemberName(member.getName());
+        orderRepository.findAll(byName);
+
+        orderRepository.findOrderList(byStatus, null, 20);
+        orderRepository.findOrderList(byName, 0L, 20);
+        orderRepository.findAllByMember(member.getId());
+        orderRepository.findAllWithMemberDeliveryAfter(0L, 10);
+        orderRepository.findAllWithMemberDeliveryBefore(null, null, 10);
+        orderRepository.findAllWithMemberDeliveryBefore(LocalDateTime.now(), Long.MAX_VALUE, 10);
+        orderRepository.findAllWithItem();
+
+        orderQueryRepository.findOrderQueryDtos();
+        orderQueryRepository.findAllByDto_optimization();
+        orderQueryRepository.findAllByDto_flat();
+
+        orderSummaryRepository.findAllAfter(null, 10);
+        memberRepository.findByName(member.getName());
+        memberRepository.findNamesByPrefix("user", 20);
+        outboxRepository.findPending(LocalDateTime.now(), 10);
+        categoryRepository.findItemsInSubtree(1L, null, 10);
+        itemRepository.findNamesByPrefix("JPA", 20);
+
+        List<String> selects = sqlCapture.stop();
+
+        // then
+        assertTrue(selects.size() > 0, "수집된 SELECT 가 없습니다.");
+
+        List<String> violations = new ArrayList<>();
+        for (String sql : selects) {
+            String plan = explain(sql);
+            if (!isAllowed(sql, plan)) {
+                violations.add(sql + "\n  => " + plan);
+            }
+        }
+        assertTrue(violations.isEmpty(), "full scan 쿼리:\n" + String.join("\n\n", violations));
+    }
+
+    /**
+     * 검색 색인 준비 전 (isReady = false) 회원 이름 검색은 member.name like '%..%' 로 대체
+     *  => 앞이 % 인 like 는 B-Tree 인덱스를 사용할 수 없으므로 member scan 은 허용 목록으로 명시 (색인이 준비되면 회원 id IN)
+     *  => 그 외 테이블 (orders / delivery / order_item ..) 은 대체 검색에서도 인덱스로 조회해야 함
+     */
+    @Test
+    public void 회원_이름_like_대체_검색은_member_scan_만_허용() throws Exception {
+        // given
+        doReturn(false).when(searchIndex).isReady();
+        Member member = memberRepository.findAll().get(0); // InitDb 회원
+
+        // when
+        sqlCapture.start();
+
+        OrderSearch byName = new OrderSearch();
+        byName.setOrderStatus(OrderStatus.ORDER);
+        byName.setMemberName(member.getName());
+        orderRepository.findAll(byName);
+        orderRepository.findOrderList(byName, 0L, 20);
+
+        List<String> selects = sqlCapture.stop();
+
+        // then
+        assertTrue(selects.stream().anyMatch(sql -> MEMBER_NAME_LIKE.matcher(sql).find()), "회원 이름 like 대체 검색이 실행되지 않았습니다.");
+
+        List<String> violations = new ArrayList<>();
+        for (String sql : selects) {
+            String plan = explain(sql);
+            if (!isAllowed(sql, plan) && !isMemberNameLikeScan(sql, plan)) {
+                violations.add(sql + "\n  => " + plan);
+            }
+        }
+        assertTrue(violations.isEmpty(), "full scan 쿼리:\n" + String.join("\n\n", violations));
+    }
+
+    // 허용 목록 > 회원 이름 like 대체 검색의 member scan (다른 테이블 scan 이 있으면 허용 X)
+    private boolean isMemberNameLikeScan(String sql, String plan) {
+        if (!MEMBER_NAME_LIKE.matcher(sql).find()) {
+            return false;
+        }
+        Matcher scan = TABLE_SCAN.matcher(plan);
+        while (scan.find()) {
+            if (!scan.group(1).equals("MEMBER")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // WHERE 가 없는 전체 조회의 driving 테이블 scan 만 허용
+    private boolean isAllowed(String sql, String plan) {
+        Matcher scan = TABLE_SCAN.matcher(plan);
+        if (!scan.find()) {
+            return true;
+        }
+
+        boolean hasWhere = sql.toLowerCase(Locale.ROOT).contains(" where ");
+        Matcher first = TABLE_ACCESS.matcher(plan);
+        boolean driving = first.find() && first.group(1).equals(scan.group(1));
+
+        return !hasWhere && driving && !scan.find();
+    }
+
+    private String explain(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+            int parameters = statement.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= parameters; i++) {
+                statement.setNull(i, Types.NULL);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class CaptureConfig {
+        @Bean
+        SqlCapture sqlCapture() {
+            return new SqlCapture();
+        }
+    }
+
+    // p6spy 리스너 > start ~ stop 사이에 현재 스레드에서 실행된 SELECT 수집 (중복 제거)
+    static class SqlCapture extends SimpleJdbcEventListener {
+
+        private final ThreadLocal<Set<String>> captured = new ThreadLocal<>();
+
+        void start() {
+            captured.set(new LinkedHashSet<>());
+        }
+
+        List<String> stop() {
+            List<String> result = new ArrayList<>(captured.get());
+            captured.remove();
+            return result;
+        }
+
+        @Override
+        public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+            Set<String> sqls = captured.get();
+            String sql = statementInformation.getSql();
+            if (sqls != null && sql != null && sql.trim().toLowerCase(Locale.ROOT).startsWith("select")) {
+                sqls.add(sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package jpabook.jpashop.repository.order.query;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 병렬 조립 하위 쿼리는 별도 커넥션에서 실행되므로 테스트 트랜잭션 없이 InitDb 가 커밋한 데이터로 확인
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+class OrderQueryRepositoryTest {
+
+    @Autowired
+    OrderQueryRepository orderQueryRepository;
+
+    @Test
+    public void 병렬_조립_결과는_V5_와_동일() throws Exception {
+        // when
+        List<OrderQueryDto> sequential = new ArrayList<>(orderQueryRepository.findAllByDto_optimization());
+        List<OrderQueryDto> parallel = new ArrayList<>(orderQueryRepository.findAllByDto_parallel());
+        sequential.sort(Comparator.comparing(OrderQueryDto::getOrderId));
+        parallel.sort(Comparator.comparing(OrderQueryDto::getOrderId));
+
+        // then
+        assertFalse(parallel.isEmpty());
+        assertEquals(sequential.size(), parallel.size());
+        for (int i = 0; i < sequential.size(); i++) {
+            OrderQueryDto expected = sequential.get(i);
+            OrderQueryDto actual = parallel.get(i);
+
+            assertEquals(expected.getOrderId(), actual.getOrderId());
+            assertEquals(expected.getName(), actual.getName());
+            assertEquals(expected.getAddress().getCity(), actual.getAddress().getCity());
+            assertEquals(expected.getOrderItems(), actual.getOrderItems());
+        }
+    }
+
+    @Test
+    public void 요청한_필드만_조회() throws Exception {
+        // when
+        List<Map<String, Object>> statusOnly = orderQueryRepository.findAllByFields(OrderField.parse("orderStatus"), null, 10);
+        List<Map<String, Object>> all = orderQueryRepository.findAllByFields(OrderField.parse(null), null, 10);
+
+        List<OrderQueryDto> expected = new ArrayList<>(orderQueryRepository.findAllByDto_optimization());
+        expected.sort(Comparator.comparing(OrderQueryDto::getOrderId));
+
+        // then
+        assertFalse(statusOnly.isEmpty());
+        assertEquals(new HashSet<>(Arrays.asList("orderId", "orderStatus")), statusOnly.get(0).keySet(), "요청한 필드 + orderId 만 포함해야 한다.");
+
+        Map<String, Object> first = all.get(0);
+        OrderQueryDto order = expected.get(0);
+        assertEquals(order.getOrderId(), first.get("orderId"));
+        assertEquals(order.getName(), first.get("name"));
+        assertEquals(order.getOrderStatus(), first.get("orderStatus"));
+        assertEquals(order.getOrderItems(), first.get("orderItems"));
+
+        assertThrows(IllegalArgumentException.class, () -> OrderField.parse("orderId,password"));
+    }
+
+    @Test
+    public void 요청하지_않은_필드는_join_하지_않음() throws Exception {
+        // when
+        String statusOnly = orderQueryRepository.jpql(EnumSet.of(OrderField.ORDER_ID, OrderField.ORDER_STATUS)).toLowerCase();
+        String nameOnly = orderQueryRepository.jpql(EnumSet.of(OrderField.ORDER_ID, OrderField.NAME)).toLowerCase();
+        String all = orderQueryRepository.jpql(EnumSet.of(OrderField.ORDER_ID, OrderField.NAME, OrderField.ADDRESS, OrderField.ORDER_DATE, OrderField.ORDER_STATUS)).toLowerCase();
+
+        // then
+        assertFalse(statusOnly.contains("join"), "name / address 를 요청하지 않으면 join 없음 : " + statusOnly);
+        assertTrue(nameOnly.contains("left join") && nameOnly.contains(".member") && !nameOnly.contains(".delivery"), nameOnly);
+        assertTrue(all.contains(".member") && all.contains(".delivery") && !all.replace("left join", "").contains("join"), "join 은 모두 left join : " + all);
+    }
+
+    @Test
+    public void 요청한_필드와_상관없이_같은_주문_수() throws Exception {
+        // when
+        int statusOnly = orderQueryRepository.findAllByFields(OrderField.parse("orderStatus"), null, 1000).size();
+        int nameOnly = orderQueryRepository.findAllByFields(OrderField.parse("name"), null, 1000).size();
+        int addressOnly = orderQueryRepository.findAllByFields(OrderField.parse("address"), null, 1000).size();
+        int all = orderQueryRepository.findAllByFields(OrderField.parse(null), null, 1000).size();
+
+        // then
+        assertTrue(statusOnly > 0);
+        assertEquals(statusOnly, nameOnly);
+        assertEquals(statusOnly, addressOnly);
+        assertEquals(statusOnly, all);
+    }
+}
@@ -0,0 +1,45 @@
+package jpabook.jpashop.repository.order.reactive;
+
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// R2DBC 는 별도 커넥션이므로 테스트 트랜잭션 없이 InitDb 가 커밋한 데이터로 확인
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+class ReactiveOrderQueryRepositoryTest {
+
+    @Autowired
+    ReactiveOrderQueryRepository reactiveOrderQueryRepository;
+
+    @Autowired
+    OrderQueryRepository orderQueryRepository;
+
+    @Test
+    public void 반응형_조회_결과는_V5_와_동일() throws Exception {
+        // when
+        List<OrderQueryDto> jpa = new ArrayList<>(orderQueryRepository.findAllByDto_optimization());
+        List<OrderQueryDto> reactive = reactiveOrderQueryRepository.findOrderQueryDtos().collectList().block();
+        jpa.sort(Comparator.comparing(OrderQueryDto::getOrderId));
+
+        // then
+        assertFalse(reactive.isEmpty());
+        assertEquals(jpa.size(), reactive.size());
+        for (int i = 0; i < jpa.size(); i++) {
+            assertEquals(jpa.get(i).getOrderId(), reactive.get(i).getOrderId());
+            assertEquals(jpa.get(i).getName(), reactive.get(i).getName());
+            assertEquals(jpa.get(i).getOrderItems().size(), reactive.get(i).getOrderItems().size());
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package jpabook.jpashop.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NgramIndexTest {
+
+    @Test
+    public void 중간_문자열_검색() throws Exception {
+        // given
+        NgramIndex index = new NgramIndex();
+        index.put(1L, "김준호");
+        index.put(2L, "이준호");
+        index.put(3L, "김철수");
+
+        // then
+        assertEquals(Arrays.asList(1L, 2L), index.search("준호", 10));
+        assertEquals(Collections.singletonList(1L), index.search("김준", 10));
+        assertEquals(Arrays.asList(1L, 3L), index.search("김", 10)); // 1글자는 전체 문서 확인
+        assertTrue(index.search("박", 10).isEmpty());
+    }
+
+    @Test
+    public void bigram_이_모두_있어도_원문에_없으면_제외() throws Exception {
+        // given
+        NgramIndex index = new NgramIndex();
+        index.put(1L, "abcab"); // ab / bc / ca 모두 포함
+
+        // then
+        assertEquals(Collections.singletonList(1L), index.search("abca", 10));
+        assertTrue(index.search("bcabc", 10).isEmpty());
+        assertTrue(index.search("cabc", 10).isEmpty());
+    }
+
+    @Test
+    public void 여러_필드_대소문자_무시() throws Exception {
+        // given
+        NgramIndex index = new NgramIndex();
+        index.put(1L, "JPA 표준", "Kim", "ISBN-1234");
+
+        // then
+        assertEquals(Collections.singletonList(1L), index.search("jpa", 10));
+        assertEquals(Collections.singletonList(1L), index.search("KIM", 10));
+        assertEquals(Collections.singletonList(1L), index.search("1234", 10));
+    }
+
+    @Test
+    public void 변경_삭제_반영() throws Exception {
+        // given
+        NgramIndex index = new NgramIndex();
+        index.put(1L, "김준호");
+        index.put(2L, "김준호");
+
+        // when
+        index.put(1L, "박영희"); // 이름 변경
+        index.remove(2L);
+
+        // then
+        assertTrue(index.search("준호", 10).isEmpty());
+        assertEquals(Collections.singletonList(1L), index.search("영희", 10));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void 결과_개수_제한() throws Exception {
+        // given
+        NgramIndex index = new NgramIndex();
+        for (long id = 10; id > 0; id--) {
+            index.put(id, "회원" + id);
+        }
+
+        // then
+        assertEquals(Arrays.asList(1L, 2L, 3L), index.search("회원", 3)); // id 오름차순
+    }
+}
@@ -0,0 +1,110 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.CategoryItemDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@Transactional
+class CategoryServiceTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    CategoryService categoryService;
+
+    @Test
+    public void 하위카테고리_상품조회() throws Exception {
+        // given : 도서 > IT > JPA
+        Long books = categoryService.create("도서", null);
+        Long it = categoryService.create("IT", books);
+        Long jpa = categoryService.create("JPA", it);
+
+        Book novel = getBook("소설");
+        Book network = getBook("네트워크");
+        Book jpaBook = getBook("JPA 표준");
+
+        categoryService.addItem(books, novel.getId());
+        categoryService.addItem(it, network.getId());
+        categoryService.addItem(jpa, jpaBook.getId());
+        categoryService.addItem(it, jpaBook.getId()); // 여러 하위 카테고리에 속한 상품
+        em.flush();
+
+        // when
+        List<Long> all = itemIds(categoryService.findItems(books, null, 10));
+        List<Long> itOnly = itemIds(categoryService.findItems(it, null, 10));
+        List<Long> secondPage = itemIds(categoryService.findItems(books, novel.getId(), 1));
+
+        // then
+        assertEquals(Arrays.asList(novel.getId(), network.getId(), jpaBook.getId()), all, "하위 카테고리 상품을 id 순으로 한번씩 조회해야 한다.");
+        assertEquals(Arrays.asList(network.getId(), jpaBook.getId()), itOnly, "상위 카테고리 상품은 포함하지 않아야 한다.");
+        assertEquals(Arrays.asList(network.getId()), secondPage, "after 이후부터 limit 개만 조회해야 한다.");
+    }
+
+    @Test
+    public void 카테고리이동() throws Exception {
+        // given : 도서 > IT > JPA , 전자
+        Long books = categoryService.create("도서", null);
+        Long it = categoryService.create("IT", books);
+        Long jpa = categoryService.create("JPA", it);
+        Long electronics = categoryService.create("전자", null);
+
+        Book jpaBook = getBook("JPA 표준");
+        categoryService.addItem(jpa, jpaBook.getId());
+        em.flush();
+
+        // when : IT 하위 트리를 전자 아래로 이동
+        categoryService.move(it, electronics);
+
+        // then
+        assertTrue(categoryService.findItems(books, null, 10).isEmpty(), "이동한 하위 트리의 상품은 이전 상위 카테고리에서 빠져야 한다.");
+        assertEquals(1, categoryService.findItems(electronics, null, 10).size(), "이동한 하위 트리의 상품은 새 상위 카테고리에 포함되어야 한다.");
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            categoryService.move(it, jpa); // 자기 하위 카테고리로 이동
+        });
+    }
+
+    @Test
+    public void 같은_상품_중복_추가_무시() throws Exception {
+        // given
+        Long books = categoryService.create("도서", null);
+        Book jpaBook = getBook("JPA 표준");
+        categoryService.addItem(books, jpaBook.getId());
+        em.flush();
+
+        // when : 같은 요청 재시도
+        categoryService.addItem(books, jpaBook.getId());
+        em.flush();
+
+        // then
+        assertEquals(Arrays.asList(jpaBook.getId()), itemIds(categoryService.findItems(books, null, 10)), "이미 속한 상품은 변경 없음 (PK 위반 X)");
+    }
+
+    private List<Long> itemIds(List<CategoryItemDto> items) {
+        return items.stream().map(CategoryItemDto::getItemId).collect(Collectors.toList());
+    }
+
+    private Book getBook(String name) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        em.persist(book);
+        return book;
+    }
+}
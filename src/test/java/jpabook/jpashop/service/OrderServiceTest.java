@@ -4,10 +4,16 @@ import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.OrderSummary;
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.domain.item.Item;
 import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.outbox.OutboxEvent;
+import jpabook.jpashop.outbox.OutboxRepository;
+import jpabook.jpashop.outbox.OutboxWriter;
 import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.order.summary.OrderSummaryRepository;
+import jpabook.jpashop.service.intake.OrderBatchWriter;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +22,10 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -33,6 +43,21 @@ class OrderServiceTest {
     @Autowired
     OrderRepository orderRepository;
 
+    @Autowired
+    OrderSummaryService orderSummaryService;
+
+    @Autowired
+    OrderSummaryRepository orderSummaryRepository;
+
+    @Autowired
+    OutboxWriter outboxWriter;
+
+    @Autowired
+    OutboxRepository outboxRepository;
+
+    @Autowired
+    OrderBatchWriter orderBatchWriter;
+
     @Test
     public void 상품주문() throws Exception {
         // given
@@ -91,6 +116,98 @@ class OrderServiceTest {
         assertEquals(10, item.getStockQuantity()); // 주문이 취소된 상품은 재고가 다시 원복되어야 함
     }
 
+    @Test
+    public void 대량주문() throws Exception {
+        // given
+        Member member = getMember();
+        Book book1 = getBook("JPA 표준", 10000, 10);
+        Book book2 = getBook("JPA 활용", 20000, 10);
+
+        List<OrderCommand> commands = Arrays.asList(
+                new OrderCommand(member.getId(), Arrays.asList(new OrderCommand.Line(book1.getId(), 2), new OrderCommand.Line(book2.getId(), 1))),
+                new OrderCommand(member.getId(), Collections.singletonList(new OrderCommand.Line(book1.getId(), 3))));
+
+        // when
+        List<Long> orderIds = orderService.orders(commands);
+
+        // then
+        assertEquals(2, orderIds.size());
+        assertEquals(10000 * 2 + 20000, orderRepository.findOne(orderIds.get(0)).getTotalPrice());
+        assertEquals(10000 * 3, orderRepository.findOne(orderIds.get(1)).getTotalPrice());
+
+        em.refresh(book1); // 재고는 조건부 UPDATE 로 DB 에서 차감
+        assertEquals(5, book1.getStockQuantity()); // 같은 상품의 주문 수량은 합산하여 차감
+    }
+
+    @Test
+    public void 주문요약_갱신() throws Exception {
+        // given
+        Member member = getMember();
+        Book book = getBook("JPA 표준", 10000, 10);
+        Long orderId = orderService.order(member.getId(), book.getId(), 3);
+
+        // when
+        // 테스트 트랜잭션은 롤백되므로 BEFORE_COMMIT 리스너를 직접 호출
+        orderSummaryService.onOrderChanged(new OrderChangedEvent(orderId, OrderChangedEvent.Type.ORDERED));
+        orderService.cancelOrder(orderId);
+        orderSummaryService.onOrderChanged(new OrderChangedEvent(orderId, OrderChangedEvent.Type.CANCELED));
+        em.flush();
+        em.clear();
+
+        // then
+        OrderSummary summary = orderSummaryRepository.findOne(orderId);
+
+        assertEquals("KJH", summary.getMemberName());
+        assertEquals(10000 * 3, summary.getTotalPrice()); // 주문 시점에 계산한 총 금액
+        assertEquals(1, summary.getItemCount());
+        assertEquals(OrderStatus.CANCEL, summary.getStatus()); // 주문 취소 반영
+    }
+
+    @Test
+    public void 주문_outbox_기록() throws Exception {
+        // given
+        Member member = getMember();
+        Book book = getBook("JPA 표준", 10000, 10);
+        Long orderId = orderService.order(member.getId(), book.getId(), 1);
+
+        // when
+        // 테스트 트랜잭션은 롤백되므로 BEFORE_COMMIT 리스너를 직접 호출
+        outboxWriter.onOrderChanged(new OrderChangedEvent(orderId, OrderChangedEvent.Type.ORDERED));
+        em.flush();
+
+        // then
+        List<OutboxEvent> pending = outboxRepository.findPending(LocalDateTime.now().plusSeconds(1), 100);
+
+        assertTrue(pending.stream().anyMatch(event -> ("order:" + orderId + ":ORDERED").equals(event.getDedupKey())), "주문과 같은 트랜잭션에서 outbox 이벤트가 저장되어야 한다.");
+    }
+
+    @Test
+    public void 주문_배치저장_부분실패() throws Exception {
+        // given
+        Member member = getMember();
+        Book book1 = getBook("JPA 표준", 10000, 5);
+        Book book2 = getBook("JPA 활용", 20000, 1);
+
+        List<OrderCommand> commands = Arrays.asList(
+                new OrderCommand(member.getId(), Collections.singletonList(new OrderCommand.Line(book1.getId(), 3))),
+                new OrderCommand(member.getId(), Arrays.asList(new OrderCommand.Line(book1.getId(), 1), new OrderCommand.Line(book2.getId(), 2))), // book2 재고 부족
+                new OrderCommand(member.getId(), Collections.singletonList(new OrderCommand.Line(book1.getId(), 3)))); // 앞 주문 차감 후 재고 부족
+
+        // when
+        List<OrderBatchWriter.Result> results = orderBatchWriter.write(commands);
+
+        // then
+        assertNotNull(results.get(0).getOrderId());
+        assertNotNull(results.get(1).getError(), "재고가 부족한 주문만 실패해야 한다.");
+        assertNotNull(results.get(2).getError(), "앞 주문이 차감한 재고를 기준으로 판단해야 한다.");
+        assertEquals(10000 * 3, orderRepository.findOne(results.get(0).getOrderId()).getTotalPrice());
+
+        em.refresh(book1);
+        em.refresh(book2);
+        assertEquals(2, book1.getStockQuantity()); // 실패한 주문에서 차감한 재고는 원복
+        assertEquals(1, book2.getStockQuantity());
+    }
+
     private Book getBook(String name, int price, int stockQuantity) {
         Book book = new Book();
         book.setName(name); // 책 이름
@@ -0,0 +1,47 @@
+package jpabook.jpashop.service.query;
+
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
+import jpabook.jpashop.service.MemberService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 캐시 무효화는 커밋 이후 (AFTER_COMMIT) 에 실행되므로 테스트 트랜잭션 없이 InitDb 가 커밋한 데이터로 확인
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+class OrderQueryCacheTest {
+
+    @Autowired
+    OrderQueryCache orderQueryCache;
+
+    @Autowired
+    MemberService memberService;
+
+    @Test
+    public void 회원_이름_변경_시_캐시된_주문_조회_결과_갱신() throws Exception {
+        // given
+        Member member = memberService.findMembers().stream()
+                .filter(m -> "userA".equals(m.getName()))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+        assertTrue(orderQueryCache.findOrderDtos().stream().anyMatch(dto -> "userA".equals(dto.getName()))); // 캐시 적재
+        assertTrue(orderQueryCache.findOrderQueryDtos().stream().anyMatch(dto -> "userA".equals(dto.getName())));
+
+        try {
+            // when
+            memberService.update(member.getId(), "userA2");
+
+            // then
+            assertTrue(orderQueryCache.findOrderDtos().stream().map(OrderSimpleQueryDto::getName).anyMatch("userA2"::equals), "변경된 회원 이름으로 다시 조회해야 한다.");
+            assertTrue(orderQueryCache.findOrderQueryDtos().stream().map(OrderQueryDto::getName).noneMatch("userA"::equals));
+        } finally {
+            memberService.update(member.getId(), "userA");
+        }
+    }
+}
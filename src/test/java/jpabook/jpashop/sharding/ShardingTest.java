@@ -0,0 +1,91 @@
+package jpabook.jpashop.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ShardingTest {
+
+    @Test
+    public void 주문_id_shard_번호_포함() throws Exception {
+        // given
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator();
+        ShardRouter shardRouter = new ShardRouter(4);
+
+        // when
+        long id = generator.nextId(3);
+
+        // then
+        assertEquals(3, shardRouter.shardOfOrder(id), "id 에 포함된 shard 번호로 shard 를 찾을 수 있어야 한다.");
+    }
+
+    @Test
+    public void 주문_id_중복_없이_증가() throws Exception {
+        // given
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator();
+        Set<Long> ids = new HashSet<>();
+
+        // when
+        long previous = 0;
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextId(1);
+            assertTrue(id > previous, "id 는 발급 순서대로 증가해야 한다.");
+            ids.add(id);
+            previous = id;
+        }
+
+        // then
+        assertEquals(10_000, ids.size());
+    }
+
+    @Test
+    public void 이전_시퀀스_주문_id_구분() throws Exception {
+        // given
+        ShardRouter shardRouter = new ShardRouter(4);
+        long snowflakeId = new SnowflakeIdGenerator().nextId(3);
+
+        // then
+        assertTrue(shardRouter.isLegacyOrderId(12345L), "hibernate_sequence 로 발급된 id 에는 shard 번호가 없다.");
+        assertFalse(shardRouter.isLegacyOrderId(snowflakeId));
+        assertFalse(new ShardRouter(1).isLegacyOrderId(12345L), "shard 를 사용하지 않으면 조회할 필요 없음");
+    }
+
+    @Test
+    public void 같은_회원_같은_shard() throws Exception {
+        ShardRouter shardRouter = new ShardRouter(4);
+
+        assertEquals(shardRouter.shardOfMember(42L), shardRouter.shardOfMember(42L));
+        assertEquals(0, new ShardRouter(1).shardOfMember(42L), "shard 를 사용하지 않으면 항상 0번 shard");
+    }
+
+    @Test
+    public void shard_별_결과_merge_limit() throws Exception {
+        // given
+        List<List<Long>> results = Arrays.asList(
+                Arrays.asList(1L, 4L, 7L),
+                Arrays.asList(2L, 5L),
+                Arrays.asList(3L, 6L, 8L));
+
+        // when
+        List<Long> merged = ScatterGatherExecutor.merge(results, Comparator.naturalOrder(), 5);
+
+        // then
+        assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L), merged);
+    }
+
+    @Test
+    public void worker_id_미지정_기동_실패() throws Exception {
+        assertThrows(IllegalStateException.class, () -> ShardingConfig.resolveWorkerId("", false), "여러 인스턴스가 같은 worker 번호를 사용하지 않도록 기본값 없음");
+        assertEquals("0", ShardingConfig.resolveWorkerId(null, true), "인스턴스 1개로 실행하는 경우만 0");
+        assertEquals("7", ShardingConfig.resolveWorkerId(" 7 ", false));
+    }
+}